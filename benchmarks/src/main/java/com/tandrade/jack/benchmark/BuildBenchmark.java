@@ -0,0 +1,77 @@
+package com.tandrade.jack.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tandrade.jack.build.Build;
+import com.tandrade.jack.build.BuildError;
+import com.tandrade.jack.build.CompilerOptions;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildBenchmark {
+
+    private static final int CLASS_COUNT = 8;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private InputSize size;
+
+    // Passed to -j, 0 meaning one worker per core
+    @Param({"1", "0"})
+    private String jobs;
+
+    @Param({"", "-O"})
+    private String flags;
+
+    private Path directory;
+    private CompilerOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jack-build");
+        JackInputs.writeProgram(directory, CLASS_COUNT, size.getCopies());
+
+        String[] args = flags.isEmpty()
+            ? new String[] { "-j", jobs, directory.toString() }
+            : new String[] { flags, "-j", jobs, directory.toString() };
+
+        options = CompilerOptions.parse(args);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        JackInputs.delete(directory);
+    }
+
+    @Benchmark
+    public int compileDirectory() throws IOException, InterruptedException {
+        List<BuildError> errors = new Build(options).run();
+
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException(errors.get(0).toString());
+        }
+
+        return errors.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.tandrade.jack.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tandrade.jack.parser.syntax.CompilationEngine;
+import com.tandrade.jack.parser.token.NamePool;
+import com.tandrade.jack.vm.StreamVMWriter;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompilationEngineBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private InputSize size;
+
+    @Param({"false", "true"})
+    private boolean optimize;
+
+    private Path directory;
+    private File input;
+    private long lineCount;
+
+    // Reported by JMH as source lines/s next to the per-class rate
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class LineCounter {
+        public long lines;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            lines = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Output {
+        private StreamVMWriter writer = new StreamVMWriter();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jack-engine");
+        input = JackInputs.writeClass(directory, "Sample", size.getCopies()).toFile();
+        lineCount = Files.readAllLines(input.toPath()).size();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        JackInputs.delete(directory);
+    }
+
+    @Benchmark
+    public int compileClass(LineCounter counter, Output output) throws IOException {
+        StreamVMWriter writer = output.writer;
+
+        writer.reset();
+        try (CompilationEngine engine = new CompilationEngine(input, false, new NamePool(), writer)) {
+            engine.setOptimize(optimize);
+            engine.compileClass();
+        }
+
+        counter.lines += lineCount;
+
+        return writer.size();
+    }
+}
@@ -0,0 +1,579 @@
+package com.tandrade.jack.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Emits deterministic, valid Jack programs whose shape is controlled by a few counts.
+// Only the second half of each class's subroutines make calls, and only to the first half,
+// so a generated program always terminates with bounded work when run.
+public class CorpusGenerator {
+
+    private static final String CLASS_PREFIX = "Gen";
+    private static final int FIELD_COUNT = 3;
+    private static final int ARRAY_SIZE = 8;
+    private static final int LOOP_COUNT = 3;
+    // Operators in a parenthesised sub-expression, small so that source size grows linearly with expression length
+    private static final int NESTED_LENGTH = 2;
+    private static final String STRING_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 .,:;!?-+*/()";
+
+    private long seed;
+    private int classCount;
+    private int subroutineCount;
+    private int localCount;
+    private int statementCount;
+    private int nestingDepth;
+    private int expressionLength;
+    private int stringCount;
+
+    public CorpusGenerator(long seed) {
+        this.seed = seed;
+        this.classCount = 4;
+        this.subroutineCount = 20;
+        this.localCount = 4;
+        this.statementCount = 4;
+        this.nestingDepth = 2;
+        this.expressionLength = 4;
+        this.stringCount = 1;
+    }
+
+    public static CorpusGenerator parse(String[] args, List<String> positional) {
+        CorpusGenerator generator = new CorpusGenerator(0);
+
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                positional.add(args[i]);
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+
+            String option = args[i];
+            long value = parseCount(option, args[++i]);
+
+            switch (option) {
+                case "--seed":
+                    generator.seed = value;
+                    break;
+                case "--classes":
+                    generator.setClassCount((int) value);
+                    break;
+                case "--subroutines":
+                    generator.setSubroutineCount((int) value);
+                    break;
+                case "--locals":
+                    generator.setLocalCount((int) value);
+                    break;
+                case "--statements":
+                    generator.setStatementCount((int) value);
+                    break;
+                case "--depth":
+                    generator.setNestingDepth((int) value);
+                    break;
+                case "--expression":
+                    generator.setExpressionLength((int) value);
+                    break;
+                case "--strings":
+                    generator.setStringCount((int) value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected argument: " + option);
+            }
+        }
+
+        return generator;
+    }
+
+    private static long parseCount(String option, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+        }
+    }
+
+    public void setClassCount(int classCount) {
+        this.classCount = atLeast(1, classCount, "class count");
+    }
+
+    public void setSubroutineCount(int subroutineCount) {
+        this.subroutineCount = atLeast(1, subroutineCount, "subroutine count");
+    }
+
+    public void setLocalCount(int localCount) {
+        this.localCount = atLeast(1, localCount, "local count");
+    }
+
+    public void setStatementCount(int statementCount) {
+        this.statementCount = atLeast(1, statementCount, "statement count");
+    }
+
+    public void setNestingDepth(int nestingDepth) {
+        this.nestingDepth = atLeast(0, nestingDepth, "nesting depth");
+    }
+
+    public void setExpressionLength(int expressionLength) {
+        this.expressionLength = atLeast(0, expressionLength, "expression length");
+    }
+
+    public void setStringCount(int stringCount) {
+        this.stringCount = atLeast(0, stringCount, "string count");
+    }
+
+    private static int atLeast(int minimum, int value, String name) {
+        if (value < minimum) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+
+        return value;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    public static String getClassName(int index) {
+        return CLASS_PREFIX + index;
+    }
+
+    // Writes Main.jack plus one file per generated class, returning the number of bytes written
+    public long write(Path directory) throws IOException {
+        long bytes = 0;
+
+        Files.createDirectories(directory);
+        for (int i = 0; i < classCount; i++) {
+            bytes += writeFile(directory.resolve(getClassName(i) + ".jack"), generateClass(i));
+        }
+        bytes += writeFile(directory.resolve("Main.jack"), generateMain());
+
+        return bytes;
+    }
+
+    private static long writeFile(Path file, String source) throws IOException {
+        byte[] bytes = source.getBytes(StandardCharsets.US_ASCII);
+
+        Files.write(file, bytes);
+
+        return bytes.length;
+    }
+
+    public String generateMain() {
+        StringBuilder out = new StringBuilder();
+
+        out.append("class Main {\n");
+        out.append("    function void main() {\n");
+        for (int i = 0; i < classCount; i++) {
+            out.append("        do ").append(getClassName(i)).append(".run();\n");
+        }
+        out.append("        return;\n");
+        out.append("    }\n");
+        out.append("}\n");
+
+        return out.toString();
+    }
+
+    public String generateClass(int index) {
+        return new ClassWriter(index).write();
+    }
+
+    // Each class gets its own stream, so changing the class count leaves earlier classes alone
+    private Random classRandom(int index) {
+        return new Random(seed * 0x9E3779B97F4A7C15L + index);
+    }
+
+    // Signatures are the first thing drawn from a class's stream, so other classes can recreate them
+    private List<Subroutine> drawSignatures(Random random) {
+        List<Subroutine> signatures = new ArrayList<>(subroutineCount);
+
+        for (int i = 0; i < subroutineCount; i++) {
+            boolean method = random.nextBoolean();
+            signatures.add(new Subroutine((method ? "m" : "f") + i, method, random.nextInt(3) > 0, random.nextInt(4)));
+        }
+
+        return signatures;
+    }
+
+    private static class Subroutine {
+        private String name;
+        private boolean method;
+        private boolean returnsInt;
+        private int parameterCount;
+
+        private Subroutine(String name, boolean method, boolean returnsInt, int parameterCount) {
+            this.name = name;
+            this.method = method;
+            this.returnsInt = returnsInt;
+            this.parameterCount = parameterCount;
+        }
+    }
+
+    private class ClassWriter {
+
+        private int classIndex;
+        private String className;
+        private Random random;
+        private StringBuilder out;
+        private List<Subroutine> subroutines;
+        private Map<Integer, List<Subroutine>> otherClasses;
+        private int leafCount;
+
+        // State of the subroutine being written
+        private Subroutine current;
+        private List<String> readable;
+        private List<String> writable;
+        private boolean callsAllowed;
+
+        private ClassWriter(int classIndex) {
+            this.classIndex = classIndex;
+            this.className = getClassName(classIndex);
+            this.random = classRandom(classIndex);
+            this.out = new StringBuilder();
+            this.subroutines = null;
+            this.otherClasses = new HashMap<>();
+            this.leafCount = (subroutineCount + 1) / 2;
+        }
+
+        private String write() {
+            subroutines = drawSignatures(random);
+
+            out.append("/** Generated class ").append(classIndex).append(" */\n");
+            out.append("class ").append(className).append(" {\n\n");
+            out.append("    field int ");
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                out.append(i > 0 ? ", " : "").append("f").append(i);
+            }
+            out.append(";\n");
+            out.append("    static int total;\n\n");
+
+            writeConstructor();
+            for (int i = 0; i < subroutines.size(); i++) {
+                writeSubroutine(subroutines.get(i), i >= leafCount);
+            }
+            writeRun();
+
+            out.append("}\n");
+
+            return out.toString();
+        }
+
+        private void writeConstructor() {
+            out.append("    constructor ").append(className).append(" new() {\n");
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                out.append("        let f").append(i).append(" = ").append(random.nextInt(100)).append(";\n");
+            }
+            out.append("        return this;\n");
+            out.append("    }\n\n");
+
+            out.append("    method void dispose() {\n");
+            out.append("        do Memory.deAlloc(this);\n");
+            out.append("        return;\n");
+            out.append("    }\n\n");
+        }
+
+        private void writeRun() {
+            out.append("    function void run() {\n");
+            out.append("        var ").append(className).append(" object;\n");
+            out.append("        let object = ").append(className).append(".new();\n");
+            for (Subroutine subroutine : subroutines) {
+                String call = (subroutine.method ? "object." : className + ".") + subroutine.name + "(" + constantArguments(subroutine) + ")";
+
+                if (subroutine.returnsInt) {
+                    out.append("        do Output.printInt(").append(call).append(");\n");
+                } else {
+                    out.append("        do ").append(call).append(";\n");
+                }
+            }
+            out.append("        do Output.println();\n");
+            out.append("        do object.dispose();\n");
+            out.append("        return;\n");
+            out.append("    }\n\n");
+        }
+
+        private String constantArguments(Subroutine subroutine) {
+            StringBuilder arguments = new StringBuilder();
+
+            for (int i = 0; i < subroutine.parameterCount; i++) {
+                arguments.append(i > 0 ? ", " : "").append(random.nextInt(1000));
+            }
+
+            return arguments.toString();
+        }
+
+        private void writeSubroutine(Subroutine subroutine, boolean caller) {
+            current = subroutine;
+            callsAllowed = caller;
+            readable = new ArrayList<>();
+            writable = new ArrayList<>();
+
+            out.append("    ").append(subroutine.method ? "method" : "function").append(' ');
+            out.append(subroutine.returnsInt ? "int" : "void").append(' ').append(subroutine.name).append('(');
+            for (int i = 0; i < subroutine.parameterCount; i++) {
+                out.append(i > 0 ? ", " : "").append("int a").append(i);
+                readable.add("a" + i);
+            }
+            out.append(") {\n");
+
+            out.append("        var int ");
+            for (int i = 0; i < localCount; i++) {
+                out.append(i > 0 ? ", " : "").append("l").append(i);
+                readable.add("l" + i);
+                writable.add("l" + i);
+            }
+            out.append(";\n");
+            if (nestingDepth > 0) {
+                out.append("        var int ");
+                for (int i = 0; i < nestingDepth; i++) {
+                    out.append(i > 0 ? ", " : "").append("i").append(i);
+                }
+                out.append(";\n");
+            }
+            out.append("        var Array arr;\n");
+            if (stringCount > 0) {
+                out.append("        var String str;\n");
+            }
+
+            if (subroutine.method) {
+                for (int i = 0; i < FIELD_COUNT; i++) {
+                    readable.add("f" + i);
+                    writable.add("f" + i);
+                }
+            }
+            readable.add("total");
+            writable.add("total");
+
+            out.append("        let arr = Array.new(").append(ARRAY_SIZE).append(");\n");
+            for (int i = 0; i < stringCount; i++) {
+                writeString(2);
+            }
+
+            writeStatements(2, 0);
+
+            out.append("        do arr.dispose();\n");
+            if (subroutine.returnsInt) {
+                out.append("        return ").append(expression(expressionLength)).append(";\n");
+            } else {
+                out.append("        return;\n");
+            }
+            out.append("    }\n\n");
+        }
+
+        private void writeString(int indent) {
+            int length = 1 + random.nextInt(24);
+            StringBuilder text = new StringBuilder(length);
+
+            for (int i = 0; i < length; i++) {
+                text.append(STRING_CHARS.charAt(random.nextInt(STRING_CHARS.length())));
+            }
+
+            indent(indent).append("let str = \"").append(text).append("\";\n");
+            indent(indent).append("do Output.printString(str);\n");
+            indent(indent).append("do str.dispose();\n");
+        }
+
+        private void writeStatements(int indent, int depth) {
+            for (int i = 0; i < statementCount; i++) {
+                writeStatement(indent, depth);
+            }
+        }
+
+        private void writeStatement(int indent, int depth) {
+            int choice = random.nextInt(depth < nestingDepth ? 6 : 4);
+
+            switch (choice) {
+                case 0:
+                case 1:
+                    indent(indent).append("let ").append(pick(writable)).append(" = ").append(expression(expressionLength)).append(";\n");
+                    break;
+                case 2:
+                    indent(indent).append("let arr[").append(arrayIndex()).append("] = ").append(expression(expressionLength)).append(";\n");
+                    break;
+                case 3:
+                    if (callsAllowed && depth == 0) {
+                        indent(indent).append("do ").append(call()).append(";\n");
+                    } else {
+                        indent(indent).append("let ").append(pick(writable)).append(" = ").append(expression(expressionLength)).append(";\n");
+                    }
+                    break;
+                case 4:
+                    indent(indent).append("if (").append(condition()).append(") {\n");
+                    writeStatements(indent + 1, depth + 1);
+                    if (random.nextBoolean()) {
+                        indent(indent).append("} else {\n");
+                        writeStatements(indent + 1, depth + 1);
+                    }
+                    indent(indent).append("}\n");
+                    break;
+                default:
+                    String counter = "i" + depth;
+
+                    indent(indent).append("let ").append(counter).append(" = 0;\n");
+                    indent(indent).append("while (").append(counter).append(" < ").append(LOOP_COUNT).append(") {\n");
+                    writeStatements(indent + 1, depth + 1);
+                    indent(indent + 1).append("let ").append(counter).append(" = ").append(counter).append(" + 1;\n");
+                    indent(indent).append("}\n");
+            }
+        }
+
+        private String condition() {
+            String[] comparisons = { " < ", " > ", " = " };
+            String comparison = "(" + expression(expressionLength / 2) + ")" + comparisons[random.nextInt(comparisons.length)] + "(" + expression(expressionLength / 2) + ")";
+
+            switch (random.nextInt(4)) {
+                case 0:
+                    return "~(" + comparison + ")";
+                case 1:
+                    return "(" + comparison + ") | (" + pick(readable) + " = 0)";
+                default:
+                    return comparison;
+            }
+        }
+
+        private String arrayIndex() {
+            return "(" + expression(expressionLength / 2) + ") & " + (ARRAY_SIZE - 1);
+        }
+
+        private String expression(int length) {
+            StringBuilder expression = new StringBuilder(term(length));
+
+            for (int i = 0; i < length; i++) {
+                switch (random.nextInt(6)) {
+                    case 0:
+                        expression.append(" + ");
+                        break;
+                    case 1:
+                        expression.append(" - ");
+                        break;
+                    case 2:
+                        expression.append(" * ");
+                        break;
+                    case 3:
+                        expression.append(" & ");
+                        break;
+                    case 4:
+                        expression.append(" | ");
+                        break;
+                    default:
+                        // Constant divisors keep generated programs free of division by zero
+                        expression.append(" / ").append(1 + random.nextInt(9));
+                        continue;
+                }
+                expression.append(term(length));
+            }
+
+            return expression.toString();
+        }
+
+        private String term(int length) {
+            switch (random.nextInt(length > NESTED_LENGTH ? 8 : 6)) {
+                case 0:
+                case 1:
+                case 2:
+                    return pick(readable);
+                case 3:
+                    return Integer.toString(random.nextInt(1000));
+                case 4:
+                    return "arr[(" + pick(readable) + ") & " + (ARRAY_SIZE - 1) + "]";
+                case 5:
+                    return "-" + pick(readable);
+                case 6:
+                    return "(" + expression(NESTED_LENGTH) + ")";
+                default:
+                    return callsAllowed ? intCall() : "(" + expression(NESTED_LENGTH) + ")";
+            }
+        }
+
+        private Subroutine pickLeaf(List<Subroutine> signatures, boolean needInt, boolean needFunction) {
+            List<Subroutine> candidates = new ArrayList<>();
+
+            for (int i = 0; i < leafCount; i++) {
+                Subroutine subroutine = signatures.get(i);
+
+                if ((!needInt || subroutine.returnsInt) && (!needFunction || !subroutine.method)) {
+                    candidates.add(subroutine);
+                }
+            }
+
+            return candidates.isEmpty() ? null : pick(candidates);
+        }
+
+        private String call() {
+            Subroutine target = pickLeaf(subroutines, false, !current.method);
+
+            if (target == null) {
+                return "Output.printInt(" + pick(readable) + ")";
+            }
+
+            return target.name + "(" + simpleArguments(target) + ")";
+        }
+
+        private String intCall() {
+            if (classIndex > 0 && random.nextInt(4) == 0) {
+                int other = random.nextInt(classIndex);
+                List<Subroutine> signatures = otherClasses.computeIfAbsent(other, i -> drawSignatures(classRandom(i)));
+                Subroutine target = pickLeaf(signatures, true, true);
+
+                if (target != null) {
+                    return getClassName(other) + "." + target.name + "(" + simpleArguments(target) + ")";
+                }
+            }
+
+            Subroutine target = pickLeaf(subroutines, true, !current.method);
+
+            if (target == null) {
+                return "Math.max(" + pick(readable) + ", " + random.nextInt(100) + ")";
+            }
+
+            return target.name + "(" + simpleArguments(target) + ")";
+        }
+
+        private String simpleArguments(Subroutine subroutine) {
+            StringBuilder arguments = new StringBuilder();
+
+            for (int i = 0; i < subroutine.parameterCount; i++) {
+                arguments.append(i > 0 ? ", " : "").append(random.nextBoolean() ? pick(readable) : Integer.toString(random.nextInt(100)));
+            }
+
+            return arguments.toString();
+        }
+
+        private <T> T pick(List<T> values) {
+            return values.get(random.nextInt(values.size()));
+        }
+
+        private StringBuilder indent(int level) {
+            for (int i = 0; i < level; i++) {
+                out.append("    ");
+            }
+
+            return out;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> positional = new ArrayList<>();
+        CorpusGenerator generator;
+
+        try {
+            generator = parse(args, positional);
+            if (positional.size() != 1) {
+                throw new IllegalArgumentException("Expected one output directory");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: CorpusGenerator [--seed n] [--classes n] [--subroutines n] [--locals n] [--statements n] [--depth n] [--expression n] [--strings n] <directory>");
+            return;
+        }
+
+        long bytes = generator.write(Paths.get(positional.get(0)));
+
+        System.out.println("Wrote " + (generator.getClassCount() + 1) + " files, " + bytes + " bytes");
+    }
+}
@@ -0,0 +1,105 @@
+package com.tandrade.jack.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tandrade.jack.parser.syntax.CompilationEngine;
+import com.tandrade.jack.parser.token.NamePool;
+import com.tandrade.jack.vm.VMWriter;
+import com.tandrade.jack.vm.interpreter.Interpreter;
+import com.tandrade.jack.vm.interpreter.Program;
+import com.tandrade.jack.vm.peephole.PeepholeOptimizer;
+
+// Runs generated programs on the VM interpreter to measure the code the compiler produces rather than the
+// compiler itself. The number of VM instructions executed per run is printed once per trial, as it does not vary.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionBenchmark {
+    private static final long MAX_INSTRUCTIONS = 1_000_000_000L;
+
+    // CorpusGenerator options
+    @Param({ "--classes 4", "--classes 4 --depth 3 --statements 6" })
+    private String corpus;
+
+    @Param({ "false", "true" })
+    private boolean optimize;
+
+    private Program program;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("jack-execution");
+
+        try {
+            CorpusGenerator.parse(corpus.split(" "), new ArrayList<>()).write(directory);
+
+            program = compile(directory.toFile(), optimize);
+
+            // Optimized code has to behave exactly like the plain translation
+            Interpreter interpreter = run(program);
+            String output = interpreter.getOperatingSystem().getOutput();
+            String expected = run(compile(directory.toFile(), false)).getOperatingSystem().getOutput();
+            if (!output.equals(expected)) {
+                throw new IllegalStateException("Optimized program output differs for " + corpus);
+            }
+            System.out.println("instructions per run: " + interpreter.getInstructionCount());
+        } finally {
+            JackInputs.delete(directory);
+        }
+    }
+
+    // Compiles every class straight into the interpreter's bytecode, without writing .vm files
+    private static Program compile(File directory, boolean optimize) throws IOException {
+        Program program = new Program();
+        List<File> files = Arrays.asList(directory.listFiles((d, f) -> f.endsWith(".jack")));
+
+        files.sort(null);
+        for (File file : files) {
+            VMWriter writer = optimize ? new PeepholeOptimizer(program) : program;
+
+            try (CompilationEngine engine = new CompilationEngine(file, false, new NamePool(), writer)) {
+                engine.setOptimize(optimize);
+                engine.compileClass();
+            }
+        }
+        program.link();
+
+        return program;
+    }
+
+    private static Interpreter run(Program program) {
+        Interpreter interpreter = new Interpreter(program);
+
+        interpreter.run(MAX_INSTRUCTIONS);
+
+        return interpreter;
+    }
+
+    @Benchmark
+    public long execute() {
+        return run(program).getInstructionCount();
+    }
+}
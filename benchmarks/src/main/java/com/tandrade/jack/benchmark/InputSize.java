@@ -0,0 +1,18 @@
+package com.tandrade.jack.benchmark;
+
+public enum InputSize {
+    // Number of times the sample subroutines are repeated in each generated class
+    SMALL(1),
+    MEDIUM(40),
+    LARGE(800);
+
+    private int copies;
+
+    private InputSize(int copies) {
+        this.copies = copies;
+    }
+
+    public int getCopies() {
+        return copies;
+    }
+}
@@ -0,0 +1,84 @@
+package com.tandrade.jack.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+public class JackInputs {
+
+    private static final String SAMPLE_NAME = "Sample";
+    private static final Pattern SUBROUTINE = Pattern.compile("((?:constructor|function|method)\\s+\\w+\\s+)(\\w+)(\\s*\\()");
+
+    private static String sample;
+
+    private JackInputs() {
+    }
+
+    private static synchronized String sample() {
+        if (sample == null) {
+            try (InputStream in = JackInputs.class.getResourceAsStream(SAMPLE_NAME + ".jack")) {
+                sample = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return sample;
+    }
+
+    // The sample class renamed to className, with its subroutines repeated under suffixed names
+    public static String generateClass(String className, int copies) {
+        String source = sample().replace(SAMPLE_NAME, className);
+        Matcher first = SUBROUTINE.matcher(source);
+
+        if (!first.find()) {
+            throw new IllegalStateException("Sample class has no subroutines");
+        }
+
+        int bodyStart = source.lastIndexOf('\n', first.start()) + 1;
+        int bodyEnd = source.lastIndexOf('}');
+        String header = source.substring(0, bodyStart);
+        String subroutines = source.substring(bodyStart, bodyEnd);
+        StringBuilder out = new StringBuilder(header.length() + subroutines.length() * copies + 2);
+
+        out.append(header);
+        out.append(subroutines);
+        for (int i = 1; i < copies; i++) {
+            out.append(SUBROUTINE.matcher(subroutines).replaceAll("$1$2_" + i + "$3"));
+        }
+        out.append("}\n");
+
+        return out.toString();
+    }
+
+    public static Path writeClass(Path directory, String className, int copies) throws IOException {
+        Path file = directory.resolve(className + ".jack");
+
+        Files.writeString(file, generateClass(className, copies), StandardCharsets.US_ASCII);
+
+        return file;
+    }
+
+    public static Path writeProgram(Path directory, int classCount, int copies) throws IOException {
+        for (int i = 0; i < classCount; i++) {
+            writeClass(directory, SAMPLE_NAME + i, copies);
+        }
+
+        return directory;
+    }
+
+    public static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.tandrade.jack.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tandrade.jack.parser.ast.ClassNode;
+import com.tandrade.jack.parser.syntax.Parser;
+import com.tandrade.jack.parser.token.NamePool;
+import com.tandrade.jack.parser.token.PipelinedTokenStream;
+import com.tandrade.jack.parser.token.Tokenizer;
+
+// Parses one class of growing size with the tokenizer on the parser's thread and on a thread of its own. The
+// pipelined rate overtakes the serial one once the class is big enough to pay for starting the lexer thread;
+// it never does on a single core.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+
+    // Subroutines in the class, about 45 lines each
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int subroutines;
+
+    private Path directory;
+    private File input;
+    private long byteCount;
+
+    // Reported by JMH as bytes/s next to the per-class rate
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        CorpusGenerator generator = CorpusGenerator.parse(new String[] {"--subroutines", String.valueOf(subroutines)},
+            new ArrayList<>());
+
+        generator.setClassCount(1);
+        directory = Files.createTempDirectory("jack-pipeline");
+        generator.write(directory);
+        input = directory.resolve(CorpusGenerator.getClassName(0) + ".jack").toFile();
+        byteCount = input.length();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        JackInputs.delete(directory);
+    }
+
+    @Benchmark
+    public ClassNode serial(Counters counters) throws IOException {
+        try (Tokenizer tokenizer = new Tokenizer(input, true, new NamePool())) {
+            ClassNode node = new Parser(tokenizer).parseClass();
+
+            counters.bytes += byteCount;
+
+            return node;
+        }
+    }
+
+    @Benchmark
+    public ClassNode pipelined(Counters counters) throws IOException {
+        try (PipelinedTokenStream tokens = new PipelinedTokenStream(new Tokenizer(input, true, new NamePool()))) {
+            ClassNode node = new Parser(tokens).parseClass();
+
+            counters.bytes += byteCount;
+
+            return node;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.tandrade.jack.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.tandrade.jack.parser.token.Token;
+import com.tandrade.jack.parser.token.TokenType;
+
+class RegexTokenizer {
+    private static final String keywordRegex = "(class|constructor|function|method|field|static|var|int|char|boolean|void|true|false|null|this|let|do|if|else|while|return)\\b";
+    private static final String symbolRegex = "([{}()\\[\\].,;+\\-*/&|<>=~])";
+    private static final String constantRegex = "(3276[0-7]|327[0-5]\\d|32[0-6]\\d{2}|3[01]\\d{3}|[12]\\d{4}|\\d{1,4})";
+    private static final String stringRegex = "\"([^\"\n\r]*)\"";
+    private static final String identifierRegex = "([a-zA-Z_]\\w*)\\b";
+
+    private static final List<TokenInfo> tokenInfos = Arrays.asList(
+        new TokenInfo(TokenType.KEYWORD, keywordRegex),
+        new TokenInfo(TokenType.SYMBOL, symbolRegex),
+        new TokenInfo(TokenType.INT_CONST, constantRegex),
+        new TokenInfo(TokenType.STR_CONST, stringRegex),
+        new TokenInfo(TokenType.IDENTIFIER, identifierRegex)
+    );
+
+    private Queue<Token> tokens;
+
+    RegexTokenizer(File input) throws IOException {
+        BufferedReader buf = new BufferedReader(new FileReader(input));
+        tokens = new ArrayDeque<>();
+        
+        String line;
+        boolean insideBlockComment = false;
+
+        while ((line = buf.readLine()) != null) {
+            line = line.trim();
+
+            while (!line.isEmpty()) {
+                Matcher m;
+
+                if (line.startsWith("/*")) {
+                    insideBlockComment = true;
+                }
+                if (insideBlockComment) {
+                    int endOfBlock = line.indexOf("*/");
+
+                    if (endOfBlock == -1) {
+                        break;
+                    }
+
+                    line = line.substring(endOfBlock + 2).trim();
+                    insideBlockComment = false;
+                    continue;
+                }
+                if (line.startsWith("//")) {
+                    break;
+                }
+
+                boolean matched = false;
+
+                for (TokenInfo info : tokenInfos) {
+                    m = info.pattern.matcher(line);
+
+                    if (m.find()) {
+                        tokens.add(new Token(info.type, m.group(1)));
+
+                        // TODO: Maybe work with index instead of recreating Strings
+                        line = m.replaceFirst("");
+                        matched = true;
+                        break;
+                    }
+                }
+
+                if (!matched) {
+                    buf.close();
+                    throw new IllegalArgumentException("Unknown char: " + line);
+                }
+
+                line = line.trim();
+            }
+        }
+
+        buf.close();
+    }
+
+    boolean hasMoreTokens() {
+        return !tokens.isEmpty();
+    }
+
+    Token getCurrentToken() {
+        return tokens.element();
+    }
+
+    Token advance() {
+        return tokens.remove();
+    }
+
+    private static class TokenInfo {
+        private TokenType type;
+        private Pattern pattern;
+
+        private TokenInfo(TokenType type, String regex) {
+            this.type = type;
+            this.pattern = Pattern.compile("^" + regex + "");
+        }
+    }
+}
\ No newline at end of file
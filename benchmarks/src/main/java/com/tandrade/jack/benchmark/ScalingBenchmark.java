@@ -0,0 +1,142 @@
+package com.tandrade.jack.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tandrade.jack.build.Build;
+import com.tandrade.jack.build.BuildError;
+import com.tandrade.jack.build.CompilerOptions;
+import com.tandrade.jack.parser.token.Tokenizer;
+
+// Runs the same work over generated corpora that grow along one axis at a time. A bytes/s rate
+// that drops as an axis grows points at super-linear behaviour along that axis.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmark {
+
+    // CorpusGenerator options, one axis per group: file size, nesting depth, line length and file count
+    @Param({
+        "--subroutines 10", "--subroutines 100", "--subroutines 1000",
+        "--subroutines 4 --statements 2 --depth 1", "--subroutines 4 --statements 2 --depth 4", "--subroutines 4 --statements 2 --depth 8",
+        "--subroutines 10 --expression 4", "--subroutines 10 --expression 64", "--subroutines 10 --expression 512",
+        "--classes 1", "--classes 16", "--classes 128"
+    })
+    private String corpus;
+
+    private Path directory;
+    private List<File> files;
+    private long byteCount;
+    private CompilerOptions options;
+
+    // Reported by JMH as bytes/s and tokens/s next to the per-corpus rate
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long bytes;
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            tokens = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<String> positional = new ArrayList<>();
+        CorpusGenerator generator = CorpusGenerator.parse(corpus.split(" "), positional);
+
+        if (!corpus.contains("--classes")) {
+            generator.setClassCount(1);
+        }
+
+        directory = Files.createTempDirectory("jack-scaling");
+        byteCount = generator.write(directory);
+        files = new ArrayList<>();
+        for (File file : directory.toFile().listFiles((d, f) -> f.endsWith(".jack"))) {
+            files.add(file);
+        }
+        options = new CompilerOptions(directory.toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        JackInputs.delete(directory);
+    }
+
+    @Benchmark
+    public long tokenize(Counters counters) throws IOException {
+        long count = 0;
+
+        for (File file : files) {
+            try (Tokenizer tokenizer = new Tokenizer(file)) {
+                while (tokenizer.hasMoreTokens()) {
+                    tokenizer.advance();
+                    count++;
+                }
+            }
+        }
+
+        counters.bytes += byteCount;
+        counters.tokens += count;
+
+        return count;
+    }
+
+    @Benchmark
+    public long tokenizeRegex(Counters counters) throws IOException {
+        long count = 0;
+
+        for (File file : files) {
+            RegexTokenizer tokenizer = new RegexTokenizer(file);
+
+            while (tokenizer.hasMoreTokens()) {
+                tokenizer.advance();
+                count++;
+            }
+        }
+
+        counters.bytes += byteCount;
+        counters.tokens += count;
+
+        return count;
+    }
+
+    @Benchmark
+    public int compile(Counters counters) throws IOException, InterruptedException {
+        List<BuildError> errors = new Build(options).run();
+
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException(errors.get(0).toString());
+        }
+
+        counters.bytes += byteCount;
+
+        return errors.size();
+    }
+}
@@ -0,0 +1,90 @@
+package com.tandrade.jack.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tandrade.jack.parser.token.Tokenizer;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private InputSize size;
+
+    @Param({"scanner", "mapped", "regex"})
+    private String implementation;
+
+    private Path directory;
+    private File input;
+
+    // Reported by JMH as tokens/s next to the per-file rate
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class TokenCounter {
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jack-tokenizer");
+        input = JackInputs.writeClass(directory, "Sample", size.getCopies()).toFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        JackInputs.delete(directory);
+    }
+
+    @Benchmark
+    public long tokenize(TokenCounter counter) throws IOException {
+        long count = 0;
+
+        if (implementation.equals("regex")) {
+            RegexTokenizer tokenizer = new RegexTokenizer(input);
+
+            while (tokenizer.hasMoreTokens()) {
+                tokenizer.advance();
+                count++;
+            }
+        } else {
+            try (Tokenizer tokenizer = new Tokenizer(input, implementation.equals("mapped"))) {
+                while (tokenizer.hasMoreTokens()) {
+                    tokenizer.advance();
+                    count++;
+                }
+            }
+        }
+
+        counter.tokens += count;
+
+        return count;
+    }
+}
@@ -0,0 +1,596 @@
+package com.tandrade.jack.asm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.tandrade.jack.vm.AsciiBuffer;
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.Segment;
+import com.tandrade.jack.vm.VMWriter;
+
+// Translates VM commands straight into Hack assembly as they are emitted
+public class AsmWriter implements VMWriter {
+    public static final String CALL_ROUTINE = "$$CALL";
+    public static final String RETURN_ROUTINE = "$$RETURN";
+
+    // Beyond this index a pop computes the target address into R13 instead of stepping A towards it
+    private static final int POP_STEP_LIMIT = 4;
+
+    private AsciiBuffer buffer;
+    private boolean compact;
+    private String className;
+    private String functionName;
+    private int returnCount;
+    private int compareCount;
+
+    public AsmWriter(boolean compact) {
+        this(new AsciiBuffer(), compact);
+    }
+
+    public AsmWriter(OutputStream out, boolean compact) {
+        this(new AsciiBuffer(out), compact);
+    }
+
+    public AsmWriter(AsciiBuffer buffer, boolean compact) {
+        this.buffer = buffer;
+        this.compact = compact;
+        this.className = "";
+        this.functionName = "";
+        this.returnCount = 0;
+        this.compareCount = 0;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    // Sets SP and calls Sys.init, the entry point of a whole program
+    public void writeBootstrap() {
+        functionName = "$$BOOT";
+        returnCount = 0;
+
+        write("@256");
+        write("D=A");
+        write("@SP");
+        write("M=D");
+        writeCall("Sys", "init", 0);
+        writeSymbol('(', "$$HALT", ")");
+        writeSymbol('@', "$$HALT", null);
+        write("0;JMP");
+    }
+
+    // Shared routines that compact call sites, returns and comparisons jump to
+    public void writeRoutines() {
+        writeSymbol('(', CALL_ROUTINE, ")");
+        // D holds the return address, R13 the argument count and R14 the callee
+        writePushD();
+        writeSaveFrame();
+        write("@R13");
+        write("D=M");
+        write("@5");
+        write("D=D+A");
+        write("@SP");
+        write("D=M-D");
+        write("@ARG");
+        write("M=D");
+        write("@SP");
+        write("D=M");
+        write("@LCL");
+        write("M=D");
+        write("@R14");
+        write("A=M");
+        write("0;JMP");
+
+        writeSymbol('(', RETURN_ROUTINE, ")");
+        writeRestoreFrame();
+
+        writeCompareRoutine(Opcode.EQ);
+        writeCompareRoutine(Opcode.GT);
+        writeCompareRoutine(Opcode.LT);
+    }
+
+    private void writeCompareRoutine(Opcode opcode) {
+        String name = getCompareRoutine(opcode);
+
+        // D holds the return address
+        writeSymbol('(', name, ")");
+        write("@R15");
+        write("M=D");
+        writeCompare(opcode, name);
+        write("@R15");
+        write("A=M");
+        write("0;JMP");
+    }
+
+    private static String getCompareRoutine(Opcode opcode) {
+        return "$$" + opcode.name();
+    }
+
+    @Override
+    public void writePush(Segment segment, int index) {
+        switch (segment) {
+            case CONSTANT:
+                if (index <= 1) {
+                    write("@SP");
+                    write("AM=M+1");
+                    write("A=A-1");
+                    write(index == 0 ? "M=0" : "M=1");
+                    return;
+                }
+                writeAddress(index);
+                write("D=A");
+                break;
+            case LOCAL:
+            case ARGUMENT:
+            case THIS:
+            case THAT:
+                if (index <= 1) {
+                    write(getBase(segment));
+                    write(index == 0 ? "A=M" : "A=M+1");
+                } else {
+                    writeAddress(index);
+                    write("D=A");
+                    write(getBase(segment));
+                    write("A=D+M");
+                }
+                write("D=M");
+                break;
+            default:
+                writeFixedAddress(segment, index);
+                write("D=M");
+        }
+
+        writePushD();
+    }
+
+    @Override
+    public void writePop(Segment segment, int index) {
+        switch (segment) {
+            case CONSTANT:
+                throw new IllegalArgumentException("Cannot pop to the constant segment");
+            case LOCAL:
+            case ARGUMENT:
+            case THIS:
+            case THAT:
+                if (index <= POP_STEP_LIMIT) {
+                    writePopD();
+                    write(getBase(segment));
+                    write("A=M");
+                    for (int i = 0; i < index; i++) {
+                        write("A=A+1");
+                    }
+                } else {
+                    writeAddress(index);
+                    write("D=A");
+                    write(getBase(segment));
+                    write("D=D+M");
+                    write("@R13");
+                    write("M=D");
+                    writePopD();
+                    write("@R13");
+                    write("A=M");
+                }
+                write("M=D");
+                break;
+            default:
+                writePopD();
+                writeFixedAddress(segment, index);
+                write("M=D");
+        }
+    }
+
+    @Override
+    public void writeArithmetic(Opcode opcode) {
+        switch (opcode) {
+            case ADD:
+                writeBinary("M=D+M");
+                break;
+            case SUB:
+                writeBinary("M=M-D");
+                break;
+            case AND:
+                writeBinary("M=D&M");
+                break;
+            case OR:
+                writeBinary("M=D|M");
+                break;
+            case NEG:
+                writeUnary("M=-M");
+                break;
+            case NOT:
+                writeUnary("M=!M");
+                break;
+            case EQ:
+            case GT:
+            case LT:
+                if (compact) {
+                    writeReturnAddress("$cmp.", compareCount);
+                    write("D=A");
+                    writeSymbol('@', getCompareRoutine(opcode), null);
+                    write("0;JMP");
+                    writeReturnLabel("$cmp.", compareCount++);
+                } else {
+                    writeCompare(opcode, null);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Not an arithmetic command: " + opcode.getValue());
+        }
+    }
+
+    private void writeBinary(String operation) {
+        writePopD();
+        write("A=A-1");
+        write(operation);
+    }
+
+    private void writeUnary(String operation) {
+        write("@SP");
+        write("A=M-1");
+        write(operation);
+    }
+
+    // Replaces the top two values with -1 when the comparison holds and 0 otherwise. Labels are the routine's
+    // when it is given, or else numbered within the function.
+    private void writeCompare(Opcode opcode, String routine) {
+        writePopD();
+        if (opcode == Opcode.EQ) {
+            // x - y wraps to 0 only when x equals y
+            write("A=A-1");
+            write("D=M-D");
+        } else {
+            // x - y overflows when the signs differ, but then x < y exactly when x is the negative one, so D is
+            // set to -1 or 1 for that case and only matching signs are subtracted. D holds y to begin with.
+            writeCompareLabel('@', routine, "neg");
+            write("D;JLT");
+            write("@SP");
+            write("A=M-1");
+            write("D=M");
+            writeCompareLabel('@', routine, "sub");
+            write("D;JGE");
+            write("D=-1");
+            writeCompareLabel('@', routine, "test");
+            write("0;JMP");
+            writeCompareLabel('(', routine, "neg");
+            write("@SP");
+            write("A=M-1");
+            write("D=M");
+            writeCompareLabel('@', routine, "sub");
+            write("D;JLT");
+            write("D=1");
+            writeCompareLabel('@', routine, "test");
+            write("0;JMP");
+            writeCompareLabel('(', routine, "sub");
+            write("@SP");
+            write("A=M");
+            write("D=M");
+            write("A=A-1");
+            write("D=M-D");
+            writeCompareLabel('(', routine, "test");
+            write("@SP");
+            write("A=M-1");
+        }
+        write("M=-1");
+        writeCompareLabel('@', routine, "true");
+        switch (opcode) {
+            case EQ:
+                write("D;JEQ");
+                break;
+            case GT:
+                write("D;JGT");
+                break;
+            default:
+                write("D;JLT");
+        }
+        write("@SP");
+        write("A=M-1");
+        write("M=0");
+        writeCompareLabel('(', routine, "true");
+        if (routine == null) {
+            compareCount++;
+        }
+    }
+
+    private void writeCompareLabel(char prefix, String routine, String kind) {
+        if (routine != null) {
+            writeSymbol(prefix, routine + "$" + kind, prefix == '(' ? ")" : null);
+            return;
+        }
+
+        String name = kind.equals("true") ? "$cmp." : "$cmp" + kind + ".";
+
+        if (prefix == '(') {
+            writeReturnLabel(name, compareCount);
+        } else {
+            writeReturnAddress(name, compareCount);
+        }
+    }
+
+    @Override
+    public void writeLabel(String label, int index) {
+        writeLocalLabel('(', label, index, ")");
+    }
+
+    @Override
+    public void writeGoto(String label, int index) {
+        writeLocalLabel('@', label, index, null);
+        write("0;JMP");
+    }
+
+    @Override
+    public void writeIf(String label, int index) {
+        writePopD();
+        writeLocalLabel('@', label, index, null);
+        write("D;JNE");
+    }
+
+    @Override
+    public void writeFunction(String className, String subroutineName, int localCount) {
+        this.className = className;
+        this.functionName = className + "." + subroutineName;
+        this.returnCount = 0;
+        this.compareCount = 0;
+
+        writeSymbol('(', functionName, ")");
+        if (localCount == 1) {
+            write("@SP");
+            write("AM=M+1");
+            write("A=A-1");
+            write("M=0");
+        } else if (localCount > 1) {
+            write("@SP");
+            write("A=M");
+            for (int i = 0; i < localCount; i++) {
+                write("M=0");
+                write("A=A+1");
+            }
+            write("D=A");
+            write("@SP");
+            write("M=D");
+        }
+    }
+
+    @Override
+    public void writeCall(String className, String subroutineName, int argumentCount) {
+        if (compact) {
+            if (argumentCount <= 1) {
+                write("@R13");
+                write(argumentCount == 0 ? "M=0" : "M=1");
+            } else {
+                buffer.writeByte('@');
+                buffer.writeInt(argumentCount);
+                buffer.newLine();
+                write("D=A");
+                write("@R13");
+                write("M=D");
+            }
+            writeCallee(className, subroutineName);
+            write("D=A");
+            write("@R14");
+            write("M=D");
+            writeReturnAddress("$ret.", returnCount);
+            write("D=A");
+            writeSymbol('@', CALL_ROUTINE, null);
+            write("0;JMP");
+        } else {
+            writeReturnAddress("$ret.", returnCount);
+            write("D=A");
+            writePushD();
+            writeSaveFrame();
+            write("@SP");
+            write("D=M");
+            writeAddress(argumentCount + 5);
+            write("D=D-A");
+            write("@ARG");
+            write("M=D");
+            write("@SP");
+            write("D=M");
+            write("@LCL");
+            write("M=D");
+            writeCallee(className, subroutineName);
+            write("0;JMP");
+        }
+
+        writeReturnLabel("$ret.", returnCount++);
+    }
+
+    @Override
+    public void writeReturn() {
+        if (compact) {
+            writeSymbol('@', RETURN_ROUTINE, null);
+            write("0;JMP");
+        } else {
+            writeRestoreFrame();
+        }
+    }
+
+    // Pushes the return address already in D followed by the caller's LCL, ARG, THIS and THAT
+    private void writeSaveFrame() {
+        for (String pointer : new String[] { "@LCL", "@ARG", "@THIS", "@THAT" }) {
+            write(pointer);
+            write("D=M");
+            writePushD();
+        }
+    }
+
+    private void writeRestoreFrame() {
+        write("@LCL");
+        write("D=M");
+        write("@R13");
+        write("M=D");
+        write("@5");
+        write("A=D-A");
+        write("D=M");
+        write("@R14");
+        write("M=D");
+        writePopD();
+        write("@ARG");
+        write("A=M");
+        write("M=D");
+        write("@ARG");
+        write("D=M+1");
+        write("@SP");
+        write("M=D");
+        for (String pointer : new String[] { "@THAT", "@THIS", "@ARG", "@LCL" }) {
+            write("@R13");
+            write("AM=M-1");
+            write("D=M");
+            write(pointer);
+            write("M=D");
+        }
+        write("@R14");
+        write("A=M");
+        write("0;JMP");
+    }
+
+    private void writePushD() {
+        write("@SP");
+        write("AM=M+1");
+        write("A=A-1");
+        write("M=D");
+    }
+
+    private void writePopD() {
+        write("@SP");
+        write("AM=M-1");
+        write("D=M");
+    }
+
+    private static String getBase(Segment segment) {
+        switch (segment) {
+            case LOCAL:
+                return "@LCL";
+            case ARGUMENT:
+                return "@ARG";
+            case THIS:
+                return "@THIS";
+            default:
+                return "@THAT";
+        }
+    }
+
+    private void writeFixedAddress(Segment segment, int index) {
+        switch (segment) {
+            case STATIC:
+                buffer.writeByte('@');
+                writeSymbolName(className);
+                buffer.writeByte('.');
+                buffer.writeInt(index);
+                buffer.newLine();
+                break;
+            case POINTER:
+                if (index > 1) {
+                    throw new IllegalArgumentException("Invalid pointer index: " + index);
+                }
+                write(index == 0 ? "@THIS" : "@THAT");
+                break;
+            case TEMP:
+                if (index > 7) {
+                    throw new IllegalArgumentException("Invalid temp index: " + index);
+                }
+                writeAddress(5 + index);
+                break;
+            default:
+                throw new IllegalArgumentException("Not a fixed segment: " + segment.getValue());
+        }
+    }
+
+    private void writeAddress(int value) {
+        buffer.writeByte('@');
+        buffer.writeInt(value);
+        buffer.newLine();
+    }
+
+    private void writeCallee(String className, String subroutineName) {
+        buffer.writeByte('@');
+        writeSymbolName(className);
+        buffer.writeByte('.');
+        writeSymbolName(subroutineName);
+        buffer.newLine();
+    }
+
+    // Return and comparison labels are numbered per function, so they never need building as strings
+    private void writeReturnAddress(String kind, int index) {
+        buffer.writeByte('@');
+        writeSymbolName(functionName);
+        buffer.writeAscii(kind);
+        buffer.writeInt(index);
+        buffer.newLine();
+    }
+
+    private void writeReturnLabel(String kind, int index) {
+        buffer.writeByte('(');
+        writeSymbolName(functionName);
+        buffer.writeAscii(kind);
+        buffer.writeInt(index);
+        buffer.writeByte(')');
+        buffer.newLine();
+    }
+
+    private void writeLocalLabel(char prefix, String label, int index, String suffix) {
+        buffer.writeByte(prefix);
+        writeSymbolName(functionName);
+        buffer.writeByte('$');
+        writeSymbolName(label);
+        if (index >= 0) {
+            buffer.writeInt(index);
+        }
+        if (suffix != null) {
+            buffer.writeAscii(suffix);
+        }
+        buffer.newLine();
+    }
+
+    private void writeSymbol(char prefix, String symbol, String suffix) {
+        buffer.writeByte(prefix);
+        buffer.writeAscii(symbol);
+        if (suffix != null) {
+            buffer.writeAscii(suffix);
+        }
+        buffer.newLine();
+    }
+
+    // Hack symbols only allow letters, digits and "_.$:", so VM labels such as IF-TRUE are rewritten
+    private void writeSymbolName(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+
+            if (Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '$' || c == ':') {
+                buffer.writeByte(c);
+            } else {
+                buffer.writeByte('_');
+            }
+        }
+    }
+
+    private void write(String instruction) {
+        buffer.writeAscii(instruction);
+        buffer.newLine();
+    }
+
+    @Override
+    public void flush() {
+        buffer.flush();
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    public byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    public void writeTo(OutputStream target) throws IOException {
+        buffer.writeTo(target);
+    }
+
+    public void reset() {
+        buffer.reset();
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+}
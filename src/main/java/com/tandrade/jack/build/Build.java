@@ -0,0 +1,573 @@
+package com.tandrade.jack.build;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import com.tandrade.jack.asm.AsmWriter;
+import com.tandrade.jack.parser.ast.ClassNode;
+import com.tandrade.jack.parser.syntax.ClassGenerator;
+import com.tandrade.jack.parser.syntax.CodeGenerator;
+import com.tandrade.jack.parser.syntax.CompilationEngine;
+import com.tandrade.jack.parser.syntax.Inliner;
+import com.tandrade.jack.parser.syntax.Parser;
+import com.tandrade.jack.parser.token.Diagnostic;
+import com.tandrade.jack.parser.token.NamePool;
+import com.tandrade.jack.parser.token.PipelinedTokenStream;
+import com.tandrade.jack.parser.token.SyntaxException;
+import com.tandrade.jack.parser.token.TokenList;
+import com.tandrade.jack.parser.token.Tokenizer;
+import com.tandrade.jack.stats.FileStats;
+import com.tandrade.jack.stats.Phase;
+import com.tandrade.jack.stats.StatsReport;
+import com.tandrade.jack.vm.AsciiBuffer;
+import com.tandrade.jack.vm.CountingVMWriter;
+import com.tandrade.jack.vm.InstructionBuffer;
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.StreamVMWriter;
+import com.tandrade.jack.vm.VMInstruction;
+import com.tandrade.jack.vm.VMReader;
+import com.tandrade.jack.vm.VMWriter;
+
+public class Build {
+    public static final String COMPILER_VERSION = "3";
+
+    // Where a program starts running, the roots of the call graph with --whole-program
+    private static final List<String> ENTRY_POINTS = Arrays.asList("Sys.init", "Main.main");
+
+    private CompilerOptions options;
+    private BuildCache cache;
+    private ClassCache classCache;
+    private Map<String, Integer> peepholeCounts;
+    private StatsReport stats;
+    private Map<File, ClassNode> classes;
+    private Map<File, FileStats> parseStats;
+    private Inliner inliner;
+    private int inlinedCalls;
+    private int pooledStrings;
+    private int pooledStringLength;
+    private int stringSlots;
+    private List<BuildError> warnings;
+    private Map<File, InstructionBuffer> code;
+    private Map<File, byte[]> assembly;
+    private List<String> removedFunctions;
+    private int removedInstructions;
+
+    public Build(CompilerOptions options) {
+        this.options = options;
+        this.cache = null;
+        this.classCache = null;
+        this.peepholeCounts = new LinkedHashMap<>();
+        this.stats = null;
+        this.classes = new ConcurrentHashMap<>();
+        this.parseStats = new ConcurrentHashMap<>();
+        this.inliner = null;
+        this.inlinedCalls = 0;
+        this.pooledStrings = 0;
+        this.pooledStringLength = 0;
+        this.stringSlots = 0;
+        this.warnings = new ArrayList<>();
+        this.code = new ConcurrentHashMap<>();
+        this.assembly = new ConcurrentHashMap<>();
+        this.removedFunctions = new ArrayList<>();
+        this.removedInstructions = 0;
+    }
+
+    public Map<String, Integer> getPeepholeCounts() {
+        return peepholeCounts;
+    }
+
+    // Functions left out by --whole-program because nothing reachable calls them
+    public List<String> getRemovedFunctions() {
+        return removedFunctions;
+    }
+
+    public int getRemovedInstructions() {
+        return removedInstructions;
+    }
+
+    // Call sites expanded in place, which needs -O and --whole-program
+    public int getInlinedCalls() {
+        return inlinedCalls;
+    }
+
+    // String literals built once into a static slot with --pool-strings
+    public int getPooledStrings() {
+        return pooledStrings;
+    }
+
+    public int getStringSlots() {
+        return stringSlots;
+    }
+
+    // Every evaluation of a pooled literal after its first skips String.new and one push and appendChar call
+    // per character, but costs a test of its slot: 2 * length - 1 instructions less over all of them
+    public int getSavedStringInstructions() {
+        return 2 * pooledStringLength - pooledStrings;
+    }
+
+    // Problems that do not fail the build, such as string literals --pool-strings leaves alone
+    public List<BuildError> getWarnings() {
+        return warnings;
+    }
+
+    // Classes whose source has not changed since an earlier build are not parsed again
+    public void setClassCache(ClassCache classCache) {
+        this.classCache = classCache;
+    }
+
+    // Only collected with --stats, null otherwise
+    public StatsReport getStats() {
+        return stats;
+    }
+
+    public List<BuildError> run() throws IOException, InterruptedException {
+        return run(options.getFiles());
+    }
+
+    // Builds only the given classes of the input, as watch mode does with those that changed
+    public List<BuildError> run(List<File> sources) throws IOException, InterruptedException {
+        List<File> files = new ArrayList<>(sources);
+        List<BuildError> errors = new ArrayList<>();
+        long start = System.nanoTime();
+
+        if (options.isStats()) {
+            stats = new StatsReport(EnumSet.allOf(Phase.class));
+        }
+
+        if (options.isIncremental()) {
+            cache = BuildCache.load(options.getOutputDirectory(), COMPILER_VERSION + options.getOutputSignature());
+        }
+
+        if (options.isAsm() || options.isWholeProgram()) {
+            files.addAll(options.getLibraryFiles());
+        }
+
+        if (options.isWholeProgram()) {
+            // Every class is parsed before any code is generated, so calls can be inlined across classes
+            runAll(files, this::parseInMemory, errors);
+            if (errors.isEmpty()) {
+                if (options.isOptimize()) {
+                    inliner = Inliner.of(classes.values());
+                }
+                runAll(files, this::compileInMemory, errors);
+            }
+        } else {
+            runAll(files, this::compile, errors);
+        }
+
+        if (cache != null) {
+            cache.save();
+        }
+
+        errors.sort(Comparator.comparing(BuildError::getFile));
+        warnings.sort(Comparator.comparing(BuildError::getFile));
+
+        if (options.isWholeProgram() && errors.isEmpty()) {
+            addError(errors, link(files));
+        }
+        if (options.isAsm() && errors.isEmpty()) {
+            writeAssembly(files);
+        }
+
+        if (stats != null) {
+            stats.setWallNanos(System.nanoTime() - start);
+        }
+
+        return errors;
+    }
+
+    private void runAll(List<File> files, Function<File, List<BuildError>> task, List<BuildError> errors) throws InterruptedException {
+        if (options.getJobs() == 1 || files.size() == 1) {
+            for (File file : files) {
+                errors.addAll(task.apply(file));
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(options.getJobs(), files.size()));
+        List<Callable<List<BuildError>>> tasks = new ArrayList<>();
+
+        for (File file : files) {
+            tasks.add(() -> task.apply(file));
+        }
+
+        try {
+            for (Future<List<BuildError>> result : executor.invokeAll(tasks)) {
+                errors.addAll(result.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void addError(List<BuildError> errors, BuildError error) {
+        if (error != null) {
+            errors.add(error);
+        }
+    }
+
+    // A syntax error reports everything the parser found in the file, each at its line and column
+    private static List<BuildError> getErrors(File file, Exception e) {
+        if (!(e instanceof SyntaxException)) {
+            return Collections.singletonList(new BuildError(file, String.valueOf(e.getMessage())));
+        }
+
+        List<BuildError> errors = new ArrayList<>();
+
+        for (Diagnostic diagnostic : ((SyntaxException) e).getDiagnostics()) {
+            errors.add(new BuildError(file, diagnostic.getLine(), diagnostic.getColumn(), diagnostic.getMessage()));
+        }
+
+        return errors;
+    }
+
+    private List<BuildError> compile(File file) {
+        if (options.isAsm() || options.isWholeProgram()) {
+            return compileInMemory(file);
+        }
+
+        Path outputPath = getOutputPath(file);
+        byte[] hash = null;
+
+        try {
+            if (cache != null) {
+                hash = BuildCache.hash(Files.readAllBytes(file.toPath()));
+
+                if (cache.isUpToDate(file.toPath(), hash, outputPath)) {
+                    return Collections.emptyList();
+                }
+                cache.remove(file.toPath());
+            }
+
+            if (stats != null) {
+                compileStaged(file, outputPath);
+            } else {
+                compileStreaming(file, outputPath);
+            }
+
+            if (cache != null) {
+                cache.update(file.toPath(), hash);
+            }
+
+            return Collections.emptyList();
+        } catch (IOException | RuntimeException e) {
+            return getErrors(file, e);
+        }
+    }
+
+    private List<BuildError> parseInMemory(File file) {
+        if (file.getName().endsWith(".vm")) {
+            return Collections.emptyList();
+        }
+
+        try {
+            FileStats fileStats = stats != null ? new FileStats(file.getPath()) : null;
+
+            classes.put(file, parse(file, fileStats));
+            if (fileStats != null) {
+                parseStats.put(file, fileStats);
+            }
+
+            return Collections.emptyList();
+        } catch (IOException | RuntimeException e) {
+            return getErrors(file, e);
+        }
+    }
+
+    // With --asm or --whole-program nothing is written until every file has built, so each file is kept in
+    // memory: as instructions for the call graph, or as assembly
+    private List<BuildError> compileInMemory(File file) {
+        try {
+            if (options.isWholeProgram()) {
+                InstructionBuffer buffer = new InstructionBuffer();
+
+                generate(file, buffer);
+                code.put(file, buffer);
+            } else {
+                AsciiBuffer output = new AsciiBuffer();
+
+                generate(file, new AsmWriter(output, options.isAsmCompact()));
+                assembly.put(file, output.toByteArray());
+            }
+
+            return Collections.emptyList();
+        } catch (IOException | RuntimeException e) {
+            return getErrors(file, e);
+        }
+    }
+
+    // Library .vm files are replayed as they are, classes are compiled with each phase timed when collecting stats
+    private void generate(File file, VMWriter target) throws IOException {
+        if (file.getName().endsWith(".vm")) {
+            VMReader.read(file.toPath(), target);
+            return;
+        }
+
+        FileStats fileStats = stats != null ? parseStats.getOrDefault(file, new FileStats(file.getPath())) : null;
+        ClassNode node = classes.containsKey(file) ? classes.get(file) : parse(file, fileStats);
+
+        generate(file, node, target, fileStats);
+        if (fileStats != null) {
+            stats.add(fileStats);
+        }
+    }
+
+    // Keeps only the functions reachable from the entry points, then writes them out as the build otherwise would
+    private BuildError link(List<File> files) throws IOException {
+        CallGraph graph = new CallGraph();
+
+        try {
+            for (File file : files) {
+                graph.add(code.get(file).getInstructions());
+            }
+        } catch (IllegalArgumentException e) {
+            return new BuildError(options.getInput(), e.getMessage());
+        }
+
+        Set<String> reachable = graph.getReachable(ENTRY_POINTS);
+        if (reachable.isEmpty()) {
+            return new BuildError(options.getInput(), "No " + String.join(" or ", ENTRY_POINTS) + " to start the program from");
+        }
+
+        for (File file : files) {
+            List<VMInstruction> instructions = code.get(file).getInstructions();
+
+            if (options.isAsm()) {
+                AsmWriter writer = new AsmWriter(options.isAsmCompact());
+
+                addRemoved(instructions, reachable, CallGraph.replay(instructions, reachable, writer));
+                assembly.put(file, writer.toByteArray());
+            } else if (!file.getName().endsWith(".vm")) {
+                Path outputPath = getOutputPath(file);
+                Path tempPath = getTempPath(outputPath);
+
+                try (OutputStream out = Files.newOutputStream(tempPath)) {
+                    StreamVMWriter writer = new StreamVMWriter(out);
+
+                    addRemoved(instructions, reachable, CallGraph.replay(instructions, reachable, writer));
+                    writer.flush();
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(tempPath);
+                    throw e;
+                }
+                replace(tempPath, outputPath);
+            }
+        }
+
+        removedFunctions.sort(null);
+
+        return null;
+    }
+
+    private void addRemoved(List<VMInstruction> instructions, Set<String> reachable, int instructionCount) {
+        for (VMInstruction instruction : instructions) {
+            String function = instruction.getName() + "." + instruction.getSubroutineName();
+
+            if (instruction.is(Opcode.FUNCTION) && !reachable.contains(function)) {
+                removedFunctions.add(function);
+            }
+        }
+        removedInstructions += instructionCount;
+    }
+
+    private void writeAssembly(List<File> files) throws IOException {
+        AsmWriter shared = new AsmWriter(options.isAsmCompact());
+
+        if (options.getInput().isDirectory()) {
+            shared.writeBootstrap();
+        }
+        if (options.isAsmCompact()) {
+            shared.writeRoutines();
+        }
+
+        List<File> sorted = new ArrayList<>(files);
+        sorted.sort(Comparator.comparing(File::getName));
+
+        try (OutputStream out = Files.newOutputStream(options.getAssemblyPath())) {
+            shared.writeTo(out);
+            for (File file : sorted) {
+                out.write(assembly.get(file));
+            }
+        }
+    }
+
+    private void compileStreaming(File file, Path outputPath) throws IOException {
+        ClassNode node = parse(file, null);
+        Path tempPath = getTempPath(outputPath);
+
+        try {
+            try (OutputStream out = Files.newOutputStream(tempPath)) {
+                generate(file, node, new StreamVMWriter(out), null);
+            }
+            replace(tempPath, outputPath);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            Files.deleteIfExists(outputPath);
+            throw e;
+        }
+    }
+
+    // Runs each phase to completion over in-memory data so that it can be timed on its own
+    private void compileStaged(File file, Path outputPath) throws IOException {
+        FileStats fileStats = new FileStats(file.getPath());
+        AsciiBuffer output = new AsciiBuffer();
+        Path tempPath = getTempPath(outputPath);
+
+        try {
+            generate(file, parse(file, fileStats), new StreamVMWriter(output), fileStats);
+
+            try (OutputStream out = Files.newOutputStream(tempPath)) {
+                output.writeTo(out);
+            }
+            replace(tempPath, outputPath);
+            fileStats.end(Phase.WRITE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            Files.deleteIfExists(outputPath);
+            throw e;
+        }
+
+        stats.add(fileStats);
+    }
+
+    // Streams tokens straight into the parser, unless stats are collected and reading, tokenizing and parsing
+    // each have to be timed
+    private ClassNode parse(File file, FileStats fileStats) throws IOException {
+        if (fileStats == null && classCache != null) {
+            byte[] source = Files.readAllBytes(file.toPath());
+            byte[] hash = BuildCache.hash(source);
+            ClassNode node = classCache.get(file.toPath(), hash);
+
+            if (node == null) {
+                try (Tokenizer tokenizer = new Tokenizer(ByteBuffer.wrap(source), new NamePool())) {
+                    node = new Parser(tokenizer).parseClass();
+                }
+                classCache.put(file.toPath(), hash, node);
+            }
+
+            return node;
+        }
+        // With a single core the two threads could only take turns, which is slower than not pipelining
+        if (fileStats == null && options.isPipelined() && Runtime.getRuntime().availableProcessors() > 1) {
+            try (PipelinedTokenStream tokens = new PipelinedTokenStream(new Tokenizer(file, options.isMapped(), new NamePool()))) {
+                return new Parser(tokens).parseClass();
+            }
+        }
+        if (fileStats == null) {
+            try (CompilationEngine engine = new CompilationEngine(file, options.isMapped(), new NamePool(), null)) {
+                return engine.parseClass();
+            }
+        }
+
+        fileStats.mark();
+        byte[] source = Files.readAllBytes(file.toPath());
+        fileStats.addBytes(source.length);
+        fileStats.end(Phase.READ);
+
+        TokenList tokens;
+        try (Tokenizer tokenizer = new Tokenizer(ByteBuffer.wrap(source), new NamePool())) {
+            tokens = TokenList.scan(tokenizer);
+        }
+        fileStats.end(Phase.TOKENIZE);
+
+        ClassNode node = new Parser(tokens).parseClass();
+        fileStats.end(Phase.PARSE);
+
+        for (int i = 0; i < tokens.size(); i++) {
+            fileStats.addToken(tokens.get(i).getTokenType());
+        }
+
+        return node;
+    }
+
+    private void generate(File file, ClassNode node, VMWriter target, FileStats fileStats) {
+        CountingVMWriter counter = null;
+        VMWriter writer = target;
+
+        if (fileStats != null) {
+            fileStats.mark();
+            counter = new CountingVMWriter(target);
+            writer = counter;
+        }
+
+        ClassGenerator generator = new ClassGenerator(options.isOptimize());
+        generator.setInliner(inliner);
+        generator.setPoolStrings(options.isPoolStrings());
+        generator.generateClass(node, writer);
+
+        if (fileStats != null) {
+            fileStats.end(Phase.GENERATE);
+            fileStats.addInstructions(counter.getCounts());
+        }
+        addPeepholeCounts(generator.getPeepholeCounts());
+        addGeneratorCounts(generator.getCodeGenerator());
+        addWarnings(file, generator.getWarnings());
+    }
+
+    private synchronized void addGeneratorCounts(CodeGenerator generator) {
+        inlinedCalls += generator.getInlinedCount();
+        pooledStrings += generator.getPooledStringCount();
+        pooledStringLength += generator.getPooledStringLength();
+        stringSlots += generator.getStringSlotCount();
+    }
+
+    private synchronized void addWarnings(File file, List<Diagnostic> diagnostics) {
+        for (Diagnostic diagnostic : diagnostics) {
+            warnings.add(new BuildError(file, diagnostic.getLine(), diagnostic.getColumn(), "warning: " + diagnostic.getMessage()));
+        }
+    }
+
+    private synchronized void addPeepholeCounts(Map<String, Integer> counts) {
+        counts.forEach((rule, count) -> peepholeCounts.merge(rule, count, Integer::sum));
+    }
+
+    // Output is written next to where it goes and then renamed over it, so whatever reads the .vm files, such as
+    // an emulator reloading them while watch mode rebuilds, never sees one half written. The name is unique to
+    // the process and thread, so builds of the same directory running at once do not rename each other's file.
+    private static Path getTempPath(Path outputPath) {
+        return outputPath.resolveSibling(outputPath.getFileName() + "." + ProcessHandle.current().pid() + "."
+                + Thread.currentThread().getId() + ".tmp");
+    }
+
+    private static void replace(Path tempPath, Path outputPath) throws IOException {
+        try {
+            Files.move(tempPath, outputPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, outputPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static Path getOutputPath(File file) {
+        String filename = file.getName();
+        int extIndex = filename.lastIndexOf('.');
+        if (extIndex == -1) {
+            extIndex = filename.length();
+        }
+
+        return file.toPath().resolveSibling(filename.substring(0, extIndex) + ".vm");
+    }
+}
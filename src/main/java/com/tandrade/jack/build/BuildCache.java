@@ -0,0 +1,106 @@
+package com.tandrade.jack.build;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BuildCache {
+    public static final String FILENAME = ".jackcache";
+
+    private static final int MAGIC = 0x4A434B31;
+
+    private Path indexPath;
+    private String stamp;
+    private Map<String, byte[]> entries;
+
+    private BuildCache(Path indexPath, String stamp) {
+        this.indexPath = indexPath;
+        this.stamp = stamp;
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    public static BuildCache load(Path directory, String stamp) throws IOException {
+        BuildCache cache = new BuildCache(directory.resolve(FILENAME), stamp);
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache.indexPath)))) {
+            if (in.readInt() != MAGIC || !in.readUTF().equals(stamp)) {
+                // Written by another compiler version or with other code generation options
+                return cache;
+            }
+
+            int count = in.readInt();
+
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                byte[] hash = new byte[in.readUnsignedByte()];
+
+                in.readFully(hash);
+                cache.entries.put(name, hash);
+            }
+        } catch (NoSuchFileException e) {
+            return cache;
+        } catch (IOException e) {
+            cache.entries.clear();
+        }
+
+        return cache;
+    }
+
+    public boolean isUpToDate(Path source, byte[] hash, Path output) {
+        return Arrays.equals(entries.get(source.getFileName().toString()), hash) && Files.exists(output);
+    }
+
+    public void update(Path source, byte[] hash) {
+        entries.put(source.getFileName().toString(), hash);
+    }
+
+    public void remove(Path source) {
+        entries.remove(source.getFileName().toString());
+    }
+
+    // Written to a file of its own and moved over the index, so builds of the same directory saving at once
+    // neither write into nor move away each other's file
+    public void save() throws IOException {
+        Path tempPath = Files.createTempFile(indexPath.getParent(), FILENAME + ".", ".tmp");
+        Map<String, byte[]> sorted = new TreeMap<>(entries);
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(stamp);
+                out.writeInt(sorted.size());
+
+                for (Map.Entry<String, byte[]> entry : sorted.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeByte(entry.getValue().length);
+                    out.write(entry.getValue());
+                }
+            }
+
+            Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+    }
+
+    public static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
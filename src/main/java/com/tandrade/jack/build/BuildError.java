@@ -0,0 +1,48 @@
+package com.tandrade.jack.build;
+
+import java.io.File;
+
+public class BuildError {
+
+    private File file;
+    // 0 when the error is not tied to a place in the file
+    private int line;
+    private int column;
+    private String message;
+
+    public BuildError(File file, String message) {
+        this(file, 0, 0, message);
+    }
+
+    public BuildError(File file, int line, int column, String message) {
+        this.file = file;
+        this.line = line;
+        this.column = column;
+        this.message = message;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        if (line > 0) {
+            return file.getPath() + ":" + line + ":" + column + ": " + message;
+        }
+
+        return file.getPath() + ": " + message;
+    }
+}
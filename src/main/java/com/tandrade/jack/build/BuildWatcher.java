@@ -0,0 +1,94 @@
+package com.tandrade.jack.build;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+// Waits for the sources of a build to change. An editor saving a file often touches it several times in a row
+// (truncate, write, rename over it), so events are gathered until none has come for a short while and each file
+// is reported once for the whole burst.
+public class BuildWatcher implements Closeable {
+    private static final long QUIET_MILLIS = 20;
+
+    private CompilerOptions options;
+    private Path directory;
+    private WatchService service;
+    private long changedAt;
+
+    public BuildWatcher(CompilerOptions options) throws IOException {
+        this.options = options;
+        this.directory = options.getOutputDirectory();
+        this.service = FileSystems.getDefault().newWatchService();
+        this.changedAt = 0;
+
+        directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    // Blocks until some sources have changed and returns them in order, including those that were deleted
+    public List<File> take() throws InterruptedException {
+        Set<File> changed = new TreeSet<>();
+
+        while (changed.isEmpty()) {
+            WatchKey key = service.take();
+            changedAt = System.nanoTime();
+
+            for (; key != null; key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) {
+                addChanged(key, changed);
+            }
+        }
+
+        return new ArrayList<>(changed);
+    }
+
+    // When the first event of the burst last returned by take arrived, in System.nanoTime
+    public long getChangedAt() {
+        return changedAt;
+    }
+
+    private void addChanged(WatchKey key, Set<File> changed) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Too much happened to tell what, so everything is built again
+                changed.addAll(options.getFiles());
+                continue;
+            }
+
+            File source = getSource((Path) event.context());
+            if (source != null) {
+                changed.add(source);
+            }
+        }
+
+        if (!key.reset()) {
+            throw new IllegalStateException("No longer able to watch " + directory);
+        }
+    }
+
+    // The source a changed file is, named as the build names it, or null when it is some other file
+    private File getSource(Path name) {
+        File input = options.getInput();
+
+        if (!input.isDirectory()) {
+            return name.toString().equals(input.getName()) ? input : null;
+        }
+
+        return name.toString().endsWith(".jack") ? new File(input, name.toString()) : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+}
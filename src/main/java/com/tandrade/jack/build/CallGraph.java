@@ -0,0 +1,94 @@
+package com.tandrade.jack.build;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.VMInstruction;
+import com.tandrade.jack.vm.VMWriter;
+
+// Which functions each function calls, across every file of a program
+public class CallGraph {
+
+    private Map<String, Set<String>> calls;
+
+    public CallGraph() {
+        this.calls = new LinkedHashMap<>();
+    }
+
+    public void add(List<VMInstruction> code) {
+        Set<String> callees = null;
+
+        for (VMInstruction instruction : code) {
+            if (instruction.is(Opcode.FUNCTION)) {
+                callees = new LinkedHashSet<>();
+                if (calls.put(getFunctionName(instruction), callees) != null) {
+                    throw new IllegalArgumentException("Duplicate function: " + getFunctionName(instruction));
+                }
+            } else if (instruction.is(Opcode.CALL) && callees != null) {
+                callees.add(getFunctionName(instruction));
+            }
+        }
+    }
+
+    public boolean contains(String function) {
+        return calls.containsKey(function);
+    }
+
+    public Set<String> getFunctions() {
+        return calls.keySet();
+    }
+
+    // Every defined function a root can reach; calls to functions outside the program, such as the OS, are left out
+    public Set<String> getReachable(Collection<String> roots) {
+        Set<String> reachable = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+
+        for (String root : roots) {
+            if (contains(root) && reachable.add(root)) {
+                pending.push(root);
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            for (String callee : calls.get(pending.pop())) {
+                if (contains(callee) && reachable.add(callee)) {
+                    pending.push(callee);
+                }
+            }
+        }
+
+        return reachable;
+    }
+
+    // Writes the code of the given functions only, returning how many instructions were dropped
+    public static int replay(List<VMInstruction> code, Set<String> functions, VMWriter writer) {
+        boolean keep = true;
+        int removed = 0;
+
+        for (VMInstruction instruction : code) {
+            if (instruction.is(Opcode.FUNCTION)) {
+                keep = functions.contains(getFunctionName(instruction));
+            }
+
+            if (keep) {
+                instruction.writeTo(writer);
+            } else {
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    private static String getFunctionName(VMInstruction instruction) {
+        return instruction.getName() + "." + instruction.getSubroutineName();
+    }
+}
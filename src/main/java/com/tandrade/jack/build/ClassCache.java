@@ -0,0 +1,78 @@
+package com.tandrade.jack.build;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.tandrade.jack.parser.ast.ClassNode;
+
+// Parsed classes kept in memory between builds, such as those of the compile daemon. A class is reused only while
+// its source has the same content hash, so an edit saved within the same timestamp is still seen. Past its
+// capacity the class used least recently is dropped, so a long-running daemon does not keep every class it has
+// ever built, including those since deleted or in directories no longer built.
+public class ClassCache {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private Map<Path, Entry> entries;
+    private AtomicLong hits;
+    private AtomicLong misses;
+
+    public ClassCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ClassCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    public synchronized ClassNode get(Path source, byte[] hash) {
+        Entry entry = entries.get(source.toAbsolutePath().normalize());
+
+        if (entry != null && Arrays.equals(entry.hash, hash)) {
+            hits.incrementAndGet();
+            return entry.node;
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public synchronized void put(Path source, byte[] hash, ClassNode node) {
+        entries.put(source.toAbsolutePath().normalize(), new Entry(hash, node));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static class Entry {
+        private byte[] hash;
+        private ClassNode node;
+
+        private Entry(byte[] hash, ClassNode node) {
+            this.hash = hash;
+            this.node = node;
+        }
+    }
+}
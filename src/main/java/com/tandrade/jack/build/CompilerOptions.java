@@ -0,0 +1,293 @@
+package com.tandrade.jack.build;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class CompilerOptions {
+
+    private File input;
+    private boolean mapped;
+    private int jobs;
+    private boolean incremental;
+    private boolean optimize;
+    private boolean stats;
+    private Path statsJson;
+    private boolean asm;
+    private boolean asmCompact;
+    private boolean wholeProgram;
+    private boolean poolStrings;
+    private boolean watch;
+    private boolean pipelined;
+
+    public CompilerOptions(File input) {
+        this.input = input;
+        this.mapped = false;
+        this.jobs = 1;
+        this.incremental = false;
+        this.optimize = false;
+        this.stats = false;
+        this.statsJson = null;
+        this.asm = false;
+        this.asmCompact = false;
+        this.wholeProgram = false;
+        this.poolStrings = false;
+        this.watch = false;
+        this.pipelined = false;
+    }
+
+    public static CompilerOptions parse(String[] args) {
+        return parse(args, null);
+    }
+
+    // Relative paths are resolved against the given directory rather than the process's, as for the compile daemon
+    public static CompilerOptions parse(String[] args, Path workingDirectory) {
+        CompilerOptions options = new CompilerOptions(null);
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--mmap":
+                    options.mapped = true;
+                    break;
+                case "-O":
+                    options.optimize = true;
+                    break;
+                case "--incremental":
+                    options.incremental = true;
+                    break;
+                case "--stats":
+                    options.stats = true;
+                    break;
+                case "--stats-json":
+                    if (i + 1 == args.length) {
+                        throw new IllegalArgumentException("Missing output file for " + args[i]);
+                    }
+                    options.stats = true;
+                    options.statsJson = resolve(workingDirectory, args[++i]);
+                    break;
+                case "--asm":
+                    options.asm = true;
+                    break;
+                case "--asm-compact":
+                    options.asm = true;
+                    options.asmCompact = true;
+                    break;
+                case "--whole-program":
+                    options.wholeProgram = true;
+                    break;
+                case "--pool-strings":
+                    options.poolStrings = true;
+                    break;
+                case "--watch":
+                    options.watch = true;
+                    break;
+                case "--pipeline":
+                    options.pipelined = true;
+                    break;
+                case "-j":
+                case "--jobs":
+                    if (i + 1 == args.length) {
+                        throw new IllegalArgumentException("Missing worker count for " + args[i]);
+                    }
+                    options.setJobs(parseJobs(args[++i]));
+                    break;
+                default:
+                    if (args[i].startsWith("-") || options.input != null) {
+                        throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                    }
+                    options.input = resolve(workingDirectory, args[i]).toFile();
+            }
+        }
+
+        if (options.input == null) {
+            throw new IllegalArgumentException("Missing input file or directory");
+        }
+        if (options.asm && options.incremental) {
+            throw new IllegalArgumentException("--incremental cannot be combined with --asm");
+        }
+        if (options.wholeProgram && options.incremental) {
+            throw new IllegalArgumentException("--incremental cannot be combined with --whole-program");
+        }
+        if (options.watch && (options.asm || options.wholeProgram)) {
+            throw new IllegalArgumentException("--watch cannot be combined with " + (options.asm ? "--asm" : "--whole-program"));
+        }
+
+        return options;
+    }
+
+    private static Path resolve(Path workingDirectory, String path) {
+        return workingDirectory != null ? workingDirectory.resolve(path) : Paths.get(path);
+    }
+
+    private static int parseJobs(String value) {
+        try {
+            int jobs = Integer.parseInt(value);
+
+            return jobs == 0 ? Runtime.getRuntime().availableProcessors() : jobs;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid worker count: " + value);
+        }
+    }
+
+    public File getInput() {
+        return input;
+    }
+
+    public Path getOutputDirectory() {
+        File directory = input.isDirectory() ? input : input.getAbsoluteFile().getParentFile();
+
+        return directory.toPath();
+    }
+
+    public List<File> getFiles() {
+        if (!input.isDirectory()) {
+            return Collections.singletonList(input);
+        }
+
+        File[] files = input.listFiles((d, f) -> f.endsWith(".jack"));
+        Arrays.sort(files);
+
+        return Arrays.asList(files);
+    }
+
+    // .vm files with no matching .jack file, such as the OS, which are linked into the assembly as they are
+    public List<File> getLibraryFiles() {
+        if (!input.isDirectory()) {
+            return Collections.emptyList();
+        }
+
+        File[] files = input.listFiles((d, f) -> f.endsWith(".vm") && !new File(d, f.substring(0, f.length() - 3) + ".jack").exists());
+        Arrays.sort(files);
+
+        return Arrays.asList(files);
+    }
+
+    // A directory is a whole program linked into <directory>/<directory>.asm, a single file is translated alongside itself
+    public Path getAssemblyPath() {
+        if (input.isDirectory()) {
+            return input.toPath().resolve(input.getAbsoluteFile().toPath().normalize().getFileName() + ".asm");
+        }
+
+        String filename = input.getName();
+        int extIndex = filename.lastIndexOf('.');
+        if (extIndex == -1) {
+            extIndex = filename.length();
+        }
+
+        return input.toPath().resolveSibling(filename.substring(0, extIndex) + ".asm");
+    }
+
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    public void setMapped(boolean mapped) {
+        this.mapped = mapped;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    // Options that change the generated code, so cached outputs are only reused when produced the same way
+    public String getOutputSignature() {
+        return (optimize ? "-O" : "") + (poolStrings ? " --pool-strings" : "");
+    }
+
+    public boolean isOptimize() {
+        return optimize;
+    }
+
+    public void setOptimize(boolean optimize) {
+        this.optimize = optimize;
+    }
+
+    public int getJobs() {
+        return jobs;
+    }
+
+    public void setJobs(int jobs) {
+        if (jobs < 1) {
+            throw new IllegalArgumentException("Invalid worker count: " + jobs);
+        }
+
+        this.jobs = jobs;
+    }
+
+    public boolean isStats() {
+        return stats;
+    }
+
+    public void setStats(boolean stats) {
+        this.stats = stats;
+    }
+
+    // Where to write the stats as JSON, or null to print them as a table
+    public Path getStatsJson() {
+        return statsJson;
+    }
+
+    public void setStatsJson(Path statsJson) {
+        this.statsJson = statsJson;
+    }
+
+    public boolean isAsm() {
+        return asm;
+    }
+
+    public void setAsm(boolean asm) {
+        this.asm = asm;
+    }
+
+    // Calls, returns and comparisons jump to shared routines instead of being expanded inline
+    public boolean isAsmCompact() {
+        return asmCompact;
+    }
+
+    public void setAsmCompact(boolean asmCompact) {
+        this.asmCompact = asmCompact;
+    }
+
+    // Leaves out every subroutine that cannot be reached from Sys.init or Main.main
+    public boolean isWholeProgram() {
+        return wholeProgram;
+    }
+
+    public void setWholeProgram(boolean wholeProgram) {
+        this.wholeProgram = wholeProgram;
+    }
+
+    public boolean isPoolStrings() {
+        return poolStrings;
+    }
+
+    public void setPoolStrings(boolean poolStrings) {
+        this.poolStrings = poolStrings;
+    }
+
+    // Keeps running after the first build and recompiles each class as its source changes
+    public boolean isWatch() {
+        return watch;
+    }
+
+    public void setWatch(boolean watch) {
+        this.watch = watch;
+    }
+
+    // Each class is tokenized on a thread of its own while it is parsed; stats time the two apart, so they
+    // are collected without it
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+}
@@ -0,0 +1,67 @@
+package com.tandrade.jack.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Sends a build to a running CompileDaemon and prints its report as CompilationEngine would, exiting with its status
+public class CompileClient {
+
+    // The token is the one the daemon on the port wrote for its session
+    public static int compile(int port, String token, Path workingDirectory, String[] args, PrintStream out, PrintStream err)
+            throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                DataOutputStream request = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DataInputStream response = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            request.writeUTF(token);
+            request.writeUTF(workingDirectory.toAbsolutePath().normalize().toString());
+            request.writeInt(args.length);
+            for (String arg : args) {
+                request.writeUTF(arg);
+            }
+            request.flush();
+
+            int status = response.readInt();
+            out.print(CompileDaemon.readText(response));
+            err.print(CompileDaemon.readText(response));
+
+            return status;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = CompileDaemon.DEFAULT_PORT;
+        int first = 0;
+
+        if (args.length >= 2 && args[0].equals("--port")) {
+            port = Integer.parseInt(args[1]);
+            first = 2;
+        }
+        if (first == args.length) {
+            System.err.println("Usage: CompileClient [--port <port>] (--shutdown | <CompilationEngine arguments>)");
+            System.exit(2);
+        }
+
+        Path tokenPath = CompileDaemon.getTokenPath(CompileDaemon.getDefaultTokenDirectory(), port);
+        if (!Files.exists(tokenPath)) {
+            System.err.println("No token at " + tokenPath + ", is CompileDaemon running on port " + port + "?");
+            System.exit(1);
+        }
+
+        String token = CompileDaemon.readToken(CompileDaemon.getDefaultTokenDirectory(), port);
+        int status = compile(port, token, Paths.get(""), Arrays.copyOfRange(args, first, args.length), System.out, System.err);
+
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.tandrade.jack.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.tandrade.jack.build.ClassCache;
+import com.tandrade.jack.build.CompilerOptions;
+import com.tandrade.jack.parser.syntax.CompilationEngine;
+
+// Keeps a warmed-up compiler running and builds whatever CompileClient asks for over a loopback socket, so
+// repeated builds skip JVM startup and only parse the classes that changed since the last one.
+//
+// A request is the session token, the client's working directory and the CompilationEngine arguments; the
+// response is the exit status followed by what the build printed to stdout and stderr. Any local process can
+// connect to the port, so the daemon writes a random token to a file only its user can read, and runs nothing
+// for a request that does not start with it.
+public class CompileDaemon implements Closeable {
+    public static final int DEFAULT_PORT = 7878;
+
+    static final String SHUTDOWN = "--shutdown";
+
+    private static final int TOKEN_BYTES = 32;
+
+    private ServerSocket server;
+    private Path tokenPath;
+    private byte[] token;
+    private ExecutorService executor;
+    private ClassCache classCache;
+    // Builds writing to the same directory run one at a time
+    private Map<Path, Object> locks;
+
+    public CompileDaemon(int port) throws IOException {
+        this(port, getDefaultTokenDirectory());
+    }
+
+    public CompileDaemon(int port, Path tokenDirectory) throws IOException {
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.tokenPath = getTokenPath(tokenDirectory, getPort());
+        this.token = newToken();
+        this.executor = Executors.newCachedThreadPool();
+        this.classCache = new ClassCache();
+        this.locks = new ConcurrentHashMap<>();
+
+        try {
+            writeToken(tokenPath, token);
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    public static Path getDefaultTokenDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".jack-compiler");
+    }
+
+    public static Path getTokenPath(Path tokenDirectory, int port) {
+        return tokenDirectory.resolve("daemon-" + port + ".token");
+    }
+
+    // What a client has to send first, as written to the token file
+    public static String readToken(Path tokenDirectory, int port) throws IOException {
+        return Files.readString(getTokenPath(tokenDirectory, port), StandardCharsets.US_ASCII).trim();
+    }
+
+    private static byte[] newToken() {
+        byte[] random = new byte[TOKEN_BYTES];
+
+        new SecureRandom().nextBytes(random);
+
+        return HexFormat.of().formatHex(random).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // The file is created with its permissions rather than given them afterwards, so no one else can open it
+    // in between. One left by a daemon that did not stop cleanly is replaced.
+    private static void writeToken(Path path, byte[] token) throws IOException {
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+        if (posix) {
+            if (!Files.isDirectory(path.getParent())) {
+                Files.createDirectories(path.getParent(), PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            }
+            Files.deleteIfExists(path);
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createDirectories(path.getParent());
+            Files.deleteIfExists(path);
+            Files.createFile(path);
+        }
+        Files.write(path, token);
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    public ClassCache getClassCache() {
+        return classCache;
+    }
+
+    public Path getTokenPath() {
+        return tokenPath;
+    }
+
+    // Handles each connection on its own worker thread until a shutdown request closes the socket
+    public void serve() throws IOException {
+        try {
+            while (true) {
+                Socket socket = server.accept();
+
+                executor.execute(() -> handle(socket));
+            }
+        } catch (SocketException e) {
+            if (!server.isClosed()) {
+                throw e;
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // The token goes first, so it is gone by the time serve returns
+    @Override
+    public void close() throws IOException {
+        try {
+            Files.deleteIfExists(tokenPath);
+        } finally {
+            server.close();
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket connection = socket;
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+            if (!MessageDigest.isEqual(token, in.readUTF().getBytes(StandardCharsets.US_ASCII))) {
+                writeResponse(out, 2, "", "Invalid daemon token, read it from " + tokenPath + System.lineSeparator());
+                System.err.println("Rejected a request without the session token");
+                return;
+            }
+
+            Path workingDirectory = Paths.get(in.readUTF());
+            String[] args = new String[in.readInt()];
+
+            for (int i = 0; i < args.length; i++) {
+                args[i] = in.readUTF();
+            }
+
+            if (args.length == 1 && args[0].equals(SHUTDOWN)) {
+                close();
+                writeResponse(out, 0, "daemon stopped" + System.lineSeparator(), "");
+                return;
+            }
+
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+            long start = System.nanoTime();
+            int status = compile(args, workingDirectory, new PrintStream(stdout, true, StandardCharsets.UTF_8),
+                    new PrintStream(stderr, true, StandardCharsets.UTF_8));
+
+            writeResponse(out, status, stdout.toString(StandardCharsets.UTF_8), stderr.toString(StandardCharsets.UTF_8));
+            System.err.printf("%s %s: status %d in %.2f ms, %d classes cached, %d parses reused%n", workingDirectory,
+                    String.join(" ", args), status, (System.nanoTime() - start) / 1e6, classCache.size(), classCache.getHits());
+        } catch (IOException e) {
+            System.err.println("Request failed: " + e.getMessage());
+        }
+    }
+
+    private int compile(String[] args, Path workingDirectory, PrintStream out, PrintStream err) {
+        Object lock = this;
+
+        try {
+            CompilerOptions options = CompilerOptions.parse(args, workingDirectory);
+
+            if (options.isWatch()) {
+                // It would hold a worker and the directory's lock for good, and its report would never be sent
+                err.println("--watch is not supported by the daemon");
+                return 2;
+            }
+            lock = locks.computeIfAbsent(options.getOutputDirectory().toAbsolutePath().normalize(), directory -> new Object());
+        } catch (IllegalArgumentException e) {
+            // Reported with the usage by CompilationEngine, which never gets to build anything
+        }
+
+        synchronized (lock) {
+            try {
+                return CompilationEngine.run(args, workingDirectory, classCache, out, err);
+            } catch (IOException | RuntimeException e) {
+                err.println(e.getMessage());
+                return 1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                err.println("Interrupted");
+                return 1;
+            }
+        }
+    }
+
+    private static void writeResponse(DataOutputStream out, int status, String stdout, String stderr) throws IOException {
+        out.writeInt(status);
+        writeText(out, stdout);
+        writeText(out, stderr);
+        out.flush();
+    }
+
+    // Unlike writeUTF, not limited to 64K, which a stats table can exceed
+    static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readText(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+
+        in.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+
+        if (args.length == 2 && args[0].equals("--port")) {
+            port = Integer.parseInt(args[1]);
+        } else if (args.length != 0) {
+            System.err.println("Usage: CompileDaemon [--port <port>]");
+            return;
+        }
+
+        try (CompileDaemon daemon = new CompileDaemon(port)) {
+            System.err.println("Listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + daemon.getPort()
+                    + ", token in " + daemon.getTokenPath());
+            daemon.serve();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.tandrade.jack.parser.ast;
+
+public class ArrayReference extends Expression {
+
+    private String name;
+    private Expression index;
+
+    public ArrayReference(String name, Expression index) {
+        this.name = name;
+        this.index = index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Expression getIndex() {
+        return index;
+    }
+
+    @Override
+    public <R> R accept(ExpressionVisitor<R> visitor) {
+        return visitor.visitArrayReference(this);
+    }
+}
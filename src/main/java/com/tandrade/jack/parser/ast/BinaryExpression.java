@@ -0,0 +1,33 @@
+package com.tandrade.jack.parser.ast;
+
+import com.tandrade.jack.parser.token.Symbol;
+
+public class BinaryExpression extends Expression {
+
+    private Symbol op;
+    private Expression left;
+    private Expression right;
+
+    public BinaryExpression(Symbol op, Expression left, Expression right) {
+        this.op = op;
+        this.left = left;
+        this.right = right;
+    }
+
+    public Symbol getOp() {
+        return op;
+    }
+
+    public Expression getLeft() {
+        return left;
+    }
+
+    public Expression getRight() {
+        return right;
+    }
+
+    @Override
+    public <R> R accept(ExpressionVisitor<R> visitor) {
+        return visitor.visitBinaryExpression(this);
+    }
+}
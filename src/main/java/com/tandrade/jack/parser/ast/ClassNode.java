@@ -0,0 +1,28 @@
+package com.tandrade.jack.parser.ast;
+
+import java.util.List;
+
+public class ClassNode {
+
+    private String name;
+    private List<VarDecNode> classVariables;
+    private List<SubroutineNode> subroutines;
+
+    public ClassNode(String name, List<VarDecNode> classVariables, List<SubroutineNode> subroutines) {
+        this.name = name;
+        this.classVariables = classVariables;
+        this.subroutines = subroutines;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<VarDecNode> getClassVariables() {
+        return classVariables;
+    }
+
+    public List<SubroutineNode> getSubroutines() {
+        return subroutines;
+    }
+}
@@ -0,0 +1,19 @@
+package com.tandrade.jack.parser.ast;
+
+public class DoStatement extends Statement {
+
+    private SubroutineCall call;
+
+    public DoStatement(SubroutineCall call) {
+        this.call = call;
+    }
+
+    public SubroutineCall getCall() {
+        return call;
+    }
+
+    @Override
+    public <R> R accept(StatementVisitor<R> visitor) {
+        return visitor.visitDoStatement(this);
+    }
+}
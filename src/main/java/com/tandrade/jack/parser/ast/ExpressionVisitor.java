@@ -0,0 +1,20 @@
+package com.tandrade.jack.parser.ast;
+
+public interface ExpressionVisitor<R> {
+
+    R visitIntegerConstant(IntegerConstant expression);
+
+    R visitStringConstant(StringConstant expression);
+
+    R visitKeywordConstant(KeywordConstant expression);
+
+    R visitVariableReference(VariableReference expression);
+
+    R visitArrayReference(ArrayReference expression);
+
+    R visitSubroutineCall(SubroutineCall expression);
+
+    R visitUnaryExpression(UnaryExpression expression);
+
+    R visitBinaryExpression(BinaryExpression expression);
+}
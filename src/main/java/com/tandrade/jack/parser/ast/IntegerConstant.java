@@ -0,0 +1,19 @@
+package com.tandrade.jack.parser.ast;
+
+public class IntegerConstant extends Expression {
+
+    private int value;
+
+    public IntegerConstant(int value) {
+        this.value = value;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    @Override
+    public <R> R accept(ExpressionVisitor<R> visitor) {
+        return visitor.visitIntegerConstant(this);
+    }
+}
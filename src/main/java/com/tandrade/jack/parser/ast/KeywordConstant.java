@@ -0,0 +1,21 @@
+package com.tandrade.jack.parser.ast;
+
+import com.tandrade.jack.parser.token.Keyword;
+
+public class KeywordConstant extends Expression {
+
+    private Keyword keyword;
+
+    public KeywordConstant(Keyword keyword) {
+        this.keyword = keyword;
+    }
+
+    public Keyword getKeyword() {
+        return keyword;
+    }
+
+    @Override
+    public <R> R accept(ExpressionVisitor<R> visitor) {
+        return visitor.visitKeywordConstant(this);
+    }
+}
@@ -0,0 +1,31 @@
+package com.tandrade.jack.parser.ast;
+
+public class LetStatement extends Statement {
+
+    private String name;
+    private Expression index;
+    private Expression value;
+
+    public LetStatement(String name, Expression index, Expression value) {
+        this.name = name;
+        this.index = index;
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Expression getIndex() {
+        return index;
+    }
+
+    public Expression getValue() {
+        return value;
+    }
+
+    @Override
+    public <R> R accept(StatementVisitor<R> visitor) {
+        return visitor.visitLetStatement(this);
+    }
+}
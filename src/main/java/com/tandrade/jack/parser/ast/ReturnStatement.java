@@ -0,0 +1,19 @@
+package com.tandrade.jack.parser.ast;
+
+public class ReturnStatement extends Statement {
+
+    private Expression value;
+
+    public ReturnStatement(Expression value) {
+        this.value = value;
+    }
+
+    public Expression getValue() {
+        return value;
+    }
+
+    @Override
+    public <R> R accept(StatementVisitor<R> visitor) {
+        return visitor.visitReturnStatement(this);
+    }
+}
@@ -0,0 +1,28 @@
+package com.tandrade.jack.parser.ast;
+
+public abstract class Statement {
+
+    // Where the statement starts in the source, or 0 for one that the compiler made up
+    private int line;
+    private int column;
+
+    protected Statement() {
+        this.line = 0;
+        this.column = 0;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public void setPosition(int line, int column) {
+        this.line = line;
+        this.column = column;
+    }
+
+    public abstract <R> R accept(StatementVisitor<R> visitor);
+}
@@ -0,0 +1,14 @@
+package com.tandrade.jack.parser.ast;
+
+public interface StatementVisitor<R> {
+
+    R visitLetStatement(LetStatement statement);
+
+    R visitIfStatement(IfStatement statement);
+
+    R visitWhileStatement(WhileStatement statement);
+
+    R visitDoStatement(DoStatement statement);
+
+    R visitReturnStatement(ReturnStatement statement);
+}
@@ -0,0 +1,19 @@
+package com.tandrade.jack.parser.ast;
+
+public class StringConstant extends Expression {
+
+    private String value;
+
+    public StringConstant(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public <R> R accept(ExpressionVisitor<R> visitor) {
+        return visitor.visitStringConstant(this);
+    }
+}
@@ -0,0 +1,33 @@
+package com.tandrade.jack.parser.ast;
+
+import java.util.List;
+
+public class SubroutineCall extends Expression {
+
+    private String target;
+    private String name;
+    private List<Expression> arguments;
+
+    public SubroutineCall(String target, String name, List<Expression> arguments) {
+        this.target = target;
+        this.name = name;
+        this.arguments = arguments;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Expression> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public <R> R accept(ExpressionVisitor<R> visitor) {
+        return visitor.visitSubroutineCall(this);
+    }
+}
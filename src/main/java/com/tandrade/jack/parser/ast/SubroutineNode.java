@@ -0,0 +1,48 @@
+package com.tandrade.jack.parser.ast;
+
+import java.util.List;
+
+import com.tandrade.jack.parser.token.Keyword;
+
+public class SubroutineNode {
+
+    private Keyword kind;
+    private String returnType;
+    private String name;
+    private List<VarDecNode> parameters;
+    private List<VarDecNode> locals;
+    private List<Statement> statements;
+
+    public SubroutineNode(Keyword kind, String returnType, String name, List<VarDecNode> parameters, List<VarDecNode> locals, List<Statement> statements) {
+        this.kind = kind;
+        this.returnType = returnType;
+        this.name = name;
+        this.parameters = parameters;
+        this.locals = locals;
+        this.statements = statements;
+    }
+
+    public Keyword getKind() {
+        return kind;
+    }
+
+    public String getReturnType() {
+        return returnType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<VarDecNode> getParameters() {
+        return parameters;
+    }
+
+    public List<VarDecNode> getLocals() {
+        return locals;
+    }
+
+    public List<Statement> getStatements() {
+        return statements;
+    }
+}
@@ -0,0 +1,27 @@
+package com.tandrade.jack.parser.ast;
+
+import com.tandrade.jack.parser.token.Symbol;
+
+public class UnaryExpression extends Expression {
+
+    private Symbol op;
+    private Expression operand;
+
+    public UnaryExpression(Symbol op, Expression operand) {
+        this.op = op;
+        this.operand = operand;
+    }
+
+    public Symbol getOp() {
+        return op;
+    }
+
+    public Expression getOperand() {
+        return operand;
+    }
+
+    @Override
+    public <R> R accept(ExpressionVisitor<R> visitor) {
+        return visitor.visitUnaryExpression(this);
+    }
+}
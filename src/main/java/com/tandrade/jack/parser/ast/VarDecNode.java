@@ -0,0 +1,30 @@
+package com.tandrade.jack.parser.ast;
+
+import java.util.List;
+
+import com.tandrade.jack.parser.syntax.VarScope;
+
+public class VarDecNode {
+
+    private VarScope scope;
+    private String type;
+    private List<String> names;
+
+    public VarDecNode(VarScope scope, String type, List<String> names) {
+        this.scope = scope;
+        this.type = type;
+        this.names = names;
+    }
+
+    public VarScope getScope() {
+        return scope;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+}
@@ -0,0 +1,19 @@
+package com.tandrade.jack.parser.ast;
+
+public class VariableReference extends Expression {
+
+    private String name;
+
+    public VariableReference(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public <R> R accept(ExpressionVisitor<R> visitor) {
+        return visitor.visitVariableReference(this);
+    }
+}
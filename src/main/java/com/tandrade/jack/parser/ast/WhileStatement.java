@@ -0,0 +1,27 @@
+package com.tandrade.jack.parser.ast;
+
+import java.util.List;
+
+public class WhileStatement extends Statement {
+
+    private Expression condition;
+    private List<Statement> body;
+
+    public WhileStatement(Expression condition, List<Statement> body) {
+        this.condition = condition;
+        this.body = body;
+    }
+
+    public Expression getCondition() {
+        return condition;
+    }
+
+    public List<Statement> getBody() {
+        return body;
+    }
+
+    @Override
+    public <R> R accept(StatementVisitor<R> visitor) {
+        return visitor.visitWhileStatement(this);
+    }
+}
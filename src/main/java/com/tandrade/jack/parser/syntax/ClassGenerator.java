@@ -0,0 +1,68 @@
+package com.tandrade.jack.parser.syntax;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.tandrade.jack.parser.ast.ClassNode;
+import com.tandrade.jack.parser.token.Diagnostic;
+import com.tandrade.jack.vm.VMWriter;
+import com.tandrade.jack.vm.peephole.PeepholeOptimizer;
+
+// Generates the code of parsed classes, under -O with folding in the code generator and the peephole optimizer
+// behind it. Build, CompilationEngine and InMemoryCompiler all generate through this, so -O writes the same code
+// whichever of them compiles a class.
+public class ClassGenerator {
+
+    private CodeGenerator generator;
+    private PeepholeOptimizer optimizer;
+    private boolean optimize;
+
+    public ClassGenerator(boolean optimize) {
+        this.generator = new CodeGenerator(null, optimize);
+        this.optimizer = null;
+        this.optimize = optimize;
+    }
+
+    public boolean isOptimize() {
+        return optimize;
+    }
+
+    public void setInliner(Inliner inliner) {
+        generator.setInliner(inliner);
+    }
+
+    public void setPoolStrings(boolean poolStrings) {
+        generator.setPoolStrings(poolStrings);
+    }
+
+    // Writes the class's code to the target and flushes it, with the counts below covering only this class
+    public void generateClass(ClassNode node, VMWriter target) {
+        VMWriter writer = target;
+
+        if (optimize) {
+            if (optimizer == null) {
+                optimizer = new PeepholeOptimizer(target);
+            } else {
+                optimizer.reset(target);
+            }
+            writer = optimizer;
+        }
+
+        generator.reset(writer);
+        generator.generateClass(node);
+        writer.flush();
+    }
+
+    public CodeGenerator getCodeGenerator() {
+        return generator;
+    }
+
+    public List<Diagnostic> getWarnings() {
+        return generator.getWarnings();
+    }
+
+    public Map<String, Integer> getPeepholeCounts() {
+        return optimizer != null ? optimizer.getRemovedCounts() : Collections.emptyMap();
+    }
+}
@@ -0,0 +1,782 @@
+package com.tandrade.jack.parser.syntax;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.tandrade.jack.parser.ast.ArrayReference;
+import com.tandrade.jack.parser.ast.BinaryExpression;
+import com.tandrade.jack.parser.ast.ClassNode;
+import com.tandrade.jack.parser.ast.DoStatement;
+import com.tandrade.jack.parser.ast.Expression;
+import com.tandrade.jack.parser.ast.ExpressionVisitor;
+import com.tandrade.jack.parser.ast.IfStatement;
+import com.tandrade.jack.parser.ast.IntegerConstant;
+import com.tandrade.jack.parser.ast.KeywordConstant;
+import com.tandrade.jack.parser.ast.LetStatement;
+import com.tandrade.jack.parser.ast.ReturnStatement;
+import com.tandrade.jack.parser.ast.Statement;
+import com.tandrade.jack.parser.ast.StatementVisitor;
+import com.tandrade.jack.parser.ast.StringConstant;
+import com.tandrade.jack.parser.ast.SubroutineCall;
+import com.tandrade.jack.parser.ast.SubroutineNode;
+import com.tandrade.jack.parser.ast.UnaryExpression;
+import com.tandrade.jack.parser.ast.VarDecNode;
+import com.tandrade.jack.parser.ast.VariableReference;
+import com.tandrade.jack.parser.ast.WhileStatement;
+import com.tandrade.jack.parser.token.Diagnostic;
+import com.tandrade.jack.parser.token.Keyword;
+import com.tandrade.jack.parser.token.Symbol;
+import com.tandrade.jack.parser.token.SyntaxException;
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.Segment;
+import com.tandrade.jack.vm.VMWriter;
+
+import static java.util.Map.entry;
+
+public class CodeGenerator implements ExpressionVisitor<Void>, StatementVisitor<Void> {
+
+    private static Map<Symbol, Opcode> OP_MAP = new EnumMap<>(Map.ofEntries(
+        entry(Symbol.PLUS, Opcode.ADD),
+        entry(Symbol.MINUS, Opcode.SUB),
+        entry(Symbol.AMPERSAND, Opcode.AND),
+        entry(Symbol.PIPE, Opcode.OR),
+        entry(Symbol.LESS_THAN, Opcode.LT),
+        entry(Symbol.GREATER_THAN, Opcode.GT),
+        entry(Symbol.EQUALS, Opcode.EQ)
+    ));
+    private static Map<Symbol, Opcode> UNARY_OP_MAP = new EnumMap<>(Map.ofEntries(
+        entry(Symbol.MINUS, Opcode.NEG),
+        entry(Symbol.TILDE, Opcode.NOT)
+    ));
+
+    private VMWriter writer;
+    private boolean optimize;
+    private ConstantFolder folder;
+    private SymbolTable symbolTable;
+    private int ifCount;
+    private int whileCount;
+    private int stringCount;
+    private String currentClassName;
+    private Keyword currentKind;
+    private Inliner inliner;
+    private int inlinedCount;
+    // While an inlined body is generated: the subroutine, the caller's arguments and the receiver, which is
+    // null for the caller's own this
+    private InlineSubroutine inlined;
+    private List<Expression> inlinedArguments;
+    private VarInfo inlinedReceiver;
+    // Static slot of each distinct string literal of the class, with --pool-strings
+    private boolean poolStrings;
+    private Map<String, Integer> stringPool;
+    // Literals of the class that may be disposed or changed, which are built on every evaluation even so
+    private Set<StringConstant> unpooledStrings;
+    private int pooledStringCount;
+    private int pooledStringLength;
+    private int stringSlotCount;
+    // Under -O, the array element pointer 1 is known to address since the last label, or null
+    private String thatAddress;
+    // Errors found in the class so far, thrown together once all of it has been through
+    private List<Diagnostic> diagnostics;
+    private List<Diagnostic> warnings;
+
+    public CodeGenerator(VMWriter writer, boolean optimize) {
+        this.writer = writer;
+        this.optimize = optimize;
+        this.folder = new ConstantFolder();
+        this.symbolTable = new SymbolTable();
+        this.ifCount = 0;
+        this.whileCount = 0;
+        this.stringCount = 0;
+        this.currentClassName = null;
+        this.currentKind = null;
+        this.inliner = null;
+        this.inlinedCount = 0;
+        this.inlined = null;
+        this.inlinedArguments = null;
+        this.inlinedReceiver = null;
+        this.poolStrings = false;
+        this.stringPool = new HashMap<>();
+        this.unpooledStrings = new HashSet<>();
+        this.pooledStringCount = 0;
+        this.pooledStringLength = 0;
+        this.stringSlotCount = 0;
+        this.thatAddress = null;
+        this.diagnostics = new ArrayList<>();
+        this.warnings = new ArrayList<>();
+    }
+
+    // Writes the next classes to another writer, with the counts below starting again from 0
+    public void reset(VMWriter writer) {
+        this.writer = writer;
+        this.inlinedCount = 0;
+        this.pooledStringCount = 0;
+        this.pooledStringLength = 0;
+        this.stringSlotCount = 0;
+    }
+
+    // Calls to the subroutines the inliner accepts are expanded in place; only used under -O
+    public void setInliner(Inliner inliner) {
+        this.inliner = inliner;
+    }
+
+    public int getInlinedCount() {
+        return inlinedCount;
+    }
+
+    // String literals are built once into a static slot of their class and reused afterwards, except those the
+    // class may dispose or change, each of which gets a warning. Literals handed to other classes must never be.
+    public void setPoolStrings(boolean poolStrings) {
+        this.poolStrings = poolStrings;
+    }
+
+    // String literals compiled to a pooled slot
+    public int getPooledStringCount() {
+        return pooledStringCount;
+    }
+
+    // Characters of those literals, each of which no longer costs a push and an appendChar call once built
+    public int getPooledStringLength() {
+        return pooledStringLength;
+    }
+
+    // Static slots added for distinct literals
+    public int getStringSlotCount() {
+        return stringSlotCount;
+    }
+
+    // Problems in the last class generated that do not stop it from compiling
+    public List<Diagnostic> getWarnings() {
+        return warnings;
+    }
+
+    public void generateClass(ClassNode node) {
+        currentClassName = node.getName();
+        stringPool.clear();
+        unpooledStrings.clear();
+        diagnostics.clear();
+        warnings.clear();
+
+        if (poolStrings) {
+            for (StringConstant literal : StringEscapes.of(node)) {
+                unpooledStrings.add(literal);
+                warnings.add(new Diagnostic(literal.getLine(), literal.getColumn(),
+                        "String literal may be disposed or changed, so it is not pooled: \"" + literal.getValue() + "\""));
+            }
+        }
+        symbolTable.startClass();
+
+        for (VarDecNode declaration : node.getClassVariables()) {
+            for (String name : declaration.getNames()) {
+                addClassVariable(declaration.getScope(), declaration.getType(), name);
+            }
+        }
+
+        for (SubroutineNode subroutine : node.getSubroutines()) {
+            generateSubroutine(subroutine);
+        }
+
+        if (!diagnostics.isEmpty()) {
+            throw new SyntaxException(new ArrayList<>(diagnostics));
+        }
+    }
+
+    public void generateSubroutine(SubroutineNode node) {
+        ifCount = 0;
+        whileCount = 0;
+        stringCount = 0;
+        currentKind = node.getKind();
+        thatAddress = null;
+        symbolTable.startSubroutine();
+
+        if (node.getKind() == Keyword.METHOD) {
+            addLocalVariable(VarScope.ARGUMENT, currentClassName, "this");
+        }
+
+        for (VarDecNode declaration : node.getParameters()) {
+            for (String name : declaration.getNames()) {
+                addLocalVariable(declaration.getScope(), declaration.getType(), name);
+            }
+        }
+        for (VarDecNode declaration : node.getLocals()) {
+            for (String name : declaration.getNames()) {
+                addLocalVariable(declaration.getScope(), declaration.getType(), name);
+            }
+        }
+
+        writer.writeFunction(currentClassName, node.getName(), symbolTable.getCount(VarScope.LOCAL));
+
+        if (node.getKind() == Keyword.CONSTRUCTOR) {
+            writer.writePush(Segment.CONSTANT, symbolTable.getCount(VarScope.FIELD));
+            writer.writeCall("Memory", "alloc", 1);
+            writer.writePop(Segment.POINTER, 0);
+        } else if (node.getKind() == Keyword.METHOD) {
+            writer.writePush(Segment.ARGUMENT, 0);
+            writer.writePop(Segment.POINTER, 0);
+        }
+
+        generateStatements(node.getStatements());
+
+        symbolTable.endScope();
+    }
+
+    public void addClassVariable(VarScope scope, String type, String name) {
+        symbolTable.define(name, type, scope);
+    }
+
+    public void addLocalVariable(VarScope scope, String type, String name) {
+        symbolTable.define(name, type, scope);
+    }
+
+    public VarInfo getVarInfo(String variableName) {
+        return symbolTable.lookup(variableName);
+    }
+
+    private void generateStatements(List<Statement> statements) {
+        for (Statement statement : statements) {
+            statement.accept(this);
+        }
+    }
+
+    private void generateExpression(Expression expression) {
+        if (optimize) {
+            expression = expression.accept(folder);
+        }
+
+        expression.accept(this);
+    }
+
+    // Control can reach a label from elsewhere, so pointer 1 may address anything there
+    private void writeLabel(String label, int index) {
+        thatAddress = null;
+        writer.writeLabel(label, index);
+    }
+
+    @Override
+    public Void visitLetStatement(LetStatement statement) {
+        VarInfo info = getVarInfo(statement.getName());
+
+        if (info == null) {
+            error(statement.getLine(), statement.getColumn(), "Unknown variable: " + statement.getName());
+            // Still gone through for the errors it may hold
+            if (statement.getIndex() != null) {
+                statement.getIndex().accept(this);
+            }
+            statement.getValue().accept(this);
+            return null;
+        }
+
+        if (statement.getIndex() == null) {
+            generateExpression(statement.getValue());
+
+            writer.writePop(info.getScope().getSegment(), info.getIndex());
+            if (isFrameVariable(info)) {
+                thatAddress = null;
+            }
+
+            return null;
+        }
+
+        Expression index = optimize ? statement.getIndex().accept(folder) : statement.getIndex();
+        String address = getAddress(info, index);
+
+        if (address != null) {
+            // The value cannot change the element's address, so it is computed after the value, and not at all
+            // when the value has just read the same element
+            generateExpression(statement.getValue());
+
+            if (!address.equals(thatAddress)) {
+                writeAddress(info, index);
+                thatAddress = address;
+            }
+            writer.writePop(Segment.THAT, 0);
+        } else {
+            writer.writePush(info.getScope().getSegment(), info.getIndex());
+            index.accept(this);
+            writer.writeArithmetic(Opcode.ADD);
+
+            generateExpression(statement.getValue());
+
+            writer.writePop(Segment.TEMP, 0);
+            writer.writePop(Segment.POINTER, 1);
+            writer.writePush(Segment.TEMP, 0);
+            writer.writePop(Segment.THAT, 0);
+            thatAddress = null;
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitIfStatement(IfStatement statement) {
+        int count = ifCount++;
+
+        generateExpression(statement.getCondition());
+
+        writer.writeIf("IF-TRUE", count);
+        writer.writeGoto("IF-FALSE", count);
+        writeLabel("IF-TRUE", count);
+
+        generateStatements(statement.getThenStatements());
+
+        if (statement.getElseStatements() != null) {
+            writer.writeGoto("IF-END", count);
+            writeLabel("IF-FALSE", count);
+
+            generateStatements(statement.getElseStatements());
+
+            writeLabel("IF-END", count);
+        } else {
+            writeLabel("IF-FALSE", count);
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(WhileStatement statement) {
+        int count = whileCount++;
+
+        writeLabel("WHILE", count);
+
+        generateExpression(statement.getCondition());
+
+        writer.writeArithmetic(Opcode.NOT);
+        writer.writeIf("WHILE_END", count);
+
+        generateStatements(statement.getBody());
+
+        writer.writeGoto("WHILE", count);
+        writeLabel("WHILE_END", count);
+
+        return null;
+    }
+
+    @Override
+    public Void visitDoStatement(DoStatement statement) {
+        Expression call = optimize ? statement.getCall().accept(folder) : statement.getCall();
+
+        if (call instanceof SubroutineCall && inline((SubroutineCall) call, true)) {
+            return null;
+        }
+
+        call.accept(this);
+        writer.writePop(Segment.TEMP, 0);
+
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStatement(ReturnStatement statement) {
+        if (statement.getValue() != null) {
+            generateExpression(statement.getValue());
+        } else {
+            writer.writePush(Segment.CONSTANT, 0);
+        }
+
+        writer.writeReturn();
+
+        return null;
+    }
+
+    @Override
+    public Void visitIntegerConstant(IntegerConstant expression) {
+        if (optimize) {
+            ConstantFolding.writeConstant(writer, expression.getValue());
+        } else {
+            writer.writePush(Segment.CONSTANT, expression.getValue());
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitStringConstant(StringConstant expression) {
+        String stringConstant = expression.getValue();
+
+        if (poolStrings && !unpooledStrings.contains(expression)) {
+            writePooledString(stringConstant);
+            return null;
+        }
+
+        writeNewString(stringConstant);
+
+        return null;
+    }
+
+    // The slot follows the class's own statics and is still 0 until the literal is first evaluated
+    private void writePooledString(String stringConstant) {
+        Integer slot = stringPool.get(stringConstant);
+
+        if (slot == null) {
+            slot = symbolTable.getCount(VarScope.STATIC) + stringPool.size();
+            stringPool.put(stringConstant, slot);
+            stringSlotCount++;
+        }
+        pooledStringCount++;
+        pooledStringLength += stringConstant.length();
+
+        int labelIndex = stringCount++;
+
+        writer.writePush(Segment.STATIC, slot);
+        writer.writeIf("STRING_POOLED", labelIndex);
+        writeNewString(stringConstant);
+        writer.writePop(Segment.STATIC, slot);
+        writeLabel("STRING_POOLED", labelIndex);
+        writer.writePush(Segment.STATIC, slot);
+    }
+
+    private void writeNewString(String stringConstant) {
+        writer.writePush(Segment.CONSTANT, stringConstant.length());
+        writer.writeCall("String", "new", 1);
+
+        stringConstant.chars().forEach(charCode -> {
+            writer.writePush(Segment.CONSTANT, charCode);
+            writer.writeCall("String", "appendChar", 2);
+        });
+    }
+
+    @Override
+    public Void visitKeywordConstant(KeywordConstant expression) {
+        switch (expression.getKeyword()) {
+            case TRUE:
+                writer.writePush(Segment.CONSTANT, 0);
+                writer.writeArithmetic(Opcode.NOT);
+                break;
+            case FALSE:
+            case NULL:
+                writer.writePush(Segment.CONSTANT, 0);
+                break;
+            case THIS:
+                if (inlined != null && inlinedReceiver != null) {
+                    writer.writePush(inlinedReceiver.getScope().getSegment(), inlinedReceiver.getIndex());
+                } else {
+                    writer.writePush(Segment.POINTER, 0);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unexpected keyword: " + expression.getKeyword().getValue());
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitVariableReference(VariableReference expression) {
+        if (inlined != null) {
+            writeInlinedVariable(expression.getName());
+            return null;
+        }
+
+        VarInfo info = getVarInfo(expression.getName());
+
+        if (info == null) {
+            error(expression.getLine(), expression.getColumn(), "Unknown variable: " + expression.getName());
+            return null;
+        }
+
+        writer.writePush(info.getScope().getSegment(), info.getIndex());
+
+        return null;
+    }
+
+    @Override
+    public Void visitArrayReference(ArrayReference expression) {
+        VarInfo info = getVarInfo(expression.getName());
+
+        if (info == null) {
+            error(expression.getLine(), expression.getColumn(), "Unknown variable: " + expression.getName());
+            expression.getIndex().accept(this);
+            return null;
+        }
+
+        String address = getAddress(info, expression.getIndex());
+
+        if (address == null || !address.equals(thatAddress)) {
+            writeAddress(info, expression.getIndex());
+            thatAddress = address;
+        }
+        writer.writePush(Segment.THAT, 0);
+
+        return null;
+    }
+
+    private void writeAddress(VarInfo base, Expression index) {
+        writer.writePush(base.getScope().getSegment(), base.getIndex());
+        index.accept(this);
+        writer.writeArithmetic(Opcode.ADD);
+        writer.writePop(Segment.POINTER, 1);
+    }
+
+    // Names base[index] under -O when both only read locals, arguments and constants. Calls cannot change those,
+    // so the address stays the same until one of them is assigned.
+    private String getAddress(VarInfo base, Expression index) {
+        if (!optimize || inlined != null || !isFrameVariable(base)) {
+            return null;
+        }
+
+        StringBuilder address = new StringBuilder();
+        address.append(base.getScope().getSegment().getValue()).append(' ').append(base.getIndex()).append('[');
+
+        return appendAddress(address, index) ? address.append(']').toString() : null;
+    }
+
+    private boolean appendAddress(StringBuilder address, Expression expression) {
+        if (expression instanceof IntegerConstant) {
+            address.append(((IntegerConstant) expression).getValue());
+            return true;
+        }
+        if (expression instanceof KeywordConstant) {
+            address.append(((KeywordConstant) expression).getKeyword().getValue());
+            return true;
+        }
+        if (expression instanceof VariableReference) {
+            VarInfo info = getVarInfo(((VariableReference) expression).getName());
+
+            if (info == null || !isFrameVariable(info)) {
+                return false;
+            }
+            address.append(info.getScope().getSegment().getValue()).append(' ').append(info.getIndex());
+            return true;
+        }
+        if (expression instanceof UnaryExpression) {
+            UnaryExpression unary = (UnaryExpression) expression;
+
+            address.append(unary.getOp().getValue()).append('(');
+            if (!appendAddress(address, unary.getOperand())) {
+                return false;
+            }
+            address.append(')');
+            return true;
+        }
+        if (expression instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+
+            address.append('(');
+            if (!appendAddress(address, binary.getLeft())) {
+                return false;
+            }
+            address.append(' ').append(binary.getOp().getValue()).append(' ');
+            if (!appendAddress(address, binary.getRight())) {
+                return false;
+            }
+            address.append(')');
+            return true;
+        }
+
+        return false;
+    }
+
+    // The code written from here on is never used, as the class fails once it has been gone through
+    private void error(int line, int column, String message) {
+        diagnostics.add(new Diagnostic(line, column, message));
+    }
+
+    private static boolean isFrameVariable(VarInfo info) {
+        return info.getScope() == VarScope.LOCAL || info.getScope() == VarScope.ARGUMENT;
+    }
+
+    @Override
+    public Void visitSubroutineCall(SubroutineCall expression) {
+        if (inline(expression, false)) {
+            return null;
+        }
+
+        String className = currentClassName;
+        int parameterCount = 0;
+
+        if (expression.getTarget() != null) {
+            className = expression.getTarget();
+
+            VarInfo info = getVarInfo(expression.getTarget());
+
+            if (info != null) {
+                className = info.getType();
+                parameterCount = 1;
+                writer.writePush(info.getScope().getSegment(), info.getIndex());
+            }
+        } else {
+            parameterCount = 1;
+            writer.writePush(Segment.POINTER, 0);
+        }
+
+        for (Expression argument : expression.getArguments()) {
+            argument.accept(this);
+            parameterCount++;
+        }
+
+        writer.writeCall(className, expression.getName(), parameterCount);
+
+        return null;
+    }
+
+    // Expands a call to a getter, setter or leaf function in place, leaving its value on the stack unless
+    // discarded; false when the call has to stay a call
+    private boolean inline(SubroutineCall call, boolean discard) {
+        if (inliner == null || inlined != null) {
+            return false;
+        }
+
+        String className = currentClassName;
+        VarInfo receiver = null;
+        boolean method = true;
+
+        if (call.getTarget() != null) {
+            receiver = getVarInfo(call.getTarget());
+            className = receiver != null ? receiver.getType() : call.getTarget();
+            method = receiver != null;
+        } else if (currentKind == Keyword.FUNCTION) {
+            // A method called from a function has no this to run on
+            return false;
+        }
+
+        InlineSubroutine subroutine = inliner.get(className, call.getName());
+        List<Expression> arguments = call.getArguments();
+
+        if (subroutine == null || subroutine.isMethod() != method || subroutine.getParameters().size() != arguments.size()
+                || (subroutine.isUsingStatics() && !className.equals(currentClassName))) {
+            return false;
+        }
+        for (int i = 0; i < arguments.size(); i++) {
+            // The body reads each parameter wherever it needs it, so only values that are cheap to read again
+            // or read exactly once can take the place of a real argument
+            if (!isSimple(arguments.get(i)) && !(isPure(arguments.get(i)) && subroutine.getParameterUses(i) == 1)) {
+                return false;
+            }
+        }
+
+        inlined = subroutine;
+        inlinedArguments = arguments;
+        inlinedReceiver = receiver;
+        try {
+            subroutine.getValue().accept(this);
+
+            VarInfo target = subroutine.getTarget();
+            if (target != null) {
+                if (target.getScope() == VarScope.FIELD && receiver != null) {
+                    writer.writePush(receiver.getScope().getSegment(), receiver.getIndex());
+                    writer.writePop(Segment.POINTER, 1);
+                    thatAddress = null;
+                    writer.writePop(Segment.THAT, target.getIndex());
+                } else {
+                    writer.writePop(target.getScope().getSegment(), target.getIndex());
+                }
+                if (!discard) {
+                    writer.writePush(Segment.CONSTANT, 0);
+                }
+            } else if (discard) {
+                writer.writePop(Segment.TEMP, 0);
+            }
+        } finally {
+            inlined = null;
+            inlinedArguments = null;
+            inlinedReceiver = null;
+        }
+
+        inlinedCount++;
+
+        return true;
+    }
+
+    // Reads a name inside an inlined body: parameters are the caller's arguments, fields belong to the receiver
+    private void writeInlinedVariable(String name) {
+        int parameter = inlined.getParameters().indexOf(name);
+
+        if (parameter != -1) {
+            InlineSubroutine subroutine = inlined;
+            List<Expression> arguments = inlinedArguments;
+
+            inlined = null;
+            arguments.get(parameter).accept(this);
+            inlined = subroutine;
+            inlinedArguments = arguments;
+            return;
+        }
+
+        VarInfo info = inlined.getClassVariable(name);
+        if (info.getScope() == VarScope.FIELD && inlinedReceiver != null) {
+            writer.writePush(inlinedReceiver.getScope().getSegment(), inlinedReceiver.getIndex());
+            writer.writePop(Segment.POINTER, 1);
+            thatAddress = null;
+            writer.writePush(Segment.THAT, info.getIndex());
+        } else {
+            writer.writePush(info.getScope().getSegment(), info.getIndex());
+        }
+    }
+
+    private static boolean isSimple(Expression expression) {
+        return expression instanceof IntegerConstant || expression instanceof KeywordConstant || expression instanceof VariableReference;
+    }
+
+    // Free of calls and allocations, so evaluating it at another point of the inlined body changes nothing
+    private static boolean isPure(Expression expression) {
+        if (expression instanceof UnaryExpression) {
+            return isPure(((UnaryExpression) expression).getOperand());
+        }
+        if (expression instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+
+            return binary.getOp() != Symbol.ASTERISK && binary.getOp() != Symbol.SLASH && isPure(binary.getLeft()) && isPure(binary.getRight());
+        }
+        if (expression instanceof ArrayReference) {
+            return isPure(((ArrayReference) expression).getIndex());
+        }
+
+        return isSimple(expression);
+    }
+
+    @Override
+    public Void visitUnaryExpression(UnaryExpression expression) {
+        expression.getOperand().accept(this);
+        writer.writeArithmetic(UNARY_OP_MAP.get(expression.getOp()));
+
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpression(BinaryExpression expression) {
+        Expression left = expression.getLeft();
+        Expression right = expression.getRight();
+
+        left.accept(this);
+
+        // Constants the folder could not combine are left to the runtime as they are
+        if (optimize && right instanceof IntegerConstant && !(left instanceof IntegerConstant)) {
+            writeOp(expression.getOp(), ((IntegerConstant) right).getValue());
+        } else {
+            right.accept(this);
+            writeOp(expression.getOp());
+        }
+
+        return null;
+    }
+
+    private void writeOp(Symbol op, int constant) {
+        if (ConstantFolding.isIdentity(op, constant)) {
+            return;
+        }
+        if (op == Symbol.ASTERISK && ConstantFolding.writeMultiply(writer, constant)) {
+            return;
+        }
+
+        ConstantFolding.writeConstant(writer, constant);
+        writeOp(op);
+    }
+
+    private void writeOp(Symbol op) {
+        switch (op) {
+            case ASTERISK:
+                writer.writeCall("Math", "multiply", 2);
+                break;
+            case SLASH:
+                writer.writeCall("Math", "divide", 2);
+                break;
+            default:
+                writer.writeArithmetic(OP_MAP.get(op));
+        }
+    }
+}
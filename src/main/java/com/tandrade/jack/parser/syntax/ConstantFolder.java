@@ -0,0 +1,126 @@
+package com.tandrade.jack.parser.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.tandrade.jack.parser.ast.ArrayReference;
+import com.tandrade.jack.parser.ast.BinaryExpression;
+import com.tandrade.jack.parser.ast.Expression;
+import com.tandrade.jack.parser.ast.ExpressionVisitor;
+import com.tandrade.jack.parser.ast.IntegerConstant;
+import com.tandrade.jack.parser.ast.KeywordConstant;
+import com.tandrade.jack.parser.ast.StringConstant;
+import com.tandrade.jack.parser.ast.SubroutineCall;
+import com.tandrade.jack.parser.ast.UnaryExpression;
+import com.tandrade.jack.parser.ast.VariableReference;
+import com.tandrade.jack.parser.token.Symbol;
+import com.tandrade.jack.vm.Opcode;
+
+// Rewrites an expression tree with its constant parts evaluated, returning the same node when nothing changes
+public class ConstantFolder implements ExpressionVisitor<Expression> {
+
+    @Override
+    public Expression visitIntegerConstant(IntegerConstant expression) {
+        return expression;
+    }
+
+    @Override
+    public Expression visitStringConstant(StringConstant expression) {
+        return expression;
+    }
+
+    @Override
+    public Expression visitKeywordConstant(KeywordConstant expression) {
+        switch (expression.getKeyword()) {
+            case TRUE:
+                return at(new IntegerConstant(-1), expression);
+            case FALSE:
+            case NULL:
+                return at(new IntegerConstant(0), expression);
+            default:
+                return expression;
+        }
+    }
+
+    @Override
+    public Expression visitVariableReference(VariableReference expression) {
+        return expression;
+    }
+
+    @Override
+    public Expression visitArrayReference(ArrayReference expression) {
+        Expression index = expression.getIndex().accept(this);
+
+        if (index == expression.getIndex()) {
+            return expression;
+        }
+
+        return at(new ArrayReference(expression.getName(), index), expression);
+    }
+
+    @Override
+    public Expression visitSubroutineCall(SubroutineCall expression) {
+        List<Expression> arguments = new ArrayList<>(expression.getArguments().size());
+        boolean changed = false;
+
+        for (Expression argument : expression.getArguments()) {
+            Expression folded = argument.accept(this);
+
+            changed |= folded != argument;
+            arguments.add(folded);
+        }
+
+        if (!changed) {
+            return expression;
+        }
+
+        return at(new SubroutineCall(expression.getTarget(), expression.getName(), arguments), expression);
+    }
+
+    @Override
+    public Expression visitUnaryExpression(UnaryExpression expression) {
+        Expression operand = expression.getOperand().accept(this);
+
+        if (operand instanceof IntegerConstant) {
+            Opcode op = expression.getOp() == Symbol.MINUS ? Opcode.NEG : Opcode.NOT;
+
+            return at(new IntegerConstant(ConstantFolding.fold(op, ((IntegerConstant) operand).getValue())), expression);
+        }
+        if (operand == expression.getOperand()) {
+            return expression;
+        }
+
+        return at(new UnaryExpression(expression.getOp(), operand), expression);
+    }
+
+    @Override
+    public Expression visitBinaryExpression(BinaryExpression expression) {
+        Symbol op = expression.getOp();
+        Expression left = expression.getLeft().accept(this);
+        Expression right = expression.getRight().accept(this);
+
+        if (left instanceof IntegerConstant && right instanceof IntegerConstant) {
+            Integer folded = ConstantFolding.fold(op, ((IntegerConstant) left).getValue(), ((IntegerConstant) right).getValue());
+
+            if (folded != null) {
+                return at(new IntegerConstant(folded), expression);
+            }
+        } else if (left instanceof IntegerConstant && (ConstantFolding.isCommutative(op) || ConstantFolding.mirror(op) != op)) {
+            // Keep the constant on the right, where the code generator can reduce it
+            return at(new BinaryExpression(ConstantFolding.mirror(op), right, left), expression);
+        }
+
+        if (left == expression.getLeft() && right == expression.getRight()) {
+            return expression;
+        }
+
+        return at(new BinaryExpression(op, left, right), expression);
+    }
+
+    // The rewritten expression is reported where the original was
+    private static Expression at(Expression rewritten, Expression original) {
+        rewritten.setPosition(original.getLine(), original.getColumn());
+
+        return rewritten;
+    }
+}
@@ -0,0 +1,143 @@
+package com.tandrade.jack.parser.syntax;
+
+import com.tandrade.jack.parser.token.Symbol;
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.Segment;
+import com.tandrade.jack.vm.VMWriter;
+
+public class ConstantFolding {
+
+    // Largest instruction count a multiplication by a constant may expand to, powers of two excepted
+    private static final int MULTIPLY_BUDGET = 24;
+
+    private ConstantFolding() {
+    }
+
+    public static Integer fold(Symbol op, int left, int right) {
+        switch (op) {
+            case PLUS:
+                return (int) (short) (left + right);
+            case MINUS:
+                return (int) (short) (left - right);
+            case ASTERISK:
+                return (int) (short) (left * right);
+            case SLASH:
+                // Leave division by zero and the overflowing corner cases to Math.divide at runtime
+                if (right == 0 || left == Short.MIN_VALUE || right == Short.MIN_VALUE) {
+                    return null;
+                }
+                return left / right;
+            case AMPERSAND:
+                return left & right;
+            case PIPE:
+                return left | right;
+            case LESS_THAN:
+                return left < right ? -1 : 0;
+            case GREATER_THAN:
+                return left > right ? -1 : 0;
+            case EQUALS:
+                return left == right ? -1 : 0;
+            default:
+                return null;
+        }
+    }
+
+    public static int fold(Opcode unaryOp, int value) {
+        return unaryOp == Opcode.NEG ? (int) (short) -value : ~value;
+    }
+
+    public static boolean isCommutative(Symbol op) {
+        switch (op) {
+            case PLUS:
+            case ASTERISK:
+            case AMPERSAND:
+            case PIPE:
+            case EQUALS:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Swaps the operands of a comparison, so that c < x can be compiled as x > c
+    public static Symbol mirror(Symbol op) {
+        switch (op) {
+            case LESS_THAN:
+                return Symbol.GREATER_THAN;
+            case GREATER_THAN:
+                return Symbol.LESS_THAN;
+            default:
+                return op;
+        }
+    }
+
+    public static void writeConstant(VMWriter writer, int value) {
+        if (value >= 0) {
+            writer.writePush(Segment.CONSTANT, value);
+        } else if (value == -1 || value == Short.MIN_VALUE) {
+            writer.writePush(Segment.CONSTANT, ~value);
+            writer.writeArithmetic(Opcode.NOT);
+        } else {
+            writer.writePush(Segment.CONSTANT, -value);
+            writer.writeArithmetic(Opcode.NEG);
+        }
+    }
+
+    // Whether applying "op constant" leaves the other operand unchanged
+    public static boolean isIdentity(Symbol op, int constant) {
+        switch (op) {
+            case PLUS:
+            case MINUS:
+            case PIPE:
+                return constant == 0;
+            case ASTERISK:
+            case SLASH:
+                return constant == 1;
+            case AMPERSAND:
+                return constant == -1;
+            default:
+                return false;
+        }
+    }
+
+    // Multiplies the value on top of the stack by doubling and adding instead of calling Math.multiply
+    public static boolean writeMultiply(VMWriter writer, int constant) {
+        boolean negative = constant < 0;
+        int factor = Math.abs(constant);
+
+        if (factor < 2 || factor > Short.MAX_VALUE) {
+            return false;
+        }
+
+        int doublings = 31 - Integer.numberOfLeadingZeros(factor);
+        int additions = Integer.bitCount(factor) - 1;
+        int cost = doublings * 4 + (additions > 0 ? additions * 2 + 2 : 0);
+
+        if (additions > 0 && cost > MULTIPLY_BUDGET) {
+            return false;
+        }
+
+        if (additions > 0) {
+            writer.writePop(Segment.TEMP, 2);
+            writer.writePush(Segment.TEMP, 2);
+        }
+
+        for (int bit = doublings - 1; bit >= 0; bit--) {
+            writer.writePop(Segment.TEMP, 1);
+            writer.writePush(Segment.TEMP, 1);
+            writer.writePush(Segment.TEMP, 1);
+            writer.writeArithmetic(Opcode.ADD);
+
+            if ((factor & (1 << bit)) != 0) {
+                writer.writePush(Segment.TEMP, 2);
+                writer.writeArithmetic(Opcode.ADD);
+            }
+        }
+
+        if (negative) {
+            writer.writeArithmetic(Opcode.NEG);
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,110 @@
+package com.tandrade.jack.parser.syntax;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.tandrade.jack.parser.ast.ClassNode;
+import com.tandrade.jack.parser.token.Diagnostic;
+import com.tandrade.jack.parser.token.NamePool;
+import com.tandrade.jack.parser.token.Tokenizer;
+import com.tandrade.jack.vm.VMWriter;
+
+// Compiles a class from source held in memory into any VMWriter, for programs embedding the compiler that
+// compile many small classes without going through files, such as a grading service.
+//
+// An instance keeps its name pool, symbol table, peephole buffer and reader window from one class to the next,
+// so a compile allocates little beyond the tree and the output. It is not thread-safe, but instances share no
+// mutable state, so each thread can use its own. Syntax errors and unknown variables are thrown as a
+// SyntaxException listing all of them.
+public class InMemoryCompiler {
+
+    private NamePool names;
+    private Tokenizer tokenizer;
+    private ClassGenerator generator;
+    private boolean poolStrings;
+
+    public InMemoryCompiler() {
+        this.names = new NamePool();
+        this.tokenizer = null;
+        this.generator = new ClassGenerator(false);
+        this.poolStrings = false;
+    }
+
+    public void setOptimize(boolean optimize) {
+        if (optimize != generator.isOptimize()) {
+            generator = new ClassGenerator(optimize);
+        }
+    }
+
+    public void setPoolStrings(boolean poolStrings) {
+        this.poolStrings = poolStrings;
+    }
+
+    public ClassNode parse(CharSequence source) {
+        names.clear();
+        if (tokenizer == null) {
+            tokenizer = new Tokenizer(source, names);
+        } else {
+            tokenizer.reset(source);
+        }
+
+        return parse();
+    }
+
+    // Reads the reader to its end and closes it
+    public ClassNode parse(Reader source) {
+        names.clear();
+        if (tokenizer == null) {
+            tokenizer = new Tokenizer(source, names);
+        } else {
+            tokenizer.reset(source);
+        }
+
+        return parse();
+    }
+
+    // ASCII source from the buffer's position to its limit, which is left as it is. The parser copies names and
+    // string constants into Strings as it reads them, so the buffer can be reused as soon as this returns.
+    public ClassNode parse(ByteBuffer source) {
+        names.clear();
+        if (tokenizer == null) {
+            tokenizer = new Tokenizer(source, names);
+        } else {
+            tokenizer.reset(source);
+        }
+
+        return parse();
+    }
+
+    private ClassNode parse() {
+        try {
+            return new Parser(tokenizer).parseClass();
+        } finally {
+            tokenizer.close();
+        }
+    }
+
+    public void compile(CharSequence source, VMWriter sink) {
+        compile(parse(source), sink);
+    }
+
+    public void compile(Reader source, VMWriter sink) {
+        compile(parse(source), sink);
+    }
+
+    public void compile(ByteBuffer source, VMWriter sink) {
+        compile(parse(source), sink);
+    }
+
+    // Writes the class's code to the sink and flushes it
+    public void compile(ClassNode node, VMWriter sink) {
+        generator.setPoolStrings(poolStrings);
+        generator.generateClass(node, sink);
+    }
+
+    // Warnings about the last class compiled, such as string literals --pool-strings leaves alone
+    public List<Diagnostic> getWarnings() {
+        return generator.getWarnings();
+    }
+}
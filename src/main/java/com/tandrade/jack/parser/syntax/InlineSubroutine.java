@@ -0,0 +1,67 @@
+package com.tandrade.jack.parser.syntax;
+
+import java.util.List;
+import java.util.Map;
+
+import com.tandrade.jack.parser.ast.Expression;
+
+// A getter, setter or leaf function simple enough to be expanded at its call sites
+public class InlineSubroutine {
+
+    private String className;
+    private boolean method;
+    private List<String> parameters;
+    private int[] parameterUses;
+    private Map<String, VarInfo> classVariables;
+    private boolean usingStatics;
+    private Expression value;
+    private VarInfo target;
+
+    public InlineSubroutine(String className, boolean method, List<String> parameters, int[] parameterUses,
+            Map<String, VarInfo> classVariables, boolean usingStatics, Expression value, VarInfo target) {
+        this.className = className;
+        this.method = method;
+        this.parameters = parameters;
+        this.parameterUses = parameterUses;
+        this.classVariables = classVariables;
+        this.usingStatics = usingStatics;
+        this.value = value;
+        this.target = target;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public boolean isMethod() {
+        return method;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    // How many times the body reads the parameter, so arguments with a cost are only inlined when read once
+    public int getParameterUses(int parameter) {
+        return parameterUses[parameter];
+    }
+
+    public VarInfo getClassVariable(String name) {
+        return classVariables.get(name);
+    }
+
+    // Statics live in the segment of their own class, so such a body can only be inlined into that class
+    public boolean isUsingStatics() {
+        return usingStatics;
+    }
+
+    // The returned value, or the value stored by a setter
+    public Expression getValue() {
+        return value;
+    }
+
+    // The field or static a setter stores to, null for a subroutine that returns its value
+    public VarInfo getTarget() {
+        return target;
+    }
+}
@@ -0,0 +1,221 @@
+package com.tandrade.jack.parser.syntax;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.tandrade.jack.parser.ast.ArrayReference;
+import com.tandrade.jack.parser.ast.BinaryExpression;
+import com.tandrade.jack.parser.ast.ClassNode;
+import com.tandrade.jack.parser.ast.Expression;
+import com.tandrade.jack.parser.ast.ExpressionVisitor;
+import com.tandrade.jack.parser.ast.IntegerConstant;
+import com.tandrade.jack.parser.ast.KeywordConstant;
+import com.tandrade.jack.parser.ast.LetStatement;
+import com.tandrade.jack.parser.ast.ReturnStatement;
+import com.tandrade.jack.parser.ast.Statement;
+import com.tandrade.jack.parser.ast.StringConstant;
+import com.tandrade.jack.parser.ast.SubroutineCall;
+import com.tandrade.jack.parser.ast.SubroutineNode;
+import com.tandrade.jack.parser.ast.UnaryExpression;
+import com.tandrade.jack.parser.ast.VarDecNode;
+import com.tandrade.jack.parser.ast.VariableReference;
+import com.tandrade.jack.parser.token.Keyword;
+
+// Finds, across every class of a program, the subroutines whose calls can be replaced by their body: methods
+// and functions without locals that either return an expression or store one to a field or static. The body
+// may not call anything but the multiply and divide built into operators, so it is never recursive.
+public class Inliner {
+    // Largest body, in expression nodes, worth inlining
+    public static final int BUDGET = 8;
+
+    private static final int NOT_INLINABLE = -1;
+
+    private Map<String, InlineSubroutine> subroutines;
+
+    public Inliner() {
+        this.subroutines = new HashMap<>();
+    }
+
+    public static Inliner of(Collection<ClassNode> classes) {
+        Inliner inliner = new Inliner();
+
+        for (ClassNode node : classes) {
+            inliner.addClass(node);
+        }
+
+        return inliner;
+    }
+
+    public InlineSubroutine get(String className, String subroutineName) {
+        return subroutines.get(className + "." + subroutineName);
+    }
+
+    public int size() {
+        return subroutines.size();
+    }
+
+    public void addClass(ClassNode node) {
+        Map<String, VarInfo> classVariables = new HashMap<>();
+        Map<VarScope, Integer> counts = new EnumMap<>(VarScope.class);
+
+        for (VarDecNode declaration : node.getClassVariables()) {
+            for (String name : declaration.getNames()) {
+                int index = counts.getOrDefault(declaration.getScope(), 0);
+
+                counts.put(declaration.getScope(), index + 1);
+                classVariables.put(name, new VarInfo(declaration.getType(), declaration.getScope(), index));
+            }
+        }
+
+        ConstantFolder folder = new ConstantFolder();
+        for (SubroutineNode subroutine : node.getSubroutines()) {
+            InlineSubroutine inline = analyze(node.getName(), subroutine, classVariables, folder);
+
+            if (inline != null) {
+                subroutines.put(node.getName() + "." + subroutine.getName(), inline);
+            }
+        }
+    }
+
+    private static InlineSubroutine analyze(String className, SubroutineNode subroutine, Map<String, VarInfo> classVariables, ConstantFolder folder) {
+        boolean method = subroutine.getKind() == Keyword.METHOD;
+        List<Statement> statements = subroutine.getStatements();
+
+        if (!(method || subroutine.getKind() == Keyword.FUNCTION) || !subroutine.getLocals().isEmpty()) {
+            return null;
+        }
+
+        Expression value;
+        VarInfo target = null;
+        String targetName = null;
+        if (statements.size() == 1 && statements.get(0) instanceof ReturnStatement) {
+            value = ((ReturnStatement) statements.get(0)).getValue();
+        } else if (statements.size() == 2 && statements.get(0) instanceof LetStatement
+                && statements.get(1) instanceof ReturnStatement && ((ReturnStatement) statements.get(1)).getValue() == null) {
+            LetStatement let = (LetStatement) statements.get(0);
+
+            value = let.getValue();
+            targetName = let.getName();
+            if (let.getIndex() != null) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        if (value == null) {
+            return null;
+        }
+
+        List<String> parameters = new ArrayList<>();
+        for (VarDecNode declaration : subroutine.getParameters()) {
+            parameters.addAll(declaration.getNames());
+        }
+
+        Measure measure = new Measure(method, parameters, classVariables);
+        if (targetName != null) {
+            target = measure.resolve(targetName);
+            if (target == null) {
+                return null;
+            }
+        }
+
+        value = value.accept(folder);
+        int size = value.accept(measure);
+        if (size == NOT_INLINABLE || size > BUDGET) {
+            return null;
+        }
+
+        return new InlineSubroutine(className, method, parameters, measure.parameterUses, classVariables,
+                measure.usingStatics || (target != null && target.getScope() == VarScope.STATIC), value, target);
+    }
+
+    // Counts the nodes of a body, or rejects it when it reads anything that only exists inside a real call
+    private static class Measure implements ExpressionVisitor<Integer> {
+        private boolean method;
+        private List<String> parameters;
+        private Map<String, VarInfo> classVariables;
+        private int[] parameterUses;
+        private boolean usingStatics;
+
+        private Measure(boolean method, List<String> parameters, Map<String, VarInfo> classVariables) {
+            this.method = method;
+            this.parameters = parameters;
+            this.classVariables = classVariables;
+            this.parameterUses = new int[parameters.size()];
+            this.usingStatics = false;
+        }
+
+        // A field or static the body can reach, null when a parameter shadows it or it is not there
+        private VarInfo resolve(String name) {
+            VarInfo info = classVariables.get(name);
+
+            if (parameters.contains(name) || info == null || (info.getScope() == VarScope.FIELD && !method)) {
+                return null;
+            }
+
+            return info;
+        }
+
+        @Override
+        public Integer visitIntegerConstant(IntegerConstant expression) {
+            return 1;
+        }
+
+        @Override
+        public Integer visitStringConstant(StringConstant expression) {
+            return NOT_INLINABLE;
+        }
+
+        @Override
+        public Integer visitKeywordConstant(KeywordConstant expression) {
+            return expression.getKeyword() != Keyword.THIS || method ? 1 : NOT_INLINABLE;
+        }
+
+        @Override
+        public Integer visitVariableReference(VariableReference expression) {
+            int parameter = parameters.indexOf(expression.getName());
+
+            if (parameter != -1) {
+                parameterUses[parameter]++;
+                return 1;
+            }
+
+            VarInfo info = resolve(expression.getName());
+            if (info == null) {
+                return NOT_INLINABLE;
+            }
+            usingStatics |= info.getScope() == VarScope.STATIC;
+
+            return 1;
+        }
+
+        @Override
+        public Integer visitArrayReference(ArrayReference expression) {
+            return NOT_INLINABLE;
+        }
+
+        @Override
+        public Integer visitSubroutineCall(SubroutineCall expression) {
+            return NOT_INLINABLE;
+        }
+
+        @Override
+        public Integer visitUnaryExpression(UnaryExpression expression) {
+            int operand = expression.getOperand().accept(this);
+
+            return operand == NOT_INLINABLE ? NOT_INLINABLE : operand + 1;
+        }
+
+        @Override
+        public Integer visitBinaryExpression(BinaryExpression expression) {
+            int left = expression.getLeft().accept(this);
+            int right = expression.getRight().accept(this);
+
+            return left == NOT_INLINABLE || right == NOT_INLINABLE ? NOT_INLINABLE : left + right + 1;
+        }
+    }
+}
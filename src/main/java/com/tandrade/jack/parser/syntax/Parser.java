@@ -0,0 +1,650 @@
+package com.tandrade.jack.parser.syntax;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.tandrade.jack.parser.ast.ArrayReference;
+import com.tandrade.jack.parser.ast.BinaryExpression;
+import com.tandrade.jack.parser.ast.ClassNode;
+import com.tandrade.jack.parser.ast.DoStatement;
+import com.tandrade.jack.parser.ast.Expression;
+import com.tandrade.jack.parser.ast.IfStatement;
+import com.tandrade.jack.parser.ast.IntegerConstant;
+import com.tandrade.jack.parser.ast.KeywordConstant;
+import com.tandrade.jack.parser.ast.LetStatement;
+import com.tandrade.jack.parser.ast.ReturnStatement;
+import com.tandrade.jack.parser.ast.Statement;
+import com.tandrade.jack.parser.ast.StringConstant;
+import com.tandrade.jack.parser.ast.SubroutineCall;
+import com.tandrade.jack.parser.ast.SubroutineNode;
+import com.tandrade.jack.parser.ast.UnaryExpression;
+import com.tandrade.jack.parser.ast.VarDecNode;
+import com.tandrade.jack.parser.ast.VariableReference;
+import com.tandrade.jack.parser.ast.WhileStatement;
+import com.tandrade.jack.parser.token.Diagnostic;
+import com.tandrade.jack.parser.token.Keyword;
+import com.tandrade.jack.parser.token.Symbol;
+import com.tandrade.jack.parser.token.SyntaxException;
+import com.tandrade.jack.parser.token.Token;
+import com.tandrade.jack.parser.token.TokenStream;
+import com.tandrade.jack.parser.token.TokenType;
+
+// Recovers from syntax errors in panic mode: an error unwinds to the statement or class member being parsed, tokens
+// are skipped up to a ';', '}' or keyword that can start the next one, and parsing resumes there. Every error is
+// collected and thrown together once the class has been read.
+public class Parser {
+
+    // Thrown to unwind from an error to the place where parsing resumes; carries nothing, so one instance will do
+    private static final Recovery RECOVER = new Recovery();
+
+    private TokenStream tokenizer;
+    private Token lastToken;
+    private List<Diagnostic> diagnostics;
+    // Set from an error until a token matches again, so the errors it causes while skipping are not reported
+    private boolean recovering;
+
+    public Parser(TokenStream tokenizer) {
+        this.tokenizer = tokenizer;
+        this.lastToken = null;
+        this.diagnostics = new ArrayList<>();
+        this.recovering = false;
+    }
+
+    public ClassNode parseClass() {
+        String className = null;
+        List<VarDecNode> classVariables = new ArrayList<>();
+        List<SubroutineNode> subroutines = new ArrayList<>();
+
+        try {
+            consumeToken(Keyword.CLASS);
+            consumeToken(TokenType.IDENTIFIER);
+
+            className = lastToken.getValue();
+
+            consumeToken(Symbol.LEFT_BRACE);
+
+            parseClassMembers(classVariables, subroutines);
+
+            consumeToken(Symbol.RIGHT_BRACE);
+        } catch (SyntaxException e) {
+            // The tokenizer cannot go on past a character it does not know
+            diagnostics.addAll(e.getDiagnostics());
+        } catch (Recovery e) {
+            // Nowhere left to resume
+        }
+
+        if (!diagnostics.isEmpty()) {
+            throw new SyntaxException(diagnostics);
+        }
+
+        return new ClassNode(className, classVariables, subroutines);
+    }
+
+    private void parseClassMembers(List<VarDecNode> classVariables, List<SubroutineNode> subroutines) {
+        while (true) {
+            try {
+                VarDecNode classVariable = subroutines.isEmpty() ? parseClassVarDec() : null;
+
+                if (classVariable != null) {
+                    classVariables.add(classVariable);
+                    continue;
+                }
+
+                SubroutineNode subroutine = parseSubroutine();
+
+                if (subroutine == null) {
+                    return;
+                }
+                subroutines.add(subroutine);
+            } catch (Recovery e) {
+                skipToMember();
+            }
+        }
+    }
+
+    public VarDecNode parseClassVarDec() {
+        if (!testToken(Keyword.STATIC) && !testToken(Keyword.FIELD)) {
+            return null;
+        }
+
+        consumeToken();
+        VarScope scope = lastToken.getKeyword() == Keyword.STATIC ? VarScope.STATIC : VarScope.FIELD;
+
+        parseType();
+        String type = lastToken.getValue();
+
+        List<String> names = new ArrayList<>();
+
+        consumeToken(TokenType.IDENTIFIER);
+        names.add(lastToken.getValue());
+
+        while (testToken(Symbol.COMMA)) {
+            consumeToken();
+            consumeToken(TokenType.IDENTIFIER);
+            names.add(lastToken.getValue());
+        }
+
+        consumeToken(Symbol.SEMICOLON);
+
+        return new VarDecNode(scope, type, names);
+    }
+
+    public SubroutineNode parseSubroutine() {
+        if (!testToken(Keyword.FUNCTION) && !testToken(Keyword.CONSTRUCTOR) && !testToken(Keyword.METHOD)) {
+            return null;
+        }
+
+        consumeToken();
+        Keyword kind = lastToken.getKeyword();
+
+        parseReturnType();
+        String returnType = lastToken.getValue();
+
+        consumeToken(TokenType.IDENTIFIER);
+        String name = lastToken.getValue();
+
+        consumeToken(Symbol.LEFT_PAREN);
+        List<VarDecNode> parameters = parseParameterList();
+        consumeToken(Symbol.RIGHT_PAREN);
+
+        consumeToken(Symbol.LEFT_BRACE);
+
+        List<VarDecNode> locals = new ArrayList<>();
+
+        while (true) {
+            try {
+                VarDecNode local = parseVarDec();
+
+                if (local == null) {
+                    break;
+                }
+                locals.add(local);
+            } catch (Recovery e) {
+                skipToStatement();
+            }
+        }
+
+        List<Statement> statements = parseStatements();
+
+        consumeToken(Symbol.RIGHT_BRACE);
+
+        return new SubroutineNode(kind, returnType, name, parameters, locals, statements);
+    }
+
+    public void parseReturnType() {
+        if (testToken(Keyword.VOID)) {
+            consumeToken();
+            return;
+        }
+
+        parseType();
+    }
+
+    public void parseType() {
+        if (testToken(Keyword.INT) || testToken(Keyword.CHAR) || testToken(Keyword.BOOLEAN)) {
+            consumeToken();
+            return;
+        }
+
+        consumeToken(TokenType.IDENTIFIER);
+    }
+
+    public List<VarDecNode> parseParameterList() {
+        if (testToken(Symbol.RIGHT_PAREN)) {
+            return Collections.emptyList();
+        }
+
+        List<VarDecNode> parameters = new ArrayList<>();
+
+        parseType();
+        String type = lastToken.getValue();
+
+        consumeToken(TokenType.IDENTIFIER);
+        parameters.add(new VarDecNode(VarScope.ARGUMENT, type, Collections.singletonList(lastToken.getValue())));
+
+        while (!testToken(Symbol.RIGHT_PAREN)) {
+            consumeToken(Symbol.COMMA);
+            parseType();
+            type = lastToken.getValue();
+
+            consumeToken(TokenType.IDENTIFIER);
+            parameters.add(new VarDecNode(VarScope.ARGUMENT, type, Collections.singletonList(lastToken.getValue())));
+        }
+
+        return parameters;
+    }
+
+    public VarDecNode parseVarDec() {
+        if (!testToken(Keyword.VAR)) {
+            return null;
+        }
+
+        consumeToken();
+
+        parseType();
+        String type = lastToken.getValue();
+
+        List<String> names = new ArrayList<>();
+
+        consumeToken(TokenType.IDENTIFIER);
+        names.add(lastToken.getValue());
+
+        while (!testToken(Symbol.SEMICOLON)) {
+            consumeToken(Symbol.COMMA);
+            consumeToken(TokenType.IDENTIFIER);
+            names.add(lastToken.getValue());
+        }
+
+        consumeToken(Symbol.SEMICOLON);
+
+        return new VarDecNode(VarScope.LOCAL, type, names);
+    }
+
+    public List<Statement> parseStatements() {
+        List<Statement> statements = new ArrayList<>();
+
+        while (true) {
+            try {
+                Statement statement = parseStatement();
+
+                if (statement == null) {
+                    return statements;
+                }
+                statements.add(statement);
+            } catch (Recovery e) {
+                skipToStatement();
+            }
+        }
+    }
+
+    public Statement parseStatement() {
+        if (!testToken(TokenType.KEYWORD)) {
+            return null;
+        }
+
+        int line = tokenizer.getLine();
+        int column = tokenizer.getColumn();
+        Statement statement;
+
+        switch (currentToken().getKeyword()) {
+            case LET:
+                statement = parseLetStatement();
+                break;
+            case IF:
+                statement = parseIfStatement();
+                break;
+            case WHILE:
+                statement = parseWhileStatement();
+                break;
+            case DO:
+                statement = parseDoStatement();
+                break;
+            case RETURN:
+                statement = parseReturnStatement();
+                break;
+            default:
+                return null;
+        }
+
+        statement.setPosition(line, column);
+
+        return statement;
+    }
+
+    public LetStatement parseLetStatement() {
+        consumeToken(Keyword.LET);
+        consumeToken(TokenType.IDENTIFIER);
+        String name = lastToken.getValue();
+        Expression index = null;
+
+        if (testToken(Symbol.LEFT_BRACKET)) {
+            consumeToken();
+            index = parseExpression();
+            consumeToken(Symbol.RIGHT_BRACKET);
+        }
+
+        consumeToken(Symbol.EQUALS);
+
+        Expression value = parseExpression();
+
+        consumeToken(Symbol.SEMICOLON);
+
+        return new LetStatement(name, index, value);
+    }
+
+    public IfStatement parseIfStatement() {
+        consumeToken(Keyword.IF);
+
+        consumeToken(Symbol.LEFT_PAREN);
+        Expression condition = parseExpression();
+        consumeToken(Symbol.RIGHT_PAREN);
+
+        consumeToken(Symbol.LEFT_BRACE);
+        List<Statement> thenStatements = parseStatements();
+        consumeToken(Symbol.RIGHT_BRACE);
+
+        List<Statement> elseStatements = null;
+
+        if (testToken(Keyword.ELSE)) {
+            consumeToken();
+
+            consumeToken(Symbol.LEFT_BRACE);
+            elseStatements = parseStatements();
+            consumeToken(Symbol.RIGHT_BRACE);
+        }
+
+        return new IfStatement(condition, thenStatements, elseStatements);
+    }
+
+    public WhileStatement parseWhileStatement() {
+        consumeToken(Keyword.WHILE);
+
+        consumeToken(Symbol.LEFT_PAREN);
+        Expression condition = parseExpression();
+        consumeToken(Symbol.RIGHT_PAREN);
+
+        consumeToken(Symbol.LEFT_BRACE);
+        List<Statement> body = parseStatements();
+        consumeToken(Symbol.RIGHT_BRACE);
+
+        return new WhileStatement(condition, body);
+    }
+
+    public DoStatement parseDoStatement() {
+        consumeToken(Keyword.DO);
+
+        int line = tokenizer.getLine();
+        int column = tokenizer.getColumn();
+
+        consumeToken(TokenType.IDENTIFIER);
+        SubroutineCall call = parseSubroutineCall(lastToken.getValue());
+        call.setPosition(line, column);
+
+        consumeToken(Symbol.SEMICOLON);
+
+        return new DoStatement(call);
+    }
+
+    public ReturnStatement parseReturnStatement() {
+        consumeToken(Keyword.RETURN);
+
+        Expression value = null;
+
+        if (!testToken(Symbol.SEMICOLON)) {
+            value = parseExpression();
+        }
+
+        consumeToken(Symbol.SEMICOLON);
+
+        return new ReturnStatement(value);
+    }
+
+    public Expression parseExpression() {
+        Expression expression = parseTerm();
+
+        while (isOp()) {
+            consumeToken();
+            Symbol op = lastToken.getSymbol();
+
+            Expression left = expression;
+
+            expression = new BinaryExpression(op, left, parseTerm());
+            expression.setPosition(left.getLine(), left.getColumn());
+        }
+
+        return expression;
+    }
+
+    public Expression parseTerm() {
+        int line = tokenizer.getLine();
+        int column = tokenizer.getColumn();
+        Expression term = parsePlainTerm();
+
+        // A parenthesized expression keeps the position of what is inside
+        if (term.getLine() == 0) {
+            term.setPosition(line, column);
+        }
+
+        return term;
+    }
+
+    private Expression parsePlainTerm() {
+        Token token = currentToken();
+
+        if (token == null) {
+            throw error("Unexpected end of file");
+        }
+
+        switch (token.getTokenType()) {
+            case INT_CONST:
+                consumeToken();
+                return new IntegerConstant(Integer.parseInt(lastToken.getValue()));
+            case STR_CONST:
+                consumeToken();
+                return new StringConstant(lastToken.getValue());
+            case KEYWORD:
+                switch (token.getKeyword()) {
+                    case TRUE:
+                    case FALSE:
+                    case NULL:
+                    case THIS:
+                        consumeToken();
+                        return new KeywordConstant(lastToken.getKeyword());
+                    default:
+                        throw error("Unexpected token: " + token);
+                }
+            case SYMBOL:
+                switch (token.getSymbol()) {
+                    case LEFT_PAREN: {
+                        consumeToken();
+                        Expression expression = parseExpression();
+                        consumeToken(Symbol.RIGHT_PAREN);
+                        return expression;
+                    }
+                    case MINUS:
+                    case TILDE:
+                        consumeToken();
+                        Symbol op = lastToken.getSymbol();
+                        return new UnaryExpression(op, parseTerm());
+                    default:
+                        throw error("Unexpected token: " + token);
+                }
+            case IDENTIFIER:
+            default: {
+                consumeToken();
+                String name = lastToken.getValue();
+
+                if (testToken(Symbol.LEFT_BRACKET)) {
+                    consumeToken();
+                    Expression index = parseExpression();
+                    consumeToken(Symbol.RIGHT_BRACKET);
+
+                    return new ArrayReference(name, index);
+                }
+                if (testToken(Symbol.DOT) || testToken(Symbol.LEFT_PAREN)) {
+                    return parseSubroutineCall(name);
+                }
+
+                return new VariableReference(name);
+            }
+        }
+    }
+
+    private SubroutineCall parseSubroutineCall(String name) {
+        String target = null;
+
+        if (testToken(Symbol.DOT)) {
+            consumeToken();
+            consumeToken(TokenType.IDENTIFIER);
+
+            target = name;
+            name = lastToken.getValue();
+        }
+
+        consumeToken(Symbol.LEFT_PAREN);
+        List<Expression> arguments = parseExpressionList();
+        consumeToken(Symbol.RIGHT_PAREN);
+
+        return new SubroutineCall(target, name, arguments);
+    }
+
+    private boolean isOp() {
+        if (!testToken(TokenType.SYMBOL)) {
+            return false;
+        }
+
+        switch (currentToken().getSymbol()) {
+            case PLUS:
+            case MINUS:
+            case ASTERISK:
+            case SLASH:
+            case AMPERSAND:
+            case PIPE:
+            case LESS_THAN:
+            case GREATER_THAN:
+            case EQUALS:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public List<Expression> parseExpressionList() {
+        if (testToken(Symbol.RIGHT_PAREN)) {
+            return Collections.emptyList();
+        }
+
+        List<Expression> expressions = new ArrayList<>();
+
+        expressions.add(parseExpression());
+
+        while (testToken(Symbol.COMMA)) {
+            consumeToken();
+            expressions.add(parseExpression());
+        }
+
+        return expressions;
+    }
+
+    // Skips to where the next statement can start: past a ';', or up to a statement keyword or the '}' closing the
+    // enclosing block. Blocks met on the way are skipped whole, and a subroutine keyword means the body never closed.
+    private void skipToStatement() {
+        int depth = 0;
+        Token token;
+
+        while ((token = currentToken()) != null && !isMemberStart(token)) {
+            if (token.getSymbol() == Symbol.LEFT_BRACE) {
+                depth++;
+            } else if (token.getSymbol() == Symbol.RIGHT_BRACE) {
+                if (depth == 0) {
+                    return;
+                }
+                depth--;
+            } else if (depth == 0 && token.getSymbol() == Symbol.SEMICOLON) {
+                tokenizer.advance();
+                return;
+            } else if (depth == 0 && isStatementStart(token)) {
+                return;
+            }
+
+            tokenizer.advance();
+        }
+    }
+
+    private void skipToMember() {
+        Token token;
+
+        while ((token = currentToken()) != null && !isMemberStart(token)) {
+            tokenizer.advance();
+        }
+    }
+
+    private static boolean isStatementStart(Token token) {
+        Keyword keyword = token.getKeyword();
+
+        return keyword == Keyword.LET || keyword == Keyword.IF || keyword == Keyword.WHILE || keyword == Keyword.DO
+                || keyword == Keyword.RETURN;
+    }
+
+    private static boolean isMemberStart(Token token) {
+        Keyword keyword = token.getKeyword();
+
+        return keyword == Keyword.STATIC || keyword == Keyword.FIELD || keyword == Keyword.CONSTRUCTOR
+                || keyword == Keyword.FUNCTION || keyword == Keyword.METHOD;
+    }
+
+    // Records the error at the current token, unless it follows from one not recovered from yet
+    private Recovery error(String message) {
+        if (!recovering) {
+            diagnostics.add(new Diagnostic(tokenizer.getLine(), tokenizer.getColumn(), message));
+            recovering = true;
+        }
+
+        return RECOVER;
+    }
+
+    private Recovery unexpected(Token token, String expected) {
+        return error((token == null ? "Unexpected end of file" : "Unexpected token: " + token) + ", expected " + expected);
+    }
+
+    // Null at the end of the input
+    private Token currentToken() {
+        return tokenizer.hasMoreTokens() ? tokenizer.getCurrentToken() : null;
+    }
+
+    private boolean testToken(TokenType type) {
+        Token token = currentToken();
+
+        return token != null && token.getTokenType() == type;
+    }
+
+    private boolean testToken(Keyword keyword) {
+        Token token = currentToken();
+
+        return token != null && token.getKeyword() == keyword;
+    }
+
+    private boolean testToken(Symbol symbol) {
+        Token token = currentToken();
+
+        return token != null && token.getSymbol() == symbol;
+    }
+
+    private void consumeToken() {
+        lastToken = tokenizer.advance();
+        recovering = false;
+    }
+
+    private void consumeToken(TokenType type) {
+        if (!testToken(type)) {
+            throw unexpected(currentToken(), "<" + type.getElement() + ">");
+        }
+
+        consumeToken();
+    }
+
+    private void consumeToken(Keyword keyword) {
+        if (!testToken(keyword)) {
+            throw unexpected(currentToken(), keyword.getValue());
+        }
+
+        consumeToken();
+    }
+
+    private void consumeToken(Symbol symbol) {
+        if (!testToken(symbol)) {
+            throw unexpected(currentToken(), symbol.getValue());
+        }
+
+        consumeToken();
+    }
+
+    private static class Recovery extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private Recovery() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.tandrade.jack.parser.syntax;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.tandrade.jack.parser.ast.ArrayReference;
+import com.tandrade.jack.parser.ast.BinaryExpression;
+import com.tandrade.jack.parser.ast.ClassNode;
+import com.tandrade.jack.parser.ast.DoStatement;
+import com.tandrade.jack.parser.ast.Expression;
+import com.tandrade.jack.parser.ast.ExpressionVisitor;
+import com.tandrade.jack.parser.ast.IfStatement;
+import com.tandrade.jack.parser.ast.IntegerConstant;
+import com.tandrade.jack.parser.ast.KeywordConstant;
+import com.tandrade.jack.parser.ast.LetStatement;
+import com.tandrade.jack.parser.ast.ReturnStatement;
+import com.tandrade.jack.parser.ast.Statement;
+import com.tandrade.jack.parser.ast.StatementVisitor;
+import com.tandrade.jack.parser.ast.StringConstant;
+import com.tandrade.jack.parser.ast.SubroutineCall;
+import com.tandrade.jack.parser.ast.SubroutineNode;
+import com.tandrade.jack.parser.ast.UnaryExpression;
+import com.tandrade.jack.parser.ast.VarDecNode;
+import com.tandrade.jack.parser.ast.VariableReference;
+import com.tandrade.jack.parser.ast.WhileStatement;
+
+// Finds the string literals of a class that may be disposed or changed, which --pool-strings must not share.
+// A literal escapes when it can reach the receiver of dispose, setCharAt, appendChar or eraseLastChar, or the
+// first argument of String's own versions of them or of Memory.deAlloc, through the class's variables, any array
+// element, and the parameters and return values of the class's own subroutines. What other classes do with a
+// literal handed to them is not followed.
+public class StringEscapes implements StatementVisitor<Void>, ExpressionVisitor<Void> {
+    private static final Set<String> MUTATORS = Set.of("dispose", "setCharAt", "appendChar", "eraseLastChar");
+
+    // Places a value can be stored to: a class variable by its name, a local or parameter as subroutine.name,
+    // what a subroutine returns as subroutine(), and every array element as one place
+    private static final String ELEMENTS = "[]";
+    private static final String DISPOSED = "!";
+
+    private String className;
+    private Map<String, List<String>> parameters;
+    private Map<String, String> classVariables;
+    private SubroutineNode subroutine;
+    private Map<String, String> localVariables;
+    private List<StringConstant> literals;
+    // What each place may be given, whether from another place or a literal
+    private Map<String, List<String>> placeSources;
+    private Map<String, List<StringConstant>> literalSources;
+
+    private StringEscapes(String className) {
+        this.className = className;
+        this.parameters = new HashMap<>();
+        this.classVariables = new HashMap<>();
+        this.subroutine = null;
+        this.localVariables = new HashMap<>();
+        this.literals = new ArrayList<>();
+        this.placeSources = new HashMap<>();
+        this.literalSources = new HashMap<>();
+    }
+
+    // The escaping literals in the order they appear in the class
+    public static List<StringConstant> of(ClassNode node) {
+        StringEscapes escapes = new StringEscapes(node.getName());
+
+        for (VarDecNode declaration : node.getClassVariables()) {
+            for (String name : declaration.getNames()) {
+                escapes.classVariables.put(name, declaration.getType());
+            }
+        }
+        for (SubroutineNode subroutine : node.getSubroutines()) {
+            List<String> names = new ArrayList<>();
+
+            for (VarDecNode declaration : subroutine.getParameters()) {
+                names.addAll(declaration.getNames());
+            }
+            escapes.parameters.put(subroutine.getName(), names);
+        }
+        for (SubroutineNode subroutine : node.getSubroutines()) {
+            escapes.addSubroutine(subroutine);
+        }
+
+        return escapes.getEscaping();
+    }
+
+    private void addSubroutine(SubroutineNode node) {
+        subroutine = node;
+        localVariables.clear();
+
+        for (VarDecNode declaration : node.getParameters()) {
+            for (String name : declaration.getNames()) {
+                localVariables.put(name, declaration.getType());
+            }
+        }
+        for (VarDecNode declaration : node.getLocals()) {
+            for (String name : declaration.getNames()) {
+                localVariables.put(name, declaration.getType());
+            }
+        }
+
+        for (Statement statement : node.getStatements()) {
+            statement.accept(this);
+        }
+    }
+
+    private List<StringConstant> getEscaping() {
+        Set<String> escaping = new HashSet<>();
+        Set<StringConstant> escapingLiterals = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+
+        pending.add(DISPOSED);
+        while (!pending.isEmpty()) {
+            String place = pending.poll();
+
+            if (escaping.add(place)) {
+                pending.addAll(placeSources.getOrDefault(place, Collections.emptyList()));
+                escapingLiterals.addAll(literalSources.getOrDefault(place, Collections.emptyList()));
+            }
+        }
+
+        List<StringConstant> result = new ArrayList<>();
+        for (StringConstant literal : literals) {
+            if (escapingLiterals.contains(literal)) {
+                result.add(literal);
+            }
+        }
+
+        return result;
+    }
+
+    // Records that whatever the value may be can end up in the place
+    private void flow(String place, Expression value) {
+        if (value instanceof StringConstant) {
+            literalSources.computeIfAbsent(place, key -> new ArrayList<>()).add((StringConstant) value);
+        } else if (value instanceof VariableReference) {
+            flowFrom(place, getPlace(((VariableReference) value).getName()));
+        } else if (value instanceof ArrayReference) {
+            flowFrom(place, ELEMENTS);
+        } else if (value instanceof SubroutineCall) {
+            SubroutineCall call = (SubroutineCall) value;
+
+            if (isOwn(call)) {
+                flowFrom(place, call.getName() + "()");
+            }
+        } else if (value instanceof UnaryExpression) {
+            flow(place, ((UnaryExpression) value).getOperand());
+        } else if (value instanceof BinaryExpression) {
+            flow(place, ((BinaryExpression) value).getLeft());
+            flow(place, ((BinaryExpression) value).getRight());
+        }
+    }
+
+    private void flowFrom(String place, String source) {
+        placeSources.computeIfAbsent(place, key -> new ArrayList<>()).add(source);
+    }
+
+    private String getPlace(String name) {
+        return localVariables.containsKey(name) ? subroutine.getName() + "." + name : name;
+    }
+
+    // The variable's type, or null when the name is not a variable, as for a class whose function is called
+    private String getType(String name) {
+        return localVariables.containsKey(name) ? localVariables.get(name) : classVariables.get(name);
+    }
+
+    // A call to one of the class's own subroutines, whether on this, through a variable of the class or by name
+    private boolean isOwn(SubroutineCall call) {
+        if (!parameters.containsKey(call.getName())) {
+            return false;
+        }
+        if (call.getTarget() == null) {
+            return true;
+        }
+
+        String type = getType(call.getTarget());
+
+        return className.equals(type != null ? type : call.getTarget());
+    }
+
+    @Override
+    public Void visitLetStatement(LetStatement statement) {
+        if (statement.getIndex() != null) {
+            statement.getIndex().accept(this);
+        }
+        statement.getValue().accept(this);
+
+        flow(statement.getIndex() == null ? getPlace(statement.getName()) : ELEMENTS, statement.getValue());
+
+        return null;
+    }
+
+    @Override
+    public Void visitIfStatement(IfStatement statement) {
+        statement.getCondition().accept(this);
+        for (Statement thenStatement : statement.getThenStatements()) {
+            thenStatement.accept(this);
+        }
+        if (statement.getElseStatements() != null) {
+            for (Statement elseStatement : statement.getElseStatements()) {
+                elseStatement.accept(this);
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(WhileStatement statement) {
+        statement.getCondition().accept(this);
+        for (Statement bodyStatement : statement.getBody()) {
+            bodyStatement.accept(this);
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitDoStatement(DoStatement statement) {
+        statement.getCall().accept(this);
+
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStatement(ReturnStatement statement) {
+        if (statement.getValue() != null) {
+            statement.getValue().accept(this);
+            flow(subroutine.getName() + "()", statement.getValue());
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitIntegerConstant(IntegerConstant expression) {
+        return null;
+    }
+
+    @Override
+    public Void visitStringConstant(StringConstant expression) {
+        literals.add(expression);
+
+        return null;
+    }
+
+    @Override
+    public Void visitKeywordConstant(KeywordConstant expression) {
+        return null;
+    }
+
+    @Override
+    public Void visitVariableReference(VariableReference expression) {
+        return null;
+    }
+
+    @Override
+    public Void visitArrayReference(ArrayReference expression) {
+        expression.getIndex().accept(this);
+
+        return null;
+    }
+
+    @Override
+    public Void visitSubroutineCall(SubroutineCall expression) {
+        String target = expression.getTarget();
+        List<Expression> arguments = expression.getArguments();
+
+        for (Expression argument : arguments) {
+            argument.accept(this);
+        }
+
+        if (target != null && getType(target) != null) {
+            if (MUTATORS.contains(expression.getName())) {
+                flowFrom(DISPOSED, getPlace(target));
+            }
+        } else if (("String".equals(target) && MUTATORS.contains(expression.getName()))
+                || ("Memory".equals(target) && expression.getName().equals("deAlloc"))) {
+            if (!arguments.isEmpty()) {
+                flow(DISPOSED, arguments.get(0));
+            }
+        }
+
+        if (isOwn(expression)) {
+            List<String> names = parameters.get(expression.getName());
+
+            for (int i = 0; i < Math.min(names.size(), arguments.size()); i++) {
+                flow(expression.getName() + "." + names.get(i), arguments.get(i));
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpression(UnaryExpression expression) {
+        expression.getOperand().accept(this);
+
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpression(BinaryExpression expression) {
+        expression.getLeft().accept(this);
+        expression.getRight().accept(this);
+
+        return null;
+    }
+}
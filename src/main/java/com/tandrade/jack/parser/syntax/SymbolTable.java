@@ -0,0 +1,167 @@
+package com.tandrade.jack.parser.syntax;
+
+import java.util.Arrays;
+
+// Variables of the class being compiled and of its current subroutine in one open-addressing table, so a lookup is
+// a single probe sequence whichever scope the name belongs to. A subroutine's symbols shadow the class's and are
+// taken out again when its scope ends, leaving the storage to be reused by the next one.
+//
+// Names come from the tokenizer's NamePool, so the same identifier is usually the same String, with its hash
+// already cached, and is matched by reference before falling back to equals.
+public class SymbolTable {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_SCOPES = 4;
+
+    private String[] names;
+    private VarInfo[] symbols;
+    private int size;
+    // Every definition still in scope, oldest first, with the symbol it shadowed, so scopes end in reverse order
+    private String[] definedNames;
+    private VarInfo[] definedSymbols;
+    private VarInfo[] shadowedSymbols;
+    private int definitions;
+    private int[] scopeStarts;
+    private int depth;
+    private int[] counts;
+
+    public SymbolTable() {
+        this.names = new String[INITIAL_CAPACITY];
+        this.symbols = new VarInfo[INITIAL_CAPACITY];
+        this.size = 0;
+        this.definedNames = new String[INITIAL_CAPACITY];
+        this.definedSymbols = new VarInfo[INITIAL_CAPACITY];
+        this.shadowedSymbols = new VarInfo[INITIAL_CAPACITY];
+        this.definitions = 0;
+        this.scopeStarts = new int[INITIAL_SCOPES];
+        this.depth = 0;
+        this.counts = new int[VarScope.values().length];
+    }
+
+    // Forgets everything, ready for the fields and statics of a new class
+    public void startClass() {
+        Arrays.fill(names, null);
+        Arrays.fill(symbols, null);
+        Arrays.fill(definedNames, 0, definitions, null);
+        Arrays.fill(definedSymbols, 0, definitions, null);
+        Arrays.fill(shadowedSymbols, 0, definitions, null);
+        Arrays.fill(counts, 0);
+        size = 0;
+        definitions = 0;
+        depth = 0;
+    }
+
+    // Opens the scope of a subroutine, whose arguments and locals are numbered from 0 again
+    public void startSubroutine() {
+        counts[VarScope.ARGUMENT.ordinal()] = 0;
+        counts[VarScope.LOCAL.ordinal()] = 0;
+        startScope();
+    }
+
+    public void startScope() {
+        if (depth == scopeStarts.length) {
+            scopeStarts = Arrays.copyOf(scopeStarts, depth * 2);
+        }
+        scopeStarts[depth++] = definitions;
+    }
+
+    public void endScope() {
+        if (depth == 0) {
+            throw new IllegalStateException("No scope to end");
+        }
+
+        int start = scopeStarts[--depth];
+
+        while (definitions > start) {
+            definitions--;
+
+            int slot = find(definedNames[definitions]);
+            if (shadowedSymbols[definitions] != null) {
+                symbols[slot] = shadowedSymbols[definitions];
+            } else {
+                // Only definitions made after this one could have probed past its slot, and those are gone already
+                names[slot] = null;
+                symbols[slot] = null;
+                size--;
+            }
+
+            definedNames[definitions] = null;
+            definedSymbols[definitions] = null;
+            shadowedSymbols[definitions] = null;
+        }
+    }
+
+    // Gives the name the next index of its scope, shadowing any symbol of the same name until the scope ends
+    public VarInfo define(String name, String type, VarScope scope) {
+        VarInfo info = new VarInfo(type, scope, counts[scope.ordinal()]++);
+        int slot = find(name);
+
+        if (definitions == definedNames.length) {
+            definedNames = Arrays.copyOf(definedNames, definitions * 2);
+            definedSymbols = Arrays.copyOf(definedSymbols, definitions * 2);
+            shadowedSymbols = Arrays.copyOf(shadowedSymbols, definitions * 2);
+        }
+        definedNames[definitions] = name;
+        definedSymbols[definitions] = info;
+        shadowedSymbols[definitions] = symbols[slot];
+        definitions++;
+
+        if (names[slot] == null) {
+            names[slot] = name;
+            size++;
+        }
+        symbols[slot] = info;
+
+        if (size * 2 > names.length) {
+            rehash();
+        }
+
+        return info;
+    }
+
+    public VarInfo lookup(String name) {
+        return symbols[find(name)];
+    }
+
+    // How many symbols of the scope have been defined, which is the next index it will give out
+    public int getCount(VarScope scope) {
+        return counts[scope.ordinal()];
+    }
+
+    // The slot holding the name, or the empty slot where it would go
+    private int find(String name) {
+        int mask = names.length - 1;
+        int slot = hash(name) & mask;
+
+        for (String key = names[slot]; key != null; key = names[slot]) {
+            if (key == name || key.equals(name)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    // Replays the definitions in order, so every symbol lands where the scope rules above expect it
+    private void rehash() {
+        names = new String[names.length * 2];
+        symbols = new VarInfo[symbols.length * 2];
+        size = 0;
+
+        for (int i = 0; i < definitions; i++) {
+            int slot = find(definedNames[i]);
+
+            if (names[slot] == null) {
+                names[slot] = definedNames[i];
+                size++;
+            }
+            symbols[slot] = definedSymbols[i];
+        }
+    }
+
+    private static int hash(String name) {
+        int hash = name.hashCode();
+
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,19 +1,21 @@
 package com.tandrade.jack.parser.syntax;
 
+import com.tandrade.jack.vm.Segment;
+
 public enum VarScope {
     
-    FIELD("this"),
-    STATIC("static"),
-    ARGUMENT("argument"),
-    LOCAL("local");
+    FIELD(Segment.THIS),
+    STATIC(Segment.STATIC),
+    ARGUMENT(Segment.ARGUMENT),
+    LOCAL(Segment.LOCAL);
 
-    private String segment;
+    private Segment segment;
 
-    private VarScope(String segment) {
+    private VarScope(Segment segment) {
         this.segment = segment;
     }
 
-    public String getSegment() {
+    public Segment getSegment() {
         return segment;
     }
 }
@@ -0,0 +1,41 @@
+package com.tandrade.jack.parser.token;
+
+import java.nio.ByteBuffer;
+
+class ByteSlice implements CharSequence {
+
+    private ByteBuffer bytes;
+    private int offset;
+    private int length;
+
+    ByteSlice(ByteBuffer bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        // Tokenizer.CHARSET maps each byte to the char with the same value
+        return (char) (bytes.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new ByteSlice(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        byte[] text = new byte[length];
+
+        bytes.get(offset, text);
+
+        return new String(text, Tokenizer.CHARSET);
+    }
+}
@@ -0,0 +1,32 @@
+package com.tandrade.jack.parser.token;
+
+// An error found in the source, at the line and column where the offending token starts, both counted from 1
+public class Diagnostic {
+
+    private int line;
+    private int column;
+    private String message;
+
+    public Diagnostic(int line, int column, String message) {
+        this.line = line;
+        this.column = column;
+        this.message = message;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return line + ":" + column + ": " + message;
+    }
+}
@@ -0,0 +1,41 @@
+package com.tandrade.jack.parser.token;
+
+public enum Keyword {
+    CLASS("class"),
+    CONSTRUCTOR("constructor"),
+    FUNCTION("function"),
+    METHOD("method"),
+    FIELD("field"),
+    STATIC("static"),
+    VAR("var"),
+    INT("int"),
+    CHAR("char"),
+    BOOLEAN("boolean"),
+    VOID("void"),
+    TRUE("true"),
+    FALSE("false"),
+    NULL("null"),
+    THIS("this"),
+    LET("let"),
+    DO("do"),
+    IF("if"),
+    ELSE("else"),
+    WHILE("while"),
+    RETURN("return");
+
+    private String value;
+    private Token token;
+
+    private Keyword(String value) {
+        this.value = value;
+        this.token = new Token(this);
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Token getToken() {
+        return token;
+    }
+}
@@ -0,0 +1,55 @@
+package com.tandrade.jack.parser.token;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class MappedSource implements SourceBuffer {
+
+    private ByteBuffer bytes;
+    private int limit;
+    private int pos;
+
+    MappedSource(Path path) throws IOException {
+        this(map(path));
+    }
+
+    MappedSource(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.limit = bytes.limit();
+        this.pos = 0;
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public boolean available(int offset) {
+        return pos + offset < limit;
+    }
+
+    @Override
+    public char charAt(int offset) {
+        return (char) (bytes.get(pos + offset) & 0xFF);
+    }
+
+    @Override
+    public void skip(int count) {
+        pos += count;
+    }
+
+    @Override
+    public CharSequence text(int offset, int length) {
+        return new ByteSlice(bytes, pos + offset, length);
+    }
+
+    @Override
+    public void close() {
+        pos = limit;
+    }
+}
@@ -0,0 +1,103 @@
+package com.tandrade.jack.parser.token;
+
+import java.util.Arrays;
+
+public class NamePool {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private Token[] table;
+    private int size;
+
+    public NamePool() {
+        this.table = new Token[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    Token intern(TokenType type, SourceBuffer source, int length) {
+        int hash = hash(type, source, length);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+
+        for (Token token = table[slot]; token != null; token = table[slot]) {
+            if (token.getTokenType() == type && matches(token.getValue(), source, length)) {
+                return token;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        Token token = new Token(type, source.text(0, length).toString(), size);
+        table[slot] = token;
+        size++;
+
+        if (size * 2 > table.length) {
+            rehash();
+        }
+
+        return token;
+    }
+
+    private void rehash() {
+        Token[] old = table;
+        table = new Token[old.length * 2];
+        int mask = table.length - 1;
+
+        for (Token token : old) {
+            if (token == null) {
+                continue;
+            }
+
+            int slot = hash(token.getTokenType(), token.getValue()) & mask;
+            while (table[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = token;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(table, null);
+        size = 0;
+    }
+
+    private static boolean matches(String value, SourceBuffer source, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != source.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int hash(TokenType type, SourceBuffer source, int length) {
+        int hash = type.ordinal();
+
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+
+        return mix(hash);
+    }
+
+    private static int hash(TokenType type, String value) {
+        int hash = type.ordinal();
+
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+
+        return mix(hash);
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,177 @@
+package com.tandrade.jack.parser.token;
+
+import java.io.Closeable;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs a tokenizer on a thread of its own while the parser reads its tokens, so a big class is scanned and parsed
+// at the same time on two cores.
+//
+// Tokens go through a single-producer single-consumer ring with their line and column. Each side keeps its own
+// index and only publishes it every BATCH tokens, or before it has to wait, so the threads meet on shared state
+// once per batch instead of once per token. The input ends with a record without a token, carrying where the
+// input ended and, if the tokenizer gave up, why.
+public class PipelinedTokenStream implements TokenStream, Closeable {
+    private static final int CAPACITY = 4096;
+    private static final int BATCH = 64;
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+    private static final long PARK_NANOS = 20_000;
+
+    private Tokenizer tokenizer;
+    private Token[] tokens;
+    // Line and column of each record, packed one after the other
+    private int[] positions;
+    private RuntimeException failure;
+    // Records written by the lexer, and records the parser has moved past
+    private AtomicLong published;
+    private AtomicLong consumed;
+    private volatile boolean closed;
+    // Only touched by the parser: the current record and how far it knows the ring to be filled
+    private long read;
+    private long readable;
+    // Only touched by the lexer: the next record and how far it knows the ring to be free
+    private long written;
+    private long writable;
+
+    public PipelinedTokenStream(Tokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+        this.tokens = new Token[CAPACITY];
+        this.positions = new int[CAPACITY * 2];
+        this.failure = null;
+        this.published = new AtomicLong();
+        this.consumed = new AtomicLong();
+        this.closed = false;
+        this.read = 0;
+        this.readable = 0;
+        this.written = 0;
+        this.writable = CAPACITY;
+
+        Thread lexer = new Thread(this::scan, "jack-lexer");
+        lexer.setDaemon(true);
+        lexer.start();
+    }
+
+    private void scan() {
+        try {
+            while (tokenizer.hasMoreTokens()) {
+                int line = tokenizer.getLine();
+                int column = tokenizer.getColumn();
+
+                if (!write(tokenizer.advance(), line, column)) {
+                    return;
+                }
+            }
+            write(null, tokenizer.getLine(), tokenizer.getColumn());
+        } catch (RuntimeException e) {
+            failure = e;
+            write(null, tokenizer.getLine(), tokenizer.getColumn());
+        } finally {
+            tokenizer.close();
+        }
+    }
+
+    // Returns false when the parser has stopped reading
+    private boolean write(Token token, int line, int column) {
+        if (written == writable) {
+            published.lazySet(written);
+
+            for (int attempt = 0; written == writable; attempt++) {
+                if (closed) {
+                    return false;
+                }
+                pause(attempt);
+                writable = consumed.get() + CAPACITY;
+            }
+        }
+
+        int slot = (int) written & (CAPACITY - 1);
+        tokens[slot] = token;
+        positions[slot * 2] = line;
+        positions[slot * 2 + 1] = column;
+        written++;
+
+        if (token == null || (written & (BATCH - 1)) == 0) {
+            published.lazySet(written);
+            return !closed;
+        }
+
+        return true;
+    }
+
+    // Waits for the current record to be written
+    private int slot() {
+        if (read == readable) {
+            consumed.lazySet(read);
+
+            for (int attempt = 0; read == readable; attempt++) {
+                if (attempt > 0) {
+                    pause(attempt);
+                }
+                readable = published.get();
+            }
+        }
+
+        return (int) read & (CAPACITY - 1);
+    }
+
+    private static void pause(int attempt) {
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else if (attempt < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    @Override
+    public boolean hasMoreTokens() {
+        return tokens[slot()] != null;
+    }
+
+    @Override
+    public Token getCurrentToken() {
+        Token token = tokens[slot()];
+
+        if (token == null) {
+            throw new NoSuchElementException();
+        }
+
+        return token;
+    }
+
+    // Fails as Tokenizer would if the next token could not be scanned
+    @Override
+    public Token advance() {
+        Token token = getCurrentToken();
+
+        read++;
+        if ((read & (BATCH - 1)) == 0) {
+            consumed.lazySet(read);
+        }
+
+        if (tokens[slot()] == null && failure != null) {
+            throw failure;
+        }
+
+        return token;
+    }
+
+    @Override
+    public int getLine() {
+        return positions[slot() * 2];
+    }
+
+    @Override
+    public int getColumn() {
+        return positions[slot() * 2 + 1];
+    }
+
+    // Stops the lexer if the parser gave up before the end of the input
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,97 @@
+package com.tandrade.jack.parser.token;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+class ReaderSource implements SourceBuffer {
+    private static final int BUFFER_SIZE = 8192;
+
+    private Reader reader;
+    private char[] buf;
+    private int limit;
+    private int pos;
+
+    ReaderSource(Reader reader) {
+        this.reader = reader;
+        this.buf = new char[BUFFER_SIZE];
+        this.limit = 0;
+        this.pos = 0;
+    }
+
+    // Reads another source into the same window, once the previous one is closed
+    void reset(Reader reader) {
+        this.reader = reader;
+        this.limit = 0;
+        this.pos = 0;
+    }
+
+    @Override
+    public boolean available(int offset) {
+        return pos + offset < limit || fill(offset);
+    }
+
+    private boolean fill(int offset) {
+        if (reader == null) {
+            return false;
+        }
+
+        // Keep the token being scanned, growing the window only when a single token outgrows it
+        System.arraycopy(buf, pos, buf, 0, limit - pos);
+        limit -= pos;
+        pos = 0;
+
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+
+        try {
+            while (limit <= offset) {
+                int read = reader.read(buf, limit, buf.length - limit);
+
+                if (read == -1) {
+                    close();
+                    return false;
+                }
+
+                limit += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return true;
+    }
+
+    @Override
+    public char charAt(int offset) {
+        return buf[pos + offset];
+    }
+
+    @Override
+    public void skip(int count) {
+        pos += count;
+    }
+
+    @Override
+    public CharSequence text(int offset, int length) {
+        // The window is reused, so the text has to be copied out right away
+        return new String(buf, pos + offset, length);
+    }
+
+    @Override
+    public void close() {
+        if (reader == null) {
+            return;
+        }
+
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            reader = null;
+        }
+    }
+}
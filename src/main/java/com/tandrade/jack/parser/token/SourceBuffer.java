@@ -0,0 +1,17 @@
+package com.tandrade.jack.parser.token;
+
+import java.io.Closeable;
+
+interface SourceBuffer extends Closeable {
+
+    boolean available(int offset);
+
+    char charAt(int offset);
+
+    void skip(int count);
+
+    CharSequence text(int offset, int length);
+
+    @Override
+    void close();
+}
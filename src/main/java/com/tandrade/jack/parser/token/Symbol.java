@@ -0,0 +1,57 @@
+package com.tandrade.jack.parser.token;
+
+public enum Symbol {
+    LEFT_BRACE('{'),
+    RIGHT_BRACE('}'),
+    LEFT_PAREN('('),
+    RIGHT_PAREN(')'),
+    LEFT_BRACKET('['),
+    RIGHT_BRACKET(']'),
+    DOT('.'),
+    COMMA(','),
+    SEMICOLON(';'),
+    PLUS('+'),
+    MINUS('-'),
+    ASTERISK('*'),
+    SLASH('/'),
+    AMPERSAND('&'),
+    PIPE('|'),
+    LESS_THAN('<'),
+    GREATER_THAN('>'),
+    EQUALS('='),
+    TILDE('~');
+
+    private static final Symbol[] BY_CHAR = new Symbol[128];
+
+    static {
+        for (Symbol symbol : values()) {
+            BY_CHAR[symbol.character] = symbol;
+        }
+    }
+
+    private char character;
+    private String value;
+    private Token token;
+
+    private Symbol(char character) {
+        this.character = character;
+        this.value = String.valueOf(character);
+        this.token = new Token(this);
+    }
+
+    public char getCharacter() {
+        return character;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Token getToken() {
+        return token;
+    }
+
+    public static Symbol of(char character) {
+        return character < BY_CHAR.length ? BY_CHAR[character] : null;
+    }
+}
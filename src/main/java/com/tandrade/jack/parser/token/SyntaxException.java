@@ -0,0 +1,25 @@
+package com.tandrade.jack.parser.token;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Every error found in a file before giving up on it, in source order
+public class SyntaxException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private List<Diagnostic> diagnostics;
+
+    public SyntaxException(Diagnostic diagnostic) {
+        this(Collections.singletonList(diagnostic));
+    }
+
+    public SyntaxException(List<Diagnostic> diagnostics) {
+        super(diagnostics.stream().map(Diagnostic::toString).collect(Collectors.joining(System.lineSeparator())));
+        this.diagnostics = diagnostics;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+}
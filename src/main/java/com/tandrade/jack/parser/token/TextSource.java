@@ -0,0 +1,40 @@
+package com.tandrade.jack.parser.token;
+
+class TextSource implements SourceBuffer {
+
+    private CharSequence text;
+    private int limit;
+    private int pos;
+
+    TextSource(CharSequence text) {
+        this.text = text;
+        this.limit = text.length();
+        this.pos = 0;
+    }
+
+    @Override
+    public boolean available(int offset) {
+        return pos + offset < limit;
+    }
+
+    @Override
+    public char charAt(int offset) {
+        return text.charAt(pos + offset);
+    }
+
+    @Override
+    public void skip(int count) {
+        pos += count;
+    }
+
+    @Override
+    public CharSequence text(int offset, int length) {
+        // Copied, as the caller may change the text once it has been compiled
+        return text.subSequence(pos + offset, pos + offset + length).toString();
+    }
+
+    @Override
+    public void close() {
+        pos = limit;
+    }
+}
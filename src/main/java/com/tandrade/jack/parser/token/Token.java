@@ -3,10 +3,38 @@ package com.tandrade.jack.parser.token;
 public class Token {
     private TokenType type;
     private String value;
+    private CharSequence text;
+    private Keyword keyword;
+    private Symbol symbol;
+    private int id;
 
     public Token(TokenType type, String value) {
         this.type = type;
         this.value = value;
+        this.text = value;
+        this.id = -1;
+    }
+
+    Token(TokenType type, CharSequence text) {
+        this.type = type;
+        this.value = null;
+        this.text = text;
+        this.id = -1;
+    }
+
+    Token(TokenType type, String value, int id) {
+        this(type, value);
+        this.id = id;
+    }
+
+    Token(Keyword keyword) {
+        this(TokenType.KEYWORD, keyword.getValue());
+        this.keyword = keyword;
+    }
+
+    Token(Symbol symbol) {
+        this(TokenType.SYMBOL, symbol.getValue());
+        this.symbol = symbol;
     }
 
     public TokenType getTokenType() {
@@ -14,11 +42,28 @@ public class Token {
     }
 
     public String getValue() {
+        if (value == null) {
+            value = text.toString();
+            text = value;
+        }
+
         return value;
     }
 
+    public Keyword getKeyword() {
+        return keyword;
+    }
+
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+    public int getId() {
+        return id;
+    }
+
     @Override
     public String toString() {
-        return "<" + type.getElement() + "> " + value + " </" + type.getElement() + ">";
+        return "<" + type.getElement() + "> " + getValue() + " </" + type.getElement() + ">";
     }
 }
@@ -0,0 +1,100 @@
+package com.tandrade.jack.parser.token;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Tokens scanned ahead of time, replayed in order
+public class TokenList implements TokenStream {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private List<Token> tokens;
+    // Line and column of each token, packed one after the other
+    private int[] positions;
+    private int position;
+
+    public TokenList() {
+        this.tokens = new ArrayList<>();
+        this.positions = new int[INITIAL_CAPACITY * 2];
+        this.position = 0;
+    }
+
+    public static TokenList scan(TokenStream source) {
+        TokenList list = new TokenList();
+
+        while (source.hasMoreTokens()) {
+            int line = source.getLine();
+            int column = source.getColumn();
+
+            list.add(source.advance(), line, column);
+        }
+        list.end(source.getLine(), source.getColumn());
+
+        return list;
+    }
+
+    public void add(Token token) {
+        add(token, 0, 0);
+    }
+
+    public void add(Token token, int line, int column) {
+        setPosition(tokens.size(), line, column);
+        tokens.add(token);
+    }
+
+    // Where the input ended, reported once every token has been replayed
+    public void end(int line, int column) {
+        setPosition(tokens.size(), line, column);
+    }
+
+    private void setPosition(int index, int line, int column) {
+        if (index * 2 + 1 >= positions.length) {
+            positions = Arrays.copyOf(positions, positions.length * 2);
+        }
+        positions[index * 2] = line;
+        positions[index * 2 + 1] = column;
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    public Token get(int index) {
+        return tokens.get(index);
+    }
+
+    @Override
+    public boolean hasMoreTokens() {
+        return position < tokens.size();
+    }
+
+    @Override
+    public Token getCurrentToken() {
+        if (position >= tokens.size()) {
+            throw new NoSuchElementException();
+        }
+
+        return tokens.get(position);
+    }
+
+    @Override
+    public Token advance() {
+        Token token = getCurrentToken();
+
+        position++;
+
+        return token;
+    }
+
+    @Override
+    public int getLine() {
+        return position * 2 < positions.length ? positions[position * 2] : 0;
+    }
+
+    @Override
+    public int getColumn() {
+        return position * 2 < positions.length ? positions[position * 2 + 1] : 0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.tandrade.jack.parser.token;
+
+public interface TokenStream {
+
+    boolean hasMoreTokens();
+
+    Token getCurrentToken();
+
+    Token advance();
+
+    // Where the current token starts, counting lines and columns from 1
+    int getLine();
+
+    int getColumn();
+}
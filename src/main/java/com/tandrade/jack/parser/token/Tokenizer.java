@@ -1,115 +1,430 @@
 package com.tandrade.jack.parser.token;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Queue;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-
-public class Tokenizer {
-    private static final String keywordRegex = "(class|constructor|function|method|field|static|var|int|char|boolean|void|true|false|null|this|let|do|if|else|while|return)\\b";
-    private static final String symbolRegex = "([{}()\\[\\].,;+\\-*/&|<>=~])";
-    private static final String constantRegex = "(3276[0-7]|327[0-5]\\d|32[0-6]\\d{2}|3[01]\\d{3}|[12]\\d{4}|\\d{1,4})";
-    private static final String stringRegex = "\"([^\"\n\r]*)\"";
-    private static final String identifierRegex = "([a-zA-Z_]\\w*)\\b";
-
-    private static final List<TokenInfo> tokenInfos = Arrays.asList(
-        new TokenInfo(TokenType.KEYWORD, keywordRegex),
-        new TokenInfo(TokenType.SYMBOL, symbolRegex),
-        new TokenInfo(TokenType.INT_CONST, constantRegex),
-        new TokenInfo(TokenType.STR_CONST, stringRegex),
-        new TokenInfo(TokenType.IDENTIFIER, identifierRegex)
-    );
-
-    private Queue<Token> tokens;
+import java.util.NoSuchElementException;
+
+import com.tandrade.jack.stats.FileStats;
+import com.tandrade.jack.stats.Phase;
+import com.tandrade.jack.stats.StatsReport;
+
+public class Tokenizer implements TokenStream, Closeable {
+    // Source is read a byte per char whichever way it is read, so mapped, buffered and file reader input agree on
+    // bytes outside ASCII however the platform is set up
+    public static final Charset CHARSET = StandardCharsets.ISO_8859_1;
+
+    private static final Keyword[][] KEYWORDS_BY_INITIAL = new Keyword[128][0];
+
+    static {
+        for (Keyword keyword : Keyword.values()) {
+            char initial = keyword.getValue().charAt(0);
+            Keyword[] group = Arrays.copyOf(KEYWORDS_BY_INITIAL[initial], KEYWORDS_BY_INITIAL[initial].length + 1);
+
+            group[group.length - 1] = keyword;
+            KEYWORDS_BY_INITIAL[initial] = group;
+        }
+    }
+
+    private SourceBuffer source;
+    private NamePool names;
+    private Token currentToken;
+    // Where scanning is, and where the current token starts; lines are only counted while skipping whitespace and
+    // comments, and no token spans a line, so line and lineStart still hold for the current token once it is scanned
+    private int offset;
+    private int line;
+    private int lineStart;
+    private int tokenStart;
 
     public Tokenizer(File input) throws IOException {
-        BufferedReader buf = new BufferedReader(new FileReader(input));
-        tokens = new ArrayDeque<>();
-        
-        String line;
-        boolean insideBlockComment = false;
+        this(input, false);
+    }
 
-        while ((line = buf.readLine()) != null) {
-            line = line.trim();
+    public Tokenizer(File input, boolean mapped) throws IOException {
+        this(input, mapped, new NamePool());
+    }
 
-            while (!line.isEmpty()) {
-                Matcher m;
+    public Tokenizer(File input, boolean mapped, NamePool names) throws IOException {
+        this(mapped ? new MappedSource(input.toPath()) : new ReaderSource(new FileReader(input, CHARSET)), names);
+    }
 
-                if (line.startsWith("/*")) {
-                    insideBlockComment = true;
-                }
-                if (insideBlockComment) {
-                    int endOfBlock = line.indexOf("*/");
+    // Scans ASCII source that is already in memory, from the buffer's position to its limit. String constants
+    // are read from the buffer when used, so it must not change while the tokens are
+    public Tokenizer(ByteBuffer bytes, NamePool names) {
+        this(new MappedSource(bytes.slice()), names);
+    }
 
-                    if (endOfBlock == -1) {
-                        break;
-                    }
+    public Tokenizer(CharSequence text, NamePool names) {
+        this(new TextSource(text), names);
+    }
 
-                    line = line.substring(endOfBlock + 2).trim();
-                    insideBlockComment = false;
-                    continue;
-                }
-                if (line.startsWith("//")) {
-                    break;
-                }
+    // Reads the source as it scans, closing the reader at its end
+    public Tokenizer(Reader reader, NamePool names) {
+        this(new ReaderSource(reader), names);
+    }
 
-                boolean matched = false;
+    private Tokenizer(SourceBuffer source, NamePool names) {
+        this.names = names;
+        start(source);
+    }
 
-                for (TokenInfo info : tokenInfos) {
-                    m = info.pattern.matcher(line);
+    // Starts over on other source, keeping the name pool and, for a reader, the window it is read through
+    public void reset(ByteBuffer bytes) {
+        close();
+        start(new MappedSource(bytes.slice()));
+    }
 
-                    if (m.find()) {
-                        tokens.add(new Token(info.type, m.group(1)));
+    public void reset(CharSequence text) {
+        close();
+        start(new TextSource(text));
+    }
 
-                        // TODO: Maybe work with index instead of recreating Strings
-                        line = m.replaceFirst("");
-                        matched = true;
-                        break;
+    public void reset(Reader reader) {
+        close();
+        if (source instanceof ReaderSource) {
+            ((ReaderSource) source).reset(reader);
+            start(source);
+        } else {
+            start(new ReaderSource(reader));
+        }
+    }
+
+    private void start(SourceBuffer source) {
+        this.source = source;
+        this.currentToken = null;
+        this.offset = 0;
+        this.line = 1;
+        this.lineStart = 0;
+        this.tokenStart = 0;
+
+        try {
+            this.currentToken = scanToken();
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private Token scanToken() {
+        while (source.available(0)) {
+            char c = source.charAt(0);
+
+            switch (c) {
+                case '/':
+                    if (source.available(1) && source.charAt(1) == '/') {
+                        skipLineComment();
+                        continue;
+                    }
+                    if (source.available(1) && source.charAt(1) == '*') {
+                        skipBlockComment();
+                        continue;
+                    }
+                    return scanSymbol(c);
+                case '{':
+                case '}':
+                case '(':
+                case ')':
+                case '[':
+                case ']':
+                case '.':
+                case ',':
+                case ';':
+                case '+':
+                case '-':
+                case '*':
+                case '&':
+                case '|':
+                case '<':
+                case '>':
+                case '=':
+                case '~':
+                    return scanSymbol(c);
+                case '"':
+                    markToken();
+                    return scanString();
+                case '0':
+                case '1':
+                case '2':
+                case '3':
+                case '4':
+                case '5':
+                case '6':
+                case '7':
+                case '8':
+                case '9':
+                    markToken();
+                    return scanIntConstant();
+                default:
+                    if (c <= ' ') {
+                        skipWhitespace();
+                        continue;
+                    }
+                    if (isIdentifierStart(c)) {
+                        markToken();
+                        return scanIdentifier();
                     }
-                }
 
-                if (!matched) {
-                    buf.close();
-                    throw new IllegalArgumentException("Unknown char: " + line);
-                }
+                    markToken();
+                    throw unknownChar();
+            }
+        }
+
+        markToken();
+        return null;
+    }
+
+    private Token scanSymbol(char c) {
+        markToken();
+        skip(1);
+
+        return Symbol.of(c).getToken();
+    }
+
+    private void markToken() {
+        tokenStart = offset;
+    }
+
+    // Called on the newline character, before skipping it
+    private void newLine() {
+        line++;
+        lineStart = offset + 1;
+    }
+
+    private void skip(int count) {
+        source.skip(count);
+        offset += count;
+    }
+
+    // The whole run at once, so the offset moves once however much indentation there is
+    private void skipWhitespace() {
+        int length = 0;
+
+        do {
+            if (source.charAt(length) == '\n') {
+                line++;
+                lineStart = offset + length + 1;
+            }
+            length++;
+        } while (source.available(length) && source.charAt(length) <= ' ');
+
+        skip(length);
+    }
+
+    private void skipLineComment() {
+        skip(2);
+
+        while (source.available(0) && source.charAt(0) != '\n' && source.charAt(0) != '\r') {
+            skip(1);
+        }
+    }
 
-                line = line.trim();
+    private void skipBlockComment() {
+        skip(2);
+
+        while (source.available(0)) {
+            if (source.charAt(0) == '*' && source.available(1) && source.charAt(1) == '/') {
+                skip(2);
+                return;
+            }
+            if (source.charAt(0) == '\n') {
+                newLine();
             }
+            skip(1);
         }
+    }
+
+    private Token scanString() {
+        int length = 0;
 
-        buf.close();
+        while (source.available(length + 1) && source.charAt(length + 1) != '"') {
+            if (source.charAt(length + 1) == '\n' || source.charAt(length + 1) == '\r') {
+                throw unknownChar();
+            }
+            length++;
+        }
+        if (!source.available(length + 1)) {
+            throw unknownChar();
+        }
+
+        Token token = new Token(TokenType.STR_CONST, source.text(1, length));
+        skip(length + 2);
+
+        return token;
     }
 
+    private Token scanIntConstant() {
+        int length = 0;
+
+        while (length < 5 && source.available(length) && isDigit(source.charAt(length))) {
+            length++;
+        }
+
+        // Constants are limited to 0..32767; longer digit runs are split like the original regex did
+        if (length == 5 && (source.charAt(0) == '0' || parseInt(length) > 32767)) {
+            length--;
+        }
+
+        Token token = names.intern(TokenType.INT_CONST, source, length);
+        skip(length);
+
+        return token;
+    }
+
+    private Token scanIdentifier() {
+        int length = 1;
+
+        while (source.available(length) && isIdentifierPart(source.charAt(length))) {
+            length++;
+        }
+
+        Keyword keyword = keyword(length);
+        Token token = keyword != null ? keyword.getToken() : names.intern(TokenType.IDENTIFIER, source, length);
+        skip(length);
+
+        return token;
+    }
+
+    private Keyword keyword(int length) {
+        char initial = source.charAt(0);
+
+        if (initial >= KEYWORDS_BY_INITIAL.length) {
+            return null;
+        }
+
+        for (Keyword keyword : KEYWORDS_BY_INITIAL[initial]) {
+            if (keyword.getValue().length() == length && matches(keyword.getValue())) {
+                return keyword;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean matches(String value) {
+        for (int i = 1; i < value.length(); i++) {
+            if (source.charAt(i) != value.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int parseInt(int length) {
+        int value = 0;
+
+        for (int i = 0; i < length; i++) {
+            value = value * 10 + (source.charAt(i) - '0');
+        }
+
+        return value;
+    }
+
+    private SyntaxException unknownChar() {
+        int length = 0;
+
+        while (source.available(length) && source.charAt(length) != '\n' && source.charAt(length) != '\r') {
+            length++;
+        }
+
+        String line = source.text(0, length).toString();
+        close();
+
+        return new SyntaxException(new Diagnostic(getLine(), getColumn(), "Unknown char: " + line.trim()));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || isDigit(c);
+    }
+
+    @Override
     public boolean hasMoreTokens() {
-        return !tokens.isEmpty();
+        return currentToken != null;
     }
 
+    @Override
     public Token getCurrentToken() {
-        return tokens.element();
+        if (currentToken == null) {
+            throw new NoSuchElementException();
+        }
+
+        return currentToken;
     }
 
+    @Override
     public Token advance() {
-        return tokens.remove();
+        Token token = getCurrentToken();
+
+        currentToken = scanToken();
+
+        return token;
+    }
+
+    // Position of the current token, or of the end of the input once there are no more
+    @Override
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public int getColumn() {
+        return tokenStart - lineStart + 1;
+    }
+
+    @Override
+    public void close() {
+        source.close();
     }
 
     public static void main(String[] args) throws IOException {
-        if (args.length != 1) {
-            System.err.println("Usage: Tokenizer <file|directory>");
+        boolean mapped = false;
+        boolean stats = false;
+        Path statsJson = null;
+        File inputFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--mmap")) {
+                mapped = true;
+            } else if (args[i].equals("--stats")) {
+                stats = true;
+            } else if (args[i].equals("--stats-json") && i + 1 < args.length) {
+                stats = true;
+                statsJson = Paths.get(args[++i]);
+            } else if (!args[i].startsWith("-") && inputFile == null) {
+                inputFile = new File(args[i]);
+            } else {
+                inputFile = null;
+                break;
+            }
+        }
+
+        if (inputFile == null) {
+            System.err.println("Usage: Tokenizer [--mmap] [--stats] [--stats-json <file>] <file|directory>");
             return;
         }
-        
-        File inputFile = new File(args[0]);
+
         List<File> files;
 
         if (inputFile.isDirectory()) {
@@ -118,12 +433,38 @@ public class Tokenizer {
             files = Collections.singletonList(inputFile);
         }
 
+        StatsReport report = new StatsReport(EnumSet.of(Phase.READ, Phase.TOKENIZE, Phase.WRITE));
+        long start = System.nanoTime();
+
         for (File file : files) {
-            Tokenizer tokenizer = new Tokenizer(file);
+            FileStats fileStats = new FileStats(file.getPath());
+            List<String> tokenTags = new ArrayList<>();
+
+            tokenTags.add("<tokens>");
+            if (stats) {
+                // Read the whole file first so that reading and scanning are timed apart
+                fileStats.mark();
+                byte[] source = Files.readAllBytes(file.toPath());
+                fileStats.addBytes(source.length);
+                fileStats.end(Phase.READ);
+
+                TokenList tokens;
+                try (Tokenizer tokenizer = new Tokenizer(ByteBuffer.wrap(source), new NamePool())) {
+                    tokens = TokenList.scan(tokenizer);
+                }
+                fileStats.end(Phase.TOKENIZE);
 
-            List<String> tokenTags = tokenizer.tokens.stream().map(Token::toString).collect(Collectors.toList());
-    
-            tokenTags.add(0, "<tokens>");
+                for (int i = 0; i < tokens.size(); i++) {
+                    fileStats.addToken(tokens.get(i).getTokenType());
+                    tokenTags.add(tokens.get(i).toString());
+                }
+            } else {
+                try (Tokenizer tokenizer = new Tokenizer(file, mapped)) {
+                    while (tokenizer.hasMoreTokens()) {
+                        tokenTags.add(tokenizer.advance().toString());
+                    }
+                }
+            }
             tokenTags.add("</tokens>");
 
             String filename = file.getName();
@@ -135,16 +476,18 @@ public class Tokenizer {
             Path outputFilename = file.toPath().resolveSibling(filename.substring(0, extIndex) + "Tokens.xml");
 
             Files.write(outputFilename, tokenTags, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        }
-    }
 
-    private static class TokenInfo {
-        private TokenType type;
-        private Pattern pattern;
+            if (stats) {
+                fileStats.end(Phase.WRITE);
+                report.add(fileStats);
+            }
+        }
 
-        private TokenInfo(TokenType type, String regex) {
-            this.type = type;
-            this.pattern = Pattern.compile("^" + regex + "");
+        report.setWallNanos(System.nanoTime() - start);
+        if (statsJson != null) {
+            report.writeJson(statsJson);
+        } else if (stats) {
+            report.printTable(System.out);
         }
     }
-}
\ No newline at end of file
+}
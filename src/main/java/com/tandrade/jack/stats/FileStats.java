@@ -0,0 +1,123 @@
+package com.tandrade.jack.stats;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.tandrade.jack.parser.token.TokenType;
+import com.tandrade.jack.vm.Opcode;
+
+// Metrics for one compiled file, or the sum over several. Phases are timed on the calling thread.
+public class FileStats {
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private String name;
+    private long bytes;
+    private long[] phaseNanos;
+    private long[] phaseAllocated;
+    private Map<TokenType, Long> tokenCounts;
+    private Map<Opcode, Long> instructionCounts;
+    private long markNanos;
+    private long markAllocated;
+
+    public FileStats(String name) {
+        this.name = name;
+        this.bytes = 0;
+        this.phaseNanos = new long[Phase.values().length];
+        this.phaseAllocated = new long[Phase.values().length];
+        this.tokenCounts = new EnumMap<>(TokenType.class);
+        this.instructionCounts = new EnumMap<>(Opcode.class);
+    }
+
+    // Starts timing the next phase
+    public void mark() {
+        markNanos = System.nanoTime();
+        markAllocated = THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    // Charges everything since the last mark to the phase and starts timing the next one
+    public void end(Phase phase) {
+        long nanos = System.nanoTime();
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+
+        phaseNanos[phase.ordinal()] += nanos - markNanos;
+        phaseAllocated[phase.ordinal()] += allocated - markAllocated;
+        markNanos = nanos;
+        markAllocated = allocated;
+    }
+
+    public void addBytes(long count) {
+        bytes += count;
+    }
+
+    public void addToken(TokenType type) {
+        tokenCounts.merge(type, 1L, Long::sum);
+    }
+
+    public void addInstructions(Map<Opcode, Integer> counts) {
+        counts.forEach((opcode, count) -> instructionCounts.merge(opcode, (long) count, Long::sum));
+    }
+
+    public void add(FileStats other) {
+        bytes += other.bytes;
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] += other.phaseNanos[i];
+            phaseAllocated[i] += other.phaseAllocated[i];
+        }
+        other.tokenCounts.forEach((type, count) -> tokenCounts.merge(type, count, Long::sum));
+        other.instructionCounts.forEach((opcode, count) -> instructionCounts.merge(opcode, count, Long::sum));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public long getAllocated(Phase phase) {
+        return phaseAllocated[phase.ordinal()];
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+
+        for (long nanos : phaseNanos) {
+            total += nanos;
+        }
+
+        return total;
+    }
+
+    public long getTotalAllocated() {
+        long total = 0;
+
+        for (long allocated : phaseAllocated) {
+            total += allocated;
+        }
+
+        return total;
+    }
+
+    public Map<TokenType, Long> getTokenCounts() {
+        return tokenCounts;
+    }
+
+    public long getTokenCount() {
+        return tokenCounts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public Map<Opcode, Long> getInstructionCounts() {
+        return instructionCounts;
+    }
+
+    public long getInstructionCount() {
+        return instructionCounts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,19 @@
+package com.tandrade.jack.stats;
+
+public enum Phase {
+    READ("read"),
+    TOKENIZE("tokenize"),
+    PARSE("parse"),
+    GENERATE("generate"),
+    WRITE("write");
+
+    private String name;
+
+    private Phase(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
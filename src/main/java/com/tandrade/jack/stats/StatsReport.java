@@ -0,0 +1,191 @@
+package com.tandrade.jack.stats;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.tandrade.jack.parser.token.TokenType;
+import com.tandrade.jack.vm.Opcode;
+
+public class StatsReport {
+
+    private List<FileStats> files;
+    private Set<Phase> phases;
+    private long wallNanos;
+
+    public StatsReport(Set<Phase> phases) {
+        this.files = new ArrayList<>();
+        this.phases = EnumSet.copyOf(phases);
+        this.wallNanos = 0;
+    }
+
+    public synchronized void add(FileStats stats) {
+        files.add(stats);
+    }
+
+    public void setWallNanos(long wallNanos) {
+        this.wallNanos = wallNanos;
+    }
+
+    public List<FileStats> getFiles() {
+        files.sort(Comparator.comparing(FileStats::getName));
+
+        return files;
+    }
+
+    public FileStats getTotal() {
+        FileStats total = new FileStats("total");
+
+        for (FileStats stats : files) {
+            total.add(stats);
+        }
+
+        return total;
+    }
+
+    public void printTable(PrintStream out) {
+        List<FileStats> rows = new ArrayList<>(getFiles());
+        int nameWidth = "total".length();
+
+        rows.add(getTotal());
+        for (FileStats stats : rows) {
+            nameWidth = Math.max(nameWidth, stats.getName().length());
+        }
+
+        boolean generated = phases.contains(Phase.GENERATE);
+        StringBuilder header = new StringBuilder(String.format("%-" + nameWidth + "s %10s %9s", "file", "bytes", "tokens"));
+
+        if (generated) {
+            header.append(String.format(" %9s", "vm"));
+        }
+        for (Phase phase : phases) {
+            header.append(String.format(" %11s", phase.getName() + " ms"));
+        }
+        header.append(String.format(" %11s %11s", "total ms", "alloc KB"));
+        out.println(header);
+
+        for (FileStats stats : rows) {
+            StringBuilder row = new StringBuilder(String.format("%-" + nameWidth + "s %10d %9d", stats.getName(), stats.getBytes(), stats.getTokenCount()));
+
+            if (generated) {
+                row.append(String.format(" %9d", stats.getInstructionCount()));
+            }
+
+            for (Phase phase : phases) {
+                row.append(String.format(" %11.2f", stats.getNanos(phase) / 1e6));
+            }
+            row.append(String.format(" %11.2f %11d", stats.getTotalNanos() / 1e6, stats.getTotalAllocated() / 1024));
+            out.println(row);
+        }
+
+        FileStats total = getTotal();
+
+        out.println();
+        out.print("allocated KB by phase:");
+        for (Phase phase : phases) {
+            out.print(" " + phase.getName() + " " + total.getAllocated(phase) / 1024);
+        }
+        out.println();
+
+        out.print("tokens by type:");
+        for (Map.Entry<TokenType, Long> entry : total.getTokenCounts().entrySet()) {
+            out.print(" " + entry.getKey().getElement() + " " + entry.getValue());
+        }
+        out.println();
+
+        if (!total.getInstructionCounts().isEmpty()) {
+            out.print("vm instructions by kind:");
+            for (Map.Entry<Opcode, Long> entry : total.getInstructionCounts().entrySet()) {
+                out.print(" " + entry.getKey().getValue() + " " + entry.getValue());
+            }
+            out.println();
+        }
+
+        out.printf("wall time: %.2f ms%n", wallNanos / 1e6);
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+
+        json.append("{\n");
+        json.append("  \"wallNanos\": ").append(wallNanos).append(",\n");
+        json.append("  \"total\": ");
+        appendJson(json, getTotal(), "  ");
+        json.append(",\n");
+        json.append("  \"files\": [");
+
+        List<FileStats> rows = getFiles();
+        for (int i = 0; i < rows.size(); i++) {
+            json.append(i > 0 ? ", " : "");
+            appendJson(json, rows.get(i), "  ");
+        }
+
+        json.append("]\n");
+        json.append("}\n");
+
+        return json.toString();
+    }
+
+    public void writeJson(Path path) throws IOException {
+        Files.write(path, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void appendJson(StringBuilder json, FileStats stats, String indent) {
+        json.append("{\n");
+        json.append(indent).append("  \"file\": ").append(quote(stats.getName())).append(",\n");
+        json.append(indent).append("  \"bytes\": ").append(stats.getBytes()).append(",\n");
+        json.append(indent).append("  \"phases\": {");
+
+        boolean first = true;
+        for (Phase phase : phases) {
+            json.append(first ? "" : ", ");
+            json.append(quote(phase.getName())).append(": {\"nanos\": ").append(stats.getNanos(phase));
+            json.append(", \"allocatedBytes\": ").append(stats.getAllocated(phase)).append("}");
+            first = false;
+        }
+        json.append("},\n");
+
+        json.append(indent).append("  \"tokens\": {");
+        first = true;
+        for (Map.Entry<TokenType, Long> entry : stats.getTokenCounts().entrySet()) {
+            json.append(first ? "" : ", ").append(quote(entry.getKey().getElement())).append(": ").append(entry.getValue());
+            first = false;
+        }
+        json.append("},\n");
+
+        json.append(indent).append("  \"instructions\": {");
+        first = true;
+        for (Map.Entry<Opcode, Long> entry : stats.getInstructionCounts().entrySet()) {
+            json.append(first ? "" : ", ").append(quote(entry.getKey().getValue())).append(": ").append(entry.getValue());
+            first = false;
+        }
+        json.append("}\n");
+        json.append(indent).append("}");
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,135 @@
+package com.tandrade.jack.vm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Growable byte buffer for ASCII text output, drained to a stream when one is given
+public class AsciiBuffer {
+    private static final int BUFFER_SIZE = 8192;
+
+    public static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private OutputStream out;
+    private byte[] buf;
+    private int count;
+
+    public AsciiBuffer() {
+        this(null);
+    }
+
+    public AsciiBuffer(OutputStream out) {
+        this.out = out;
+        this.buf = new byte[BUFFER_SIZE];
+        this.count = 0;
+    }
+
+    public void writeAscii(String value) {
+        ensureCapacity(value.length());
+
+        for (int i = 0; i < value.length(); i++) {
+            buf[count++] = (byte) value.charAt(i);
+        }
+    }
+
+    public void writeInt(int value) {
+        ensureCapacity(11);
+
+        if (value < 0) {
+            buf[count++] = '-';
+            value = -value;
+        }
+
+        int start = count;
+        do {
+            buf[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+
+        for (int i = start, j = count - 1; i < j; i++, j--) {
+            byte digit = buf[i];
+            buf[i] = buf[j];
+            buf[j] = digit;
+        }
+    }
+
+    public void write(byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    public void write(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+
+        System.arraycopy(bytes, offset, buf, count, length);
+        count += length;
+    }
+
+    public void writeByte(char c) {
+        ensureCapacity(1);
+
+        buf[count++] = (byte) c;
+    }
+
+    public void newLine() {
+        write(NEWLINE);
+    }
+
+    private void ensureCapacity(int length) {
+        if (count + length <= buf.length) {
+            return;
+        }
+
+        if (out != null) {
+            drain();
+        }
+        if (count + length > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + length));
+        }
+    }
+
+    private void drain() {
+        try {
+            out.write(buf, 0, count);
+            count = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() {
+        if (out == null) {
+            return;
+        }
+
+        drain();
+
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    public void writeTo(OutputStream target) throws IOException {
+        target.write(buf, 0, count);
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, 0, count, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,87 @@
+package com.tandrade.jack.vm;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Passes every instruction through while counting them by opcode
+public class CountingVMWriter implements VMWriter {
+
+    private VMWriter target;
+    private int[] counts;
+
+    public CountingVMWriter(VMWriter target) {
+        this.target = target;
+        this.counts = new int[Opcode.values().length];
+    }
+
+    public Map<Opcode, Integer> getCounts() {
+        Map<Opcode, Integer> result = new EnumMap<>(Opcode.class);
+
+        for (Opcode opcode : Opcode.values()) {
+            if (counts[opcode.ordinal()] > 0) {
+                result.put(opcode, counts[opcode.ordinal()]);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void writePush(Segment segment, int index) {
+        counts[Opcode.PUSH.ordinal()]++;
+        target.writePush(segment, index);
+    }
+
+    @Override
+    public void writePop(Segment segment, int index) {
+        counts[Opcode.POP.ordinal()]++;
+        target.writePop(segment, index);
+    }
+
+    @Override
+    public void writeArithmetic(Opcode opcode) {
+        counts[opcode.ordinal()]++;
+        target.writeArithmetic(opcode);
+    }
+
+    @Override
+    public void writeLabel(String label, int index) {
+        counts[Opcode.LABEL.ordinal()]++;
+        target.writeLabel(label, index);
+    }
+
+    @Override
+    public void writeGoto(String label, int index) {
+        counts[Opcode.GOTO.ordinal()]++;
+        target.writeGoto(label, index);
+    }
+
+    @Override
+    public void writeIf(String label, int index) {
+        counts[Opcode.IF_GOTO.ordinal()]++;
+        target.writeIf(label, index);
+    }
+
+    @Override
+    public void writeFunction(String className, String subroutineName, int localCount) {
+        counts[Opcode.FUNCTION.ordinal()]++;
+        target.writeFunction(className, subroutineName, localCount);
+    }
+
+    @Override
+    public void writeCall(String className, String subroutineName, int argumentCount) {
+        counts[Opcode.CALL.ordinal()]++;
+        target.writeCall(className, subroutineName, argumentCount);
+    }
+
+    @Override
+    public void writeReturn() {
+        counts[Opcode.RETURN.ordinal()]++;
+        target.writeReturn();
+    }
+
+    @Override
+    public void flush() {
+        target.flush();
+    }
+}
@@ -0,0 +1,76 @@
+package com.tandrade.jack.vm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InstructionBuffer implements VMWriter {
+
+    private List<VMInstruction> instructions;
+
+    public InstructionBuffer() {
+        this.instructions = new ArrayList<>();
+    }
+
+    public List<VMInstruction> getInstructions() {
+        return instructions;
+    }
+
+    public void replay(VMWriter writer) {
+        for (VMInstruction instruction : instructions) {
+            instruction.writeTo(writer);
+        }
+    }
+
+    public void clear() {
+        instructions.clear();
+    }
+
+    @Override
+    public void writePush(Segment segment, int index) {
+        instructions.add(VMInstruction.push(segment, index));
+    }
+
+    @Override
+    public void writePop(Segment segment, int index) {
+        instructions.add(VMInstruction.pop(segment, index));
+    }
+
+    @Override
+    public void writeArithmetic(Opcode opcode) {
+        instructions.add(VMInstruction.arithmetic(opcode));
+    }
+
+    @Override
+    public void writeLabel(String label, int index) {
+        instructions.add(VMInstruction.label(Opcode.LABEL, label, index));
+    }
+
+    @Override
+    public void writeGoto(String label, int index) {
+        instructions.add(VMInstruction.label(Opcode.GOTO, label, index));
+    }
+
+    @Override
+    public void writeIf(String label, int index) {
+        instructions.add(VMInstruction.label(Opcode.IF_GOTO, label, index));
+    }
+
+    @Override
+    public void writeFunction(String className, String subroutineName, int localCount) {
+        instructions.add(VMInstruction.function(Opcode.FUNCTION, className, subroutineName, localCount));
+    }
+
+    @Override
+    public void writeCall(String className, String subroutineName, int argumentCount) {
+        instructions.add(VMInstruction.function(Opcode.CALL, className, subroutineName, argumentCount));
+    }
+
+    @Override
+    public void writeReturn() {
+        instructions.add(VMInstruction.ret());
+    }
+
+    @Override
+    public void flush() {
+    }
+}
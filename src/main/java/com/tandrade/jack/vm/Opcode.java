@@ -0,0 +1,35 @@
+package com.tandrade.jack.vm;
+
+public enum Opcode {
+    PUSH("push"),
+    POP("pop"),
+    ADD("add"),
+    SUB("sub"),
+    NEG("neg"),
+    EQ("eq"),
+    GT("gt"),
+    LT("lt"),
+    AND("and"),
+    OR("or"),
+    NOT("not"),
+    LABEL("label"),
+    GOTO("goto"),
+    IF_GOTO("if-goto"),
+    FUNCTION("function"),
+    CALL("call"),
+    RETURN("return");
+
+    private String value;
+
+    private Opcode(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean isArithmetic() {
+        return ordinal() >= ADD.ordinal() && ordinal() <= NOT.ordinal();
+    }
+}
@@ -0,0 +1,22 @@
+package com.tandrade.jack.vm;
+
+public enum Segment {
+    CONSTANT("constant"),
+    ARGUMENT("argument"),
+    LOCAL("local"),
+    STATIC("static"),
+    THIS("this"),
+    THAT("that"),
+    POINTER("pointer"),
+    TEMP("temp");
+
+    private String value;
+
+    private Segment(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
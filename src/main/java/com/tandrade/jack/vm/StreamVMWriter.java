@@ -0,0 +1,162 @@
+package com.tandrade.jack.vm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class StreamVMWriter implements VMWriter {
+    private static final byte[] NEWLINE = AsciiBuffer.NEWLINE;
+    private static final byte[][] OPCODES = new byte[Opcode.values().length][];
+    private static final byte[][] SEGMENTS = new byte[Segment.values().length][];
+
+    static {
+        for (Opcode opcode : Opcode.values()) {
+            OPCODES[opcode.ordinal()] = opcode.getValue().getBytes(StandardCharsets.US_ASCII);
+        }
+        for (Segment segment : Segment.values()) {
+            SEGMENTS[segment.ordinal()] = segment.getValue().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private AsciiBuffer buffer;
+
+    public StreamVMWriter() {
+        this(new AsciiBuffer());
+    }
+
+    public StreamVMWriter(OutputStream out) {
+        this(new AsciiBuffer(out));
+    }
+
+    public StreamVMWriter(AsciiBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void writePush(Segment segment, int index) {
+        writeOpcode(Opcode.PUSH);
+        writeByte(' ');
+        write(SEGMENTS[segment.ordinal()]);
+        writeByte(' ');
+        writeInt(index);
+        write(NEWLINE);
+    }
+
+    @Override
+    public void writePop(Segment segment, int index) {
+        writeOpcode(Opcode.POP);
+        writeByte(' ');
+        write(SEGMENTS[segment.ordinal()]);
+        writeByte(' ');
+        writeInt(index);
+        write(NEWLINE);
+    }
+
+    @Override
+    public void writeArithmetic(Opcode opcode) {
+        if (!opcode.isArithmetic()) {
+            throw new IllegalArgumentException("Not an arithmetic command: " + opcode.getValue());
+        }
+
+        writeOpcode(opcode);
+        write(NEWLINE);
+    }
+
+    @Override
+    public void writeLabel(String label, int index) {
+        writeLabelCommand(Opcode.LABEL, label, index);
+    }
+
+    @Override
+    public void writeGoto(String label, int index) {
+        writeLabelCommand(Opcode.GOTO, label, index);
+    }
+
+    @Override
+    public void writeIf(String label, int index) {
+        writeLabelCommand(Opcode.IF_GOTO, label, index);
+    }
+
+    @Override
+    public void writeFunction(String className, String subroutineName, int localCount) {
+        writeFunctionCommand(Opcode.FUNCTION, className, subroutineName, localCount);
+    }
+
+    @Override
+    public void writeCall(String className, String subroutineName, int argumentCount) {
+        writeFunctionCommand(Opcode.CALL, className, subroutineName, argumentCount);
+    }
+
+    @Override
+    public void writeReturn() {
+        writeOpcode(Opcode.RETURN);
+        write(NEWLINE);
+    }
+
+    private void writeLabelCommand(Opcode opcode, String label, int index) {
+        writeOpcode(opcode);
+        writeByte(' ');
+        writeAscii(label);
+        if (index >= 0) {
+            writeInt(index);
+        }
+        write(NEWLINE);
+    }
+
+    private void writeFunctionCommand(Opcode opcode, String className, String subroutineName, int count) {
+        writeOpcode(opcode);
+        writeByte(' ');
+        writeAscii(className);
+        writeByte('.');
+        writeAscii(subroutineName);
+        writeByte(' ');
+        writeInt(count);
+        write(NEWLINE);
+    }
+
+    private void writeOpcode(Opcode opcode) {
+        buffer.write(OPCODES[opcode.ordinal()]);
+    }
+
+    private void writeAscii(String value) {
+        buffer.writeAscii(value);
+    }
+
+    private void writeInt(int value) {
+        buffer.writeInt(value);
+    }
+
+    private void write(byte[] bytes) {
+        buffer.write(bytes);
+    }
+
+    private void writeByte(char c) {
+        buffer.writeByte(c);
+    }
+
+    @Override
+    public void flush() {
+        buffer.flush();
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    public byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    public void writeTo(OutputStream target) throws IOException {
+        buffer.writeTo(target);
+    }
+
+    public void reset() {
+        buffer.reset();
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.tandrade.jack.vm;
+
+public class VMInstruction {
+
+    private Opcode opcode;
+    private Segment segment;
+    private String name;
+    private String subroutineName;
+    private int index;
+
+    private VMInstruction(Opcode opcode, Segment segment, String name, String subroutineName, int index) {
+        this.opcode = opcode;
+        this.segment = segment;
+        this.name = name;
+        this.subroutineName = subroutineName;
+        this.index = index;
+    }
+
+    public static VMInstruction push(Segment segment, int index) {
+        return new VMInstruction(Opcode.PUSH, segment, null, null, index);
+    }
+
+    public static VMInstruction pop(Segment segment, int index) {
+        return new VMInstruction(Opcode.POP, segment, null, null, index);
+    }
+
+    public static VMInstruction arithmetic(Opcode opcode) {
+        return new VMInstruction(opcode, null, null, null, 0);
+    }
+
+    public static VMInstruction label(Opcode opcode, String label, int index) {
+        return new VMInstruction(opcode, null, label, null, index);
+    }
+
+    public static VMInstruction function(Opcode opcode, String className, String subroutineName, int count) {
+        return new VMInstruction(opcode, null, className, subroutineName, count);
+    }
+
+    public static VMInstruction ret() {
+        return new VMInstruction(Opcode.RETURN, null, null, null, 0);
+    }
+
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    public Segment getSegment() {
+        return segment;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSubroutineName() {
+        return subroutineName;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean is(Opcode opcode) {
+        return this.opcode == opcode;
+    }
+
+    public boolean is(Opcode opcode, Segment segment, int index) {
+        return this.opcode == opcode && this.segment == segment && this.index == index;
+    }
+
+    public boolean isJump() {
+        return opcode == Opcode.GOTO || opcode == Opcode.IF_GOTO;
+    }
+
+    public boolean hasSameLabel(VMInstruction other) {
+        return name.equals(other.name) && index == other.index;
+    }
+
+    public void writeTo(VMWriter writer) {
+        switch (opcode) {
+            case PUSH:
+                writer.writePush(segment, index);
+                break;
+            case POP:
+                writer.writePop(segment, index);
+                break;
+            case LABEL:
+                writer.writeLabel(name, index);
+                break;
+            case GOTO:
+                writer.writeGoto(name, index);
+                break;
+            case IF_GOTO:
+                writer.writeIf(name, index);
+                break;
+            case FUNCTION:
+                writer.writeFunction(name, subroutineName, index);
+                break;
+            case CALL:
+                writer.writeCall(name, subroutineName, index);
+                break;
+            case RETURN:
+                writer.writeReturn();
+                break;
+            default:
+                writer.writeArithmetic(opcode);
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (opcode) {
+            case PUSH:
+            case POP:
+                return opcode.getValue() + " " + segment.getValue() + " " + index;
+            case LABEL:
+            case GOTO:
+            case IF_GOTO:
+                return opcode.getValue() + " " + name + (index >= 0 ? String.valueOf(index) : "");
+            case FUNCTION:
+            case CALL:
+                return opcode.getValue() + " " + name + "." + subroutineName + " " + index;
+            default:
+                return opcode.getValue();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.tandrade.jack.vm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+// Replays a .vm text file into a VMWriter, for linking code that has no Jack source such as the OS
+public class VMReader {
+    private static final Map<String, Opcode> OPCODES = new HashMap<>();
+    private static final Map<String, Segment> SEGMENTS = new HashMap<>();
+
+    static {
+        for (Opcode opcode : Opcode.values()) {
+            OPCODES.put(opcode.getValue(), opcode);
+        }
+        for (Segment segment : Segment.values()) {
+            SEGMENTS.put(segment.getValue(), segment);
+        }
+    }
+
+    private VMReader() {
+    }
+
+    public static void read(Path path, VMWriter writer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line;
+            int lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                int comment = line.indexOf("//");
+                if (comment != -1) {
+                    line = line.substring(0, comment);
+                }
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    readCommand(line.split("\\s+"), writer);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void readCommand(String[] parts, VMWriter writer) {
+        Opcode opcode = OPCODES.get(parts[0]);
+
+        if (opcode == null) {
+            throw new IllegalArgumentException("Unknown command: " + parts[0]);
+        }
+        if (opcode.isArithmetic()) {
+            expectArguments(parts, 0);
+            writer.writeArithmetic(opcode);
+            return;
+        }
+
+        switch (opcode) {
+            case PUSH:
+            case POP:
+                expectArguments(parts, 2);
+                Segment segment = SEGMENTS.get(parts[1]);
+                if (segment == null) {
+                    throw new IllegalArgumentException("Unknown segment: " + parts[1]);
+                }
+                if (opcode == Opcode.PUSH) {
+                    writer.writePush(segment, parseCount(parts[2]));
+                } else {
+                    writer.writePop(segment, parseCount(parts[2]));
+                }
+                break;
+            case LABEL:
+                expectArguments(parts, 1);
+                writer.writeLabel(parts[1], -1);
+                break;
+            case GOTO:
+                expectArguments(parts, 1);
+                writer.writeGoto(parts[1], -1);
+                break;
+            case IF_GOTO:
+                expectArguments(parts, 1);
+                writer.writeIf(parts[1], -1);
+                break;
+            case FUNCTION:
+            case CALL:
+                expectArguments(parts, 2);
+                int dot = parts[1].indexOf('.');
+                if (dot == -1) {
+                    throw new IllegalArgumentException("Expected Class.subroutine: " + parts[1]);
+                }
+                String className = parts[1].substring(0, dot);
+                String subroutineName = parts[1].substring(dot + 1);
+                if (opcode == Opcode.FUNCTION) {
+                    writer.writeFunction(className, subroutineName, parseCount(parts[2]));
+                } else {
+                    writer.writeCall(className, subroutineName, parseCount(parts[2]));
+                }
+                break;
+            default:
+                expectArguments(parts, 0);
+                writer.writeReturn();
+        }
+    }
+
+    private static void expectArguments(String[] parts, int count) {
+        if (parts.length != count + 1) {
+            throw new IllegalArgumentException("Expected " + count + " arguments for " + parts[0]);
+        }
+    }
+
+    private static int parseCount(String value) {
+        try {
+            int count = Integer.parseInt(value);
+
+            if (count < 0) {
+                throw new IllegalArgumentException("Invalid number: " + value);
+            }
+
+            return count;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + value);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.tandrade.jack.vm;
+
+public interface VMWriter {
+
+    void writePush(Segment segment, int index);
+
+    void writePop(Segment segment, int index);
+
+    void writeArithmetic(Opcode opcode);
+
+    void writeLabel(String label, int index);
+
+    void writeGoto(String label, int index);
+
+    void writeIf(String label, int index);
+
+    void writeFunction(String className, String subroutineName, int localCount);
+
+    void writeCall(String className, String subroutineName, int argumentCount);
+
+    void writeReturn();
+
+    void flush();
+}
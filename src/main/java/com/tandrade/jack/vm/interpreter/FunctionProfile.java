@@ -0,0 +1,33 @@
+package com.tandrade.jack.vm.interpreter;
+
+public class FunctionProfile {
+
+    private String name;
+    private boolean builtin;
+    private long calls;
+    private long instructions;
+
+    public FunctionProfile(String name, boolean builtin, long calls, long instructions) {
+        this.name = name;
+        this.builtin = builtin;
+        this.calls = calls;
+        this.instructions = instructions;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isBuiltin() {
+        return builtin;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    // VM instructions executed inside the function itself, not counting its callees
+    public long getInstructions() {
+        return instructions;
+    }
+}
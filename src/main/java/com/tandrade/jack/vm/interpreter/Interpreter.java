@@ -0,0 +1,362 @@
+package com.tandrade.jack.vm.interpreter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.tandrade.jack.vm.Opcode;
+
+// Runs a linked program on a simulated Hack RAM, counting how often each instruction executes
+public class Interpreter {
+    static final int SP = 0;
+    static final int LCL = 1;
+    static final int ARG = 2;
+    static final int THIS = 3;
+    static final int THAT = 4;
+
+    private static final int RAM_SIZE = 32768;
+    private static final int STACK_START = 256;
+
+    private Program program;
+    private int[] ram;
+    private OperatingSystem os;
+    private long[] hits;
+    private long[] builtinCalls;
+    private long instructionCount;
+
+    public Interpreter(Program program) {
+        this.program = program;
+        this.ram = new int[RAM_SIZE];
+        this.os = new OperatingSystem(ram);
+        this.hits = new long[program.getSize()];
+        this.builtinCalls = new long[program.getFunctionCount()];
+        this.instructionCount = 0;
+    }
+
+    public OperatingSystem getOperatingSystem() {
+        return os;
+    }
+
+    public long getInstructionCount() {
+        return instructionCount;
+    }
+
+    // Calls Sys.init, or Main.main when the program brings no Sys, and runs until it returns or halts
+    public void run(long maxInstructions) {
+        int entry = program.getFunction("Sys.init");
+
+        if (entry == -1 || program.getEntry(entry) == -1) {
+            entry = program.getFunction("Main.main");
+        }
+        if (entry == -1 || program.getEntry(entry) == -1) {
+            throw new IllegalArgumentException("No Sys.init or Main.main to run");
+        }
+
+        ram[SP] = STACK_START;
+        // A return address of -1 ends the run when the entry function returns
+        ram[STACK_START] = -1;
+        ram[SP] += 5;
+        ram[ARG] = STACK_START;
+        ram[LCL] = ram[SP];
+
+        execute(program.getEntry(entry), maxInstructions);
+    }
+
+    private void execute(int pc, long maxInstructions) {
+        int[] code = program.getCode();
+        int[] ram = this.ram;
+        long[] hits = this.hits;
+        long executed = instructionCount;
+        int current = pc;
+
+        try {
+            while (pc >= 0) {
+                if (executed == maxInstructions) {
+                    throw new IllegalStateException("Instruction limit of " + maxInstructions + " reached");
+                }
+
+                executed++;
+                current = pc;
+                hits[pc]++;
+                int operation = code[pc * 2];
+                int operand = code[pc * 2 + 1];
+                pc++;
+
+                int sp = ram[SP];
+                switch (operation) {
+                    case Program.PUSH_CONSTANT:
+                        ram[sp] = operand;
+                        ram[SP] = sp + 1;
+                        break;
+                    case Program.PUSH_ADDRESS:
+                        ram[sp] = ram[operand];
+                        ram[SP] = sp + 1;
+                        break;
+                    case Program.PUSH_LOCAL:
+                        ram[sp] = ram[ram[LCL] + operand];
+                        ram[SP] = sp + 1;
+                        break;
+                    case Program.PUSH_ARGUMENT:
+                        ram[sp] = ram[ram[ARG] + operand];
+                        ram[SP] = sp + 1;
+                        break;
+                    case Program.PUSH_THIS:
+                        ram[sp] = ram[ram[THIS] + operand];
+                        ram[SP] = sp + 1;
+                        break;
+                    case Program.PUSH_THAT:
+                        ram[sp] = ram[ram[THAT] + operand];
+                        ram[SP] = sp + 1;
+                        break;
+                    case Program.POP_ADDRESS:
+                        ram[SP] = sp - 1;
+                        ram[operand] = ram[sp - 1];
+                        break;
+                    case Program.POP_LOCAL:
+                        ram[SP] = sp - 1;
+                        ram[ram[LCL] + operand] = ram[sp - 1];
+                        break;
+                    case Program.POP_ARGUMENT:
+                        ram[SP] = sp - 1;
+                        ram[ram[ARG] + operand] = ram[sp - 1];
+                        break;
+                    case Program.POP_THIS:
+                        ram[SP] = sp - 1;
+                        ram[ram[THIS] + operand] = ram[sp - 1];
+                        break;
+                    case Program.POP_THAT:
+                        ram[SP] = sp - 1;
+                        ram[ram[THAT] + operand] = ram[sp - 1];
+                        break;
+                    case Program.ADD:
+                        ram[SP] = sp - 1;
+                        ram[sp - 2] = (short) (ram[sp - 2] + ram[sp - 1]);
+                        break;
+                    case Program.SUB:
+                        ram[SP] = sp - 1;
+                        ram[sp - 2] = (short) (ram[sp - 2] - ram[sp - 1]);
+                        break;
+                    case Program.NEG:
+                        ram[sp - 1] = (short) -ram[sp - 1];
+                        break;
+                    case Program.EQ:
+                        ram[SP] = sp - 1;
+                        ram[sp - 2] = ram[sp - 2] == ram[sp - 1] ? -1 : 0;
+                        break;
+                    case Program.GT:
+                        ram[SP] = sp - 1;
+                        ram[sp - 2] = ram[sp - 2] > ram[sp - 1] ? -1 : 0;
+                        break;
+                    case Program.LT:
+                        ram[SP] = sp - 1;
+                        ram[sp - 2] = ram[sp - 2] < ram[sp - 1] ? -1 : 0;
+                        break;
+                    case Program.AND:
+                        ram[SP] = sp - 1;
+                        ram[sp - 2] = ram[sp - 2] & ram[sp - 1];
+                        break;
+                    case Program.OR:
+                        ram[SP] = sp - 1;
+                        ram[sp - 2] = ram[sp - 2] | ram[sp - 1];
+                        break;
+                    case Program.NOT:
+                        ram[sp - 1] = ~ram[sp - 1];
+                        break;
+                    case Program.GOTO:
+                        pc = operand;
+                        break;
+                    case Program.IF_GOTO:
+                        ram[SP] = sp - 1;
+                        if (ram[sp - 1] != 0) {
+                            pc = operand;
+                        }
+                        break;
+                    case Program.FUNCTION:
+                        for (int i = 0; i < operand; i++) {
+                            ram[sp + i] = 0;
+                        }
+                        ram[SP] = sp + operand;
+                        break;
+                    case Program.CALL:
+                        pc = call(pc, sp, operand >>> Program.ARGUMENT_BITS, operand & Program.ARGUMENT_MASK);
+                        break;
+                    default:
+                        int frame = ram[LCL];
+                        pc = ram[frame - 5];
+                        ram[ram[ARG]] = ram[sp - 1];
+                        ram[SP] = ram[ARG] + 1;
+                        ram[THAT] = ram[frame - 1];
+                        ram[THIS] = ram[frame - 2];
+                        ram[ARG] = ram[frame - 3];
+                        ram[LCL] = ram[frame - 4];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalStateException("Invalid memory access in " + getFunctionName(current));
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException(e.getMessage() + " in " + getFunctionName(current));
+        } finally {
+            instructionCount = executed;
+        }
+    }
+
+    private String getFunctionName(int address) {
+        int function = program.getFunctionAt(address);
+
+        return function == -1 ? "?" : program.getFunctionName(function);
+    }
+
+    private int call(int returnAddress, int sp, int function, int argumentCount) {
+        int entry = program.getEntry(function);
+
+        if (entry >= 0) {
+            ram[sp] = returnAddress;
+            ram[sp + 1] = ram[LCL];
+            ram[sp + 2] = ram[ARG];
+            ram[sp + 3] = ram[THIS];
+            ram[sp + 4] = ram[THAT];
+            ram[SP] = sp + 5;
+            ram[ARG] = sp - argumentCount;
+            ram[LCL] = sp + 5;
+
+            return entry;
+        }
+
+        Builtin builtin = program.getBuiltin(function);
+        if (argumentCount != builtin.getArgumentCount()) {
+            throw new IllegalStateException("Expected " + builtin.getArgumentCount() + " arguments for " + builtin.getName());
+        }
+
+        builtinCalls[function]++;
+        ram[sp - argumentCount] = os.call(builtin, sp - argumentCount);
+        ram[SP] = sp - argumentCount + 1;
+
+        return os.isHalted() ? -1 : returnAddress;
+    }
+
+    public Map<Opcode, Long> getOpcodeCounts() {
+        Map<Opcode, Long> counts = new EnumMap<>(Opcode.class);
+        int[] code = program.getCode();
+
+        for (int pc = 0; pc < hits.length; pc++) {
+            if (hits[pc] > 0) {
+                counts.merge(Program.getOpcode(code[pc * 2]), hits[pc], Long::sum);
+            }
+        }
+
+        return counts;
+    }
+
+    // Calls and executed instructions for every function that ran, most expensive first
+    public List<FunctionProfile> getProfile() {
+        List<FunctionProfile> profile = new ArrayList<>();
+        int[] owners = new int[hits.length];
+
+        for (int function = 0; function < program.getFunctionCount(); function++) {
+            if (program.getEntry(function) >= 0) {
+                owners[program.getEntry(function)] = function + 1;
+            }
+        }
+
+        long[] instructions = new long[program.getFunctionCount()];
+        int owner = 0;
+        for (int pc = 0; pc < hits.length; pc++) {
+            if (owners[pc] != 0) {
+                owner = owners[pc] - 1;
+            }
+            instructions[owner] += hits[pc];
+        }
+
+        for (int function = 0; function < program.getFunctionCount(); function++) {
+            int entry = program.getEntry(function);
+            long calls = entry >= 0 ? hits[entry] : builtinCalls[function];
+
+            if (calls > 0) {
+                profile.add(new FunctionProfile(program.getFunctionName(function), entry < 0, calls, instructions[function]));
+            }
+        }
+
+        profile.sort((a, b) -> a.getInstructions() != b.getInstructions()
+                ? Long.compare(b.getInstructions(), a.getInstructions())
+                : Long.compare(b.getCalls(), a.getCalls()));
+
+        return profile;
+    }
+
+    public void printProfile(PrintStream out) {
+        List<FunctionProfile> profile = getProfile();
+        int nameWidth = "function".length();
+
+        for (FunctionProfile function : profile) {
+            nameWidth = Math.max(nameWidth, function.getName().length());
+        }
+
+        out.println(String.format("%-" + nameWidth + "s %12s %14s %7s", "function", "calls", "instructions", "share"));
+        for (FunctionProfile function : profile) {
+            if (function.isBuiltin()) {
+                out.println(String.format("%-" + nameWidth + "s %12d %14s %7s", function.getName(), function.getCalls(), "builtin", ""));
+            } else {
+                out.println(String.format("%-" + nameWidth + "s %12d %14d %6.2f%%", function.getName(), function.getCalls(),
+                        function.getInstructions(), 100.0 * function.getInstructions() / Math.max(1, instructionCount)));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean profile = false;
+        long maxInstructions = Long.MAX_VALUE;
+        File input = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--profile")) {
+                profile = true;
+            } else if (args[i].equals("--max-instructions") && i + 1 < args.length) {
+                maxInstructions = Long.parseLong(args[++i]);
+            } else if (!args[i].startsWith("-") && input == null) {
+                input = new File(args[i]);
+            } else {
+                input = null;
+                break;
+            }
+        }
+
+        if (input == null) {
+            System.err.println("Usage: Interpreter [--profile] [--max-instructions <count>] <file|directory>");
+            return;
+        }
+
+        Interpreter interpreter = new Interpreter(Program.load(input));
+        long start = System.nanoTime();
+        String error = null;
+
+        try {
+            interpreter.run(maxInstructions);
+        } catch (IllegalStateException e) {
+            error = e.getMessage();
+        }
+
+        long nanos = System.nanoTime() - start;
+
+        System.out.print(interpreter.getOperatingSystem().getOutput());
+        System.out.println();
+
+        StringBuilder kinds = new StringBuilder("vm instructions executed by kind:");
+        interpreter.getOpcodeCounts().forEach((opcode, count) -> kinds.append(' ').append(opcode.getValue()).append(' ').append(count));
+        System.err.println(kinds);
+        System.err.printf("instructions executed: %d in %.2f ms, heap peak %d words, %d allocations%n", interpreter.getInstructionCount(),
+                nanos / 1e6, interpreter.getOperatingSystem().getHeapPeak(), interpreter.getOperatingSystem().getAllocationCount());
+        if (profile) {
+            System.err.println();
+            interpreter.printProfile(System.err);
+        }
+
+        if (error != null) {
+            System.err.println(error);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.tandrade.jack.vm.interpreter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Java versions of the Jack OS classes, working on the interpreter's RAM; screen and keyboard are headless
+public class OperatingSystem {
+    private static final int HEAP_START = 2048;
+    private static final int HEAP_END = 16384;
+
+    private static final int NEW_LINE = 128;
+    private static final int BACK_SPACE = 129;
+    private static final int DOUBLE_QUOTE = 34;
+
+    private int[] ram;
+    private TreeMap<Integer, Integer> free;
+    private Map<Integer, Integer> allocated;
+    private int heapUsed;
+    private int heapPeak;
+    private long allocationCount;
+    private StringBuilder output;
+    private boolean halted;
+
+    public OperatingSystem(int[] ram) {
+        this.ram = ram;
+        this.free = new TreeMap<>();
+        this.allocated = new HashMap<>();
+        this.heapUsed = 0;
+        this.heapPeak = 0;
+        this.allocationCount = 0;
+        this.output = new StringBuilder();
+        this.halted = false;
+
+        free.put(HEAP_START, HEAP_END - HEAP_START);
+    }
+
+    // Everything printed through Output, with Jack's newline and backspace characters applied
+    public String getOutput() {
+        return output.toString();
+    }
+
+    public boolean isHalted() {
+        return halted;
+    }
+
+    public int getHeapPeak() {
+        return heapPeak;
+    }
+
+    public long getAllocationCount() {
+        return allocationCount;
+    }
+
+    // Runs a built-in with its arguments at ram[base..], returning the value left on the stack
+    public int call(Builtin builtin, int base) {
+        switch (builtin) {
+            case MATH_ABS:
+                return (short) Math.abs(ram[base]);
+            case MATH_MULTIPLY:
+                return (short) (ram[base] * ram[base + 1]);
+            case MATH_DIVIDE:
+                if (ram[base + 1] == 0) {
+                    throw new IllegalStateException("Division by zero");
+                }
+                return (short) (ram[base] / ram[base + 1]);
+            case MATH_MIN:
+                return Math.min(ram[base], ram[base + 1]);
+            case MATH_MAX:
+                return Math.max(ram[base], ram[base + 1]);
+            case MATH_SQRT:
+                if (ram[base] < 0) {
+                    throw new IllegalStateException("Square root of a negative number");
+                }
+                return (int) Math.sqrt(ram[base]);
+            case MEMORY_PEEK:
+                return ram[address(ram[base])];
+            case MEMORY_POKE:
+                ram[address(ram[base])] = ram[base + 1];
+                return 0;
+            case MEMORY_ALLOC:
+            case ARRAY_NEW:
+                return alloc(ram[base]);
+            case MEMORY_DEALLOC:
+            case ARRAY_DISPOSE:
+            case STRING_DISPOSE:
+                deAlloc(ram[base]);
+                return 0;
+            case STRING_NEW:
+                return newString(ram[base]);
+            case STRING_LENGTH:
+                return ram[address(ram[base]) + 1];
+            case STRING_CHAR_AT:
+                return ram[charAddress(ram[base], ram[base + 1])];
+            case STRING_SET_CHAR_AT:
+                ram[charAddress(ram[base], ram[base + 1])] = ram[base + 2];
+                return 0;
+            case STRING_APPEND_CHAR:
+                appendChar(ram[base], ram[base + 1]);
+                return ram[base];
+            case STRING_ERASE_LAST_CHAR:
+                if (ram[address(ram[base]) + 1] > 0) {
+                    ram[ram[base] + 1]--;
+                }
+                return 0;
+            case STRING_INT_VALUE:
+                return intValue(ram[base]);
+            case STRING_SET_INT:
+                ram[address(ram[base]) + 1] = 0;
+                for (char c : Integer.toString(ram[base + 1]).toCharArray()) {
+                    appendChar(ram[base], c);
+                }
+                return 0;
+            case STRING_NEW_LINE:
+                return NEW_LINE;
+            case STRING_BACK_SPACE:
+                return BACK_SPACE;
+            case STRING_DOUBLE_QUOTE:
+                return DOUBLE_QUOTE;
+            case OUTPUT_PRINT_CHAR:
+                printChar(ram[base]);
+                return 0;
+            case OUTPUT_PRINT_STRING:
+                int string = address(ram[base]);
+                for (int i = 0; i < ram[string + 1]; i++) {
+                    printChar(ram[string + 2 + i]);
+                }
+                return 0;
+            case OUTPUT_PRINT_INT:
+                output.append(ram[base]);
+                return 0;
+            case OUTPUT_PRINTLN:
+                printChar(NEW_LINE);
+                return 0;
+            case OUTPUT_BACK_SPACE:
+                printChar(BACK_SPACE);
+                return 0;
+            case KEYBOARD_READ_LINE:
+            case KEYBOARD_READ_INT:
+                call(Builtin.OUTPUT_PRINT_STRING, base);
+                return builtin == Builtin.KEYBOARD_READ_LINE ? newString(0) : 0;
+            case SYS_HALT:
+                halted = true;
+                return 0;
+            case SYS_ERROR:
+                throw new IllegalStateException("Sys.error " + ram[base]);
+            default:
+                // The init functions, cursor movement, screen drawing and key reads have nothing to do headless
+                return 0;
+        }
+    }
+
+    private int alloc(int size) {
+        if (size <= 0) {
+            throw new IllegalStateException("Invalid allocation size: " + size);
+        }
+
+        for (Map.Entry<Integer, Integer> block : free.entrySet()) {
+            if (block.getValue() >= size) {
+                int address = block.getKey();
+
+                free.remove(address);
+                if (block.getValue() > size) {
+                    free.put(address + size, block.getValue() - size);
+                }
+                allocated.put(address, size);
+                allocationCount++;
+                heapUsed += size;
+                heapPeak = Math.max(heapPeak, heapUsed);
+
+                return address;
+            }
+        }
+
+        throw new IllegalStateException("Heap overflow allocating " + size + " words");
+    }
+
+    private void deAlloc(int address) {
+        Integer size = allocated.remove(address);
+
+        if (size == null) {
+            throw new IllegalStateException("Invalid deallocation of " + address);
+        }
+        heapUsed -= size;
+
+        // Merge with the neighbouring free blocks so the heap does not fragment
+        Map.Entry<Integer, Integer> next = free.ceilingEntry(address);
+        if (next != null && next.getKey() == address + size) {
+            free.remove(next.getKey());
+            size += next.getValue();
+        }
+        Map.Entry<Integer, Integer> previous = free.floorEntry(address);
+        if (previous != null && previous.getKey() + previous.getValue() == address) {
+            address = previous.getKey();
+            size += previous.getValue();
+        }
+        free.put(address, size);
+    }
+
+    // A string is its capacity and length followed by its characters
+    private int newString(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalStateException("Invalid string capacity: " + capacity);
+        }
+
+        int string = alloc(capacity + 2);
+
+        ram[string] = capacity;
+        ram[string + 1] = 0;
+
+        return string;
+    }
+
+    private void appendChar(int string, int c) {
+        int length = ram[address(string) + 1];
+
+        if (length == ram[string]) {
+            throw new IllegalStateException("String is full");
+        }
+
+        ram[string + 2 + length] = c;
+        ram[string + 1] = length + 1;
+    }
+
+    private int charAddress(int string, int index) {
+        if (index < 0 || index >= ram[address(string) + 1]) {
+            throw new IllegalStateException("String index out of bounds: " + index);
+        }
+
+        return string + 2 + index;
+    }
+
+    private int intValue(int string) {
+        int length = ram[address(string) + 1];
+        int value = 0;
+        int i = 0;
+        boolean negative = length > 0 && ram[string + 2] == '-';
+
+        if (negative) {
+            i++;
+        }
+        for (; i < length && ram[string + 2 + i] >= '0' && ram[string + 2 + i] <= '9'; i++) {
+            value = value * 10 + ram[string + 2 + i] - '0';
+        }
+
+        return (short) (negative ? -value : value);
+    }
+
+    private void printChar(int c) {
+        if (c == NEW_LINE) {
+            output.append('\n');
+        } else if (c == BACK_SPACE) {
+            if (output.length() > 0) {
+                output.setLength(output.length() - 1);
+            }
+        } else {
+            output.append((char) c);
+        }
+    }
+
+    private int address(int address) {
+        if (address < 0 || address >= ram.length) {
+            throw new IllegalStateException("Invalid address: " + address);
+        }
+
+        return address;
+    }
+}
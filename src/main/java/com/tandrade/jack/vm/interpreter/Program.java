@@ -0,0 +1,400 @@
+package com.tandrade.jack.vm.interpreter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.Segment;
+import com.tandrade.jack.vm.VMReader;
+import com.tandrade.jack.vm.VMWriter;
+
+// VM code decoded into an int array of (operation, operand) pairs, with labels, functions and statics resolved
+public class Program implements VMWriter {
+    static final int PUSH_CONSTANT = 0;
+    static final int PUSH_ADDRESS = 1;
+    static final int PUSH_LOCAL = 2;
+    static final int PUSH_ARGUMENT = 3;
+    static final int PUSH_THIS = 4;
+    static final int PUSH_THAT = 5;
+    static final int POP_ADDRESS = 6;
+    static final int POP_LOCAL = 7;
+    static final int POP_ARGUMENT = 8;
+    static final int POP_THIS = 9;
+    static final int POP_THAT = 10;
+    static final int ADD = 11;
+    static final int SUB = 12;
+    static final int NEG = 13;
+    static final int EQ = 14;
+    static final int GT = 15;
+    static final int LT = 16;
+    static final int AND = 17;
+    static final int OR = 18;
+    static final int NOT = 19;
+    static final int GOTO = 20;
+    static final int IF_GOTO = 21;
+    static final int FUNCTION = 22;
+    static final int CALL = 23;
+    static final int RETURN = 24;
+
+    // Each operation's VM opcode, for counting executed instructions by kind
+    private static final Opcode[] OPCODES = {
+        Opcode.PUSH, Opcode.PUSH, Opcode.PUSH, Opcode.PUSH, Opcode.PUSH, Opcode.PUSH,
+        Opcode.POP, Opcode.POP, Opcode.POP, Opcode.POP, Opcode.POP,
+        Opcode.ADD, Opcode.SUB, Opcode.NEG, Opcode.EQ, Opcode.GT, Opcode.LT, Opcode.AND, Opcode.OR, Opcode.NOT,
+        Opcode.GOTO, Opcode.IF_GOTO, Opcode.FUNCTION, Opcode.CALL, Opcode.RETURN
+    };
+
+    private static final int STATIC_START = 16;
+    private static final int STATIC_END = 256;
+
+    // A call operand packs the function index above the argument count
+    static final int ARGUMENT_BITS = 8;
+    static final int ARGUMENT_MASK = (1 << ARGUMENT_BITS) - 1;
+
+    private int[] code;
+    private int size;
+    private List<String> functionNames;
+    private Map<String, Integer> functions;
+    private List<Integer> entries;
+    private Builtin[] builtins;
+    private Map<String, Integer> statics;
+    private Map<String, Integer> labels;
+    private List<Integer> jumps;
+    private List<String> jumpLabels;
+    private String className;
+    private String functionName;
+    private boolean linked;
+
+    public Program() {
+        this.code = new int[1024];
+        this.size = 0;
+        this.functionNames = new ArrayList<>();
+        this.functions = new HashMap<>();
+        this.entries = new ArrayList<>();
+        this.builtins = null;
+        this.statics = new HashMap<>();
+        this.labels = new HashMap<>();
+        this.jumps = new ArrayList<>();
+        this.jumpLabels = new ArrayList<>();
+        this.className = null;
+        this.functionName = null;
+        this.linked = false;
+    }
+
+    // Loads a .vm file, or every .vm file in a directory, and links them into a runnable program
+    public static Program load(File input) throws IOException {
+        Program program = new Program();
+        File[] files;
+
+        if (input.isDirectory()) {
+            files = input.listFiles((d, f) -> f.endsWith(".vm"));
+            Arrays.sort(files);
+        } else {
+            files = new File[] { input };
+        }
+
+        for (File file : files) {
+            try {
+                VMReader.read(file.toPath(), program);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(file.getPath() + ": " + e.getMessage());
+            }
+        }
+        program.link();
+
+        return program;
+    }
+
+    // Resolves calls to functions without VM code to the built-in OS, failing on any other missing function
+    public void link() {
+        endFunction();
+
+        builtins = new Builtin[functionNames.size()];
+        for (int i = 0; i < functionNames.size(); i++) {
+            if (entries.get(i) >= 0) {
+                continue;
+            }
+
+            builtins[i] = Builtin.forName(functionNames.get(i));
+            if (builtins[i] == null) {
+                throw new IllegalArgumentException("Unknown function: " + functionNames.get(i));
+            }
+        }
+
+        linked = true;
+    }
+
+    int[] getCode() {
+        return code;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getFunctionCount() {
+        return functionNames.size();
+    }
+
+    public String getFunctionName(int function) {
+        return functionNames.get(function);
+    }
+
+    // Address of the function's first instruction, or -1 when it is a built-in
+    public int getEntry(int function) {
+        return entries.get(function);
+    }
+
+    public Builtin getBuiltin(int function) {
+        return builtins[function];
+    }
+
+    public int getFunction(String name) {
+        Integer function = functions.get(name);
+
+        return function == null ? -1 : function;
+    }
+
+    // The function containing the given instruction address
+    public int getFunctionAt(int address) {
+        int result = -1;
+
+        for (int i = 0; i < entries.size(); i++) {
+            int entry = entries.get(i);
+
+            if (entry >= 0 && entry <= address && (result == -1 || entry > entries.get(result))) {
+                result = i;
+            }
+        }
+
+        return result;
+    }
+
+    public static Opcode getOpcode(int operation) {
+        return OPCODES[operation];
+    }
+
+    @Override
+    public void writePush(Segment segment, int index) {
+        switch (segment) {
+            case CONSTANT:
+                emit(PUSH_CONSTANT, index);
+                break;
+            case LOCAL:
+                emit(PUSH_LOCAL, index);
+                break;
+            case ARGUMENT:
+                emit(PUSH_ARGUMENT, index);
+                break;
+            case THIS:
+                emit(PUSH_THIS, index);
+                break;
+            case THAT:
+                emit(PUSH_THAT, index);
+                break;
+            default:
+                emit(PUSH_ADDRESS, getAddress(segment, index));
+        }
+    }
+
+    @Override
+    public void writePop(Segment segment, int index) {
+        switch (segment) {
+            case CONSTANT:
+                throw new IllegalArgumentException("Cannot pop to the constant segment");
+            case LOCAL:
+                emit(POP_LOCAL, index);
+                break;
+            case ARGUMENT:
+                emit(POP_ARGUMENT, index);
+                break;
+            case THIS:
+                emit(POP_THIS, index);
+                break;
+            case THAT:
+                emit(POP_THAT, index);
+                break;
+            default:
+                emit(POP_ADDRESS, getAddress(segment, index));
+        }
+    }
+
+    private int getAddress(Segment segment, int index) {
+        switch (segment) {
+            case POINTER:
+                if (index > 1) {
+                    throw new IllegalArgumentException("Invalid pointer index: " + index);
+                }
+                return Interpreter.THIS + index;
+            case TEMP:
+                if (index > 7) {
+                    throw new IllegalArgumentException("Invalid temp index: " + index);
+                }
+                return 5 + index;
+            default:
+                if (className == null) {
+                    throw new IllegalArgumentException("Static variable outside of a function");
+                }
+
+                String name = className + "." + index;
+                Integer address = statics.get(name);
+
+                if (address == null) {
+                    address = STATIC_START + statics.size();
+                    if (address >= STATIC_END) {
+                        throw new IllegalArgumentException("Too many static variables");
+                    }
+                    statics.put(name, address);
+                }
+
+                return address;
+        }
+    }
+
+    @Override
+    public void writeArithmetic(Opcode opcode) {
+        switch (opcode) {
+            case ADD:
+                emit(ADD, 0);
+                break;
+            case SUB:
+                emit(SUB, 0);
+                break;
+            case NEG:
+                emit(NEG, 0);
+                break;
+            case EQ:
+                emit(EQ, 0);
+                break;
+            case GT:
+                emit(GT, 0);
+                break;
+            case LT:
+                emit(LT, 0);
+                break;
+            case AND:
+                emit(AND, 0);
+                break;
+            case OR:
+                emit(OR, 0);
+                break;
+            case NOT:
+                emit(NOT, 0);
+                break;
+            default:
+                throw new IllegalArgumentException("Not an arithmetic command: " + opcode.getValue());
+        }
+    }
+
+    @Override
+    public void writeLabel(String label, int index) {
+        if (labels.put(getLabel(label, index), size) != null) {
+            throw new IllegalArgumentException("Duplicate label " + getLabel(label, index) + " in " + functionName);
+        }
+    }
+
+    @Override
+    public void writeGoto(String label, int index) {
+        emitJump(GOTO, label, index);
+    }
+
+    @Override
+    public void writeIf(String label, int index) {
+        emitJump(IF_GOTO, label, index);
+    }
+
+    private void emitJump(int operation, String label, int index) {
+        jumps.add(size);
+        jumpLabels.add(getLabel(label, index));
+        emit(operation, -1);
+    }
+
+    private static String getLabel(String label, int index) {
+        return index >= 0 ? label + index : label;
+    }
+
+    @Override
+    public void writeFunction(String className, String subroutineName, int localCount) {
+        endFunction();
+
+        String name = className + "." + subroutineName;
+        int function = getFunctionIndex(name);
+
+        if (entries.get(function) >= 0) {
+            throw new IllegalArgumentException("Duplicate function: " + name);
+        }
+
+        this.className = className;
+        this.functionName = name;
+        entries.set(function, size);
+        emit(FUNCTION, localCount);
+    }
+
+    // Labels are local to a function, so jumps are patched once its last instruction is known
+    private void endFunction() {
+        for (int i = 0; i < jumps.size(); i++) {
+            Integer target = labels.get(jumpLabels.get(i));
+
+            if (target == null) {
+                throw new IllegalArgumentException("Unknown label " + jumpLabels.get(i) + " in " + functionName);
+            }
+            code[jumps.get(i) * 2 + 1] = target;
+        }
+
+        labels.clear();
+        jumps.clear();
+        jumpLabels.clear();
+    }
+
+    @Override
+    public void writeCall(String className, String subroutineName, int argumentCount) {
+        if (argumentCount > ARGUMENT_MASK) {
+            throw new IllegalArgumentException("Too many arguments for " + className + "." + subroutineName);
+        }
+
+        emit(CALL, getFunctionIndex(className + "." + subroutineName) << ARGUMENT_BITS | argumentCount);
+    }
+
+    @Override
+    public void writeReturn() {
+        emit(RETURN, 0);
+    }
+
+    private int getFunctionIndex(String name) {
+        Integer function = functions.get(name);
+
+        if (function == null) {
+            function = functionNames.size();
+            functions.put(name, function);
+            functionNames.add(name);
+            entries.add(-1);
+        }
+
+        return function;
+    }
+
+    private void emit(int operation, int operand) {
+        if (linked) {
+            throw new IllegalStateException("Program is already linked");
+        }
+        if (functionName == null) {
+            throw new IllegalArgumentException("Instruction outside of a function");
+        }
+        if (size * 2 == code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+
+        code[size * 2] = operation;
+        code[size * 2 + 1] = operand;
+        size++;
+    }
+
+    @Override
+    public void flush() {
+    }
+}
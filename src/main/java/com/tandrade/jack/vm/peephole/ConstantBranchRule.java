@@ -0,0 +1,39 @@
+package com.tandrade.jack.vm.peephole;
+
+import java.util.List;
+
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.Segment;
+import com.tandrade.jack.vm.VMInstruction;
+
+// push constant 0; if-goto L => (nothing)
+// push constant 0; not; if-goto L => goto L
+public class ConstantBranchRule implements PeepholeRule {
+
+    @Override
+    public String getName() {
+        return "constant-branch";
+    }
+
+    @Override
+    public boolean apply(List<VMInstruction> code, int index) {
+        if (index + 1 >= code.size() || !code.get(index).is(Opcode.PUSH, Segment.CONSTANT, 0)) {
+            return false;
+        }
+
+        if (code.get(index + 1).is(Opcode.IF_GOTO)) {
+            code.subList(index, index + 2).clear();
+            return true;
+        }
+
+        if (index + 2 < code.size() && code.get(index + 1).is(Opcode.NOT) && code.get(index + 2).is(Opcode.IF_GOTO)) {
+            VMInstruction branch = code.get(index + 2);
+
+            code.subList(index, index + 3).clear();
+            code.add(index, VMInstruction.label(Opcode.GOTO, branch.getName(), branch.getIndex()));
+            return true;
+        }
+
+        return false;
+    }
+}
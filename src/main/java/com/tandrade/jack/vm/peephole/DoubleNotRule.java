@@ -0,0 +1,26 @@
+package com.tandrade.jack.vm.peephole;
+
+import java.util.List;
+
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.VMInstruction;
+
+// not; not => (nothing)
+public class DoubleNotRule implements PeepholeRule {
+
+    @Override
+    public String getName() {
+        return "double-not";
+    }
+
+    @Override
+    public boolean apply(List<VMInstruction> code, int index) {
+        if (index + 1 >= code.size() || !code.get(index).is(Opcode.NOT) || !code.get(index + 1).is(Opcode.NOT)) {
+            return false;
+        }
+
+        code.subList(index, index + 2).clear();
+
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package com.tandrade.jack.vm.peephole;
+
+import java.util.List;
+
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.VMInstruction;
+
+// if-goto A; goto B; label A => not; if-goto B; label A
+// Only applied to conditions known to be 0 or -1, since not is bitwise
+public class InvertedBranchRule implements PeepholeRule {
+
+    @Override
+    public String getName() {
+        return "inverted-branch";
+    }
+
+    @Override
+    public boolean apply(List<VMInstruction> code, int index) {
+        if (index + 2 >= code.size()) {
+            return false;
+        }
+
+        VMInstruction branch = code.get(index);
+        VMInstruction jump = code.get(index + 1);
+        VMInstruction label = code.get(index + 2);
+
+        if (!branch.is(Opcode.IF_GOTO) || !jump.is(Opcode.GOTO) || !label.is(Opcode.LABEL) || !branch.hasSameLabel(label)) {
+            return false;
+        }
+        if (!isBoolean(code, index - 1)) {
+            return false;
+        }
+
+        code.set(index, VMInstruction.arithmetic(Opcode.NOT));
+        code.set(index + 1, VMInstruction.label(Opcode.IF_GOTO, jump.getName(), jump.getIndex()));
+
+        return true;
+    }
+
+    private static boolean isBoolean(List<VMInstruction> code, int index) {
+        if (index < 0) {
+            return false;
+        }
+
+        VMInstruction instruction = code.get(index);
+
+        if (instruction.is(Opcode.NOT)) {
+            return isBoolean(code, index - 1);
+        }
+
+        return instruction.is(Opcode.EQ) || instruction.is(Opcode.GT) || instruction.is(Opcode.LT);
+    }
+}
@@ -0,0 +1,33 @@
+package com.tandrade.jack.vm.peephole;
+
+import java.util.List;
+
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.VMInstruction;
+
+// goto L; label L => label L
+public class JumpToNextRule implements PeepholeRule {
+
+    @Override
+    public String getName() {
+        return "jump-to-next";
+    }
+
+    @Override
+    public boolean apply(List<VMInstruction> code, int index) {
+        if (index + 1 >= code.size()) {
+            return false;
+        }
+
+        VMInstruction jump = code.get(index);
+        VMInstruction label = code.get(index + 1);
+
+        if (!jump.is(Opcode.GOTO) || !label.is(Opcode.LABEL) || !jump.hasSameLabel(label)) {
+            return false;
+        }
+
+        code.remove(index);
+
+        return true;
+    }
+}
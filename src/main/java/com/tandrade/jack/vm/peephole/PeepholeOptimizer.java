@@ -0,0 +1,137 @@
+package com.tandrade.jack.vm.peephole;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.tandrade.jack.vm.InstructionBuffer;
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.VMInstruction;
+import com.tandrade.jack.vm.VMWriter;
+
+public class PeepholeOptimizer extends InstructionBuffer {
+
+    public static final List<PeepholeRule> DEFAULT_RULES = Arrays.asList(
+        new DoubleNotRule(),
+        new ConstantBranchRule(),
+        new InvertedBranchRule(),
+        new PushPopRule(),
+        new JumpToNextRule(),
+        new UnreachableCodeRule(),
+        new UnusedLabelRule()
+    );
+
+    private VMWriter target;
+    private List<PeepholeRule> rules;
+    private Map<String, Integer> removedCounts;
+
+    public PeepholeOptimizer(VMWriter target) {
+        this(target, DEFAULT_RULES);
+    }
+
+    public PeepholeOptimizer(VMWriter target, List<PeepholeRule> rules) {
+        this.target = target;
+        this.rules = rules;
+        this.removedCounts = new LinkedHashMap<>();
+
+        for (PeepholeRule rule : rules) {
+            removedCounts.put(rule.getName(), 0);
+        }
+    }
+
+    // Optimizes into another writer, dropping anything not yet flushed and counting from 0 again
+    public void reset(VMWriter target) {
+        this.target = target;
+        clear();
+        removedCounts.replaceAll((rule, count) -> 0);
+    }
+
+    public Map<String, Integer> getRemovedCounts() {
+        return removedCounts;
+    }
+
+    @Override
+    public void writeFunction(String className, String subroutineName, int localCount) {
+        // Labels are local to a function, so each function is optimized on its own
+        optimize();
+        super.writeFunction(className, subroutineName, localCount);
+    }
+
+    @Override
+    public void flush() {
+        optimize();
+        target.flush();
+    }
+
+    private void optimize() {
+        List<VMInstruction> code = getInstructions();
+        // The rule that removed the last jump to each label, which is credited with the label once it is dropped
+        Map<String, String> orphanedBy = new HashMap<>();
+        Set<String> targets = getTargets(code);
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+
+            for (int i = 0; i < code.size(); i++) {
+                for (PeepholeRule rule : rules) {
+                    int size = code.size();
+
+                    if (i >= size) {
+                        break;
+                    }
+
+                    VMInstruction first = code.get(i);
+
+                    if (!rule.apply(code, i)) {
+                        continue;
+                    }
+
+                    int removed = size - code.size();
+
+                    if (first.is(Opcode.LABEL) && (i >= code.size() || code.get(i) != first)) {
+                        String enabler = orphanedBy.get(getTarget(first));
+
+                        if (enabler != null) {
+                            removedCounts.merge(enabler, 1, Integer::sum);
+                            removed--;
+                        }
+                    }
+                    removedCounts.merge(rule.getName(), removed, Integer::sum);
+
+                    Set<String> remaining = getTargets(code);
+                    for (String target : targets) {
+                        if (!remaining.contains(target)) {
+                            orphanedBy.put(target, rule.getName());
+                        }
+                    }
+                    targets = remaining;
+                    changed = true;
+                }
+            }
+        }
+
+        replay(target);
+        clear();
+    }
+
+    private static Set<String> getTargets(List<VMInstruction> code) {
+        Set<String> targets = new HashSet<>();
+
+        for (VMInstruction instruction : code) {
+            if (instruction.isJump()) {
+                targets.add(getTarget(instruction));
+            }
+        }
+
+        return targets;
+    }
+
+    private static String getTarget(VMInstruction instruction) {
+        return instruction.getName() + ":" + instruction.getIndex();
+    }
+}
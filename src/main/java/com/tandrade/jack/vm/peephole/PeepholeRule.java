@@ -0,0 +1,13 @@
+package com.tandrade.jack.vm.peephole;
+
+import java.util.List;
+
+import com.tandrade.jack.vm.VMInstruction;
+
+public interface PeepholeRule {
+
+    String getName();
+
+    // Rewrites the code starting at index, returning whether anything changed
+    boolean apply(List<VMInstruction> code, int index);
+}
@@ -0,0 +1,33 @@
+package com.tandrade.jack.vm.peephole;
+
+import java.util.List;
+
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.VMInstruction;
+
+// push x; pop x => (nothing)
+public class PushPopRule implements PeepholeRule {
+
+    @Override
+    public String getName() {
+        return "push-pop";
+    }
+
+    @Override
+    public boolean apply(List<VMInstruction> code, int index) {
+        if (index + 1 >= code.size()) {
+            return false;
+        }
+
+        VMInstruction push = code.get(index);
+        VMInstruction pop = code.get(index + 1);
+
+        if (!push.is(Opcode.PUSH) || !pop.is(Opcode.POP, push.getSegment(), push.getIndex())) {
+            return false;
+        }
+
+        code.subList(index, index + 2).clear();
+
+        return true;
+    }
+}
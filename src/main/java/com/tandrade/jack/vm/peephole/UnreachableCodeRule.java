@@ -0,0 +1,35 @@
+package com.tandrade.jack.vm.peephole;
+
+import java.util.List;
+
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.VMInstruction;
+
+// Drops everything between a goto or return and the next label
+public class UnreachableCodeRule implements PeepholeRule {
+
+    @Override
+    public String getName() {
+        return "unreachable-code";
+    }
+
+    @Override
+    public boolean apply(List<VMInstruction> code, int index) {
+        if (!code.get(index).is(Opcode.GOTO) && !code.get(index).is(Opcode.RETURN)) {
+            return false;
+        }
+
+        int end = index + 1;
+        while (end < code.size() && !code.get(end).is(Opcode.LABEL) && !code.get(end).is(Opcode.FUNCTION)) {
+            end++;
+        }
+
+        if (end == index + 1) {
+            return false;
+        }
+
+        code.subList(index + 1, end).clear();
+
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package com.tandrade.jack.vm.peephole;
+
+import java.util.List;
+
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.VMInstruction;
+
+// Drops labels that no jump in the function refers to
+public class UnusedLabelRule implements PeepholeRule {
+
+    @Override
+    public String getName() {
+        return "unused-label";
+    }
+
+    @Override
+    public boolean apply(List<VMInstruction> code, int index) {
+        VMInstruction label = code.get(index);
+
+        if (!label.is(Opcode.LABEL)) {
+            return false;
+        }
+
+        for (VMInstruction instruction : code) {
+            if (instruction.isJump() && instruction.hasSameLabel(label)) {
+                return false;
+            }
+        }
+
+        code.remove(index);
+
+        return true;
+    }
+}
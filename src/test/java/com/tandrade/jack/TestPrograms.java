@@ -0,0 +1,113 @@
+package com.tandrade.jack;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.tandrade.jack.parser.syntax.InMemoryCompiler;
+import com.tandrade.jack.vm.interpreter.Interpreter;
+import com.tandrade.jack.vm.interpreter.Program;
+
+// Sample programs and expected outputs kept under src/test/resources, and a way to run Jack classes on the
+// interpreter to compare what differently compiled code does
+public class TestPrograms {
+    public static final List<String> PROGRAMS = List.of("Square", "Misc", "Tok");
+    // Programs that compile, Tok only exercises the tokenizer
+    public static final List<String> COMPILED_PROGRAMS = List.of("Square", "Misc");
+
+    private static final long MAX_INSTRUCTIONS = 10_000_000;
+    private static final Pattern CLASS_NAME = Pattern.compile("class\\s+(\\w+)");
+
+    private TestPrograms() {
+    }
+
+    public static Path resource(String path) {
+        try {
+            return Paths.get(TestPrograms.class.getResource(path).toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    // The .jack files of a sample program, copied into the directory so builds can write next to them
+    public static Path copyProgram(String program, Path directory) throws IOException {
+        Path target = directory.resolve(program);
+
+        Files.createDirectories(target);
+        for (Path source : list(resource("programs/" + program), ".jack")) {
+            Files.copy(source, target.resolve(source.getFileName()));
+        }
+
+        return target;
+    }
+
+    public static List<Path> list(Path directory, String extension) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(extension)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    public static String read(Path file) {
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Compiles the classes and runs Main.main, returning what the program printed
+    public static String run(boolean optimize, String... classes) {
+        return run(optimize, false, classes);
+    }
+
+    public static String run(boolean optimize, boolean poolStrings, String... classes) {
+        Program program = new Program();
+        InMemoryCompiler compiler = new InMemoryCompiler();
+
+        compiler.setOptimize(optimize);
+        compiler.setPoolStrings(poolStrings);
+        for (String source : classes) {
+            compiler.compile(source, program);
+        }
+        program.link();
+
+        return run(program);
+    }
+
+    // Runs the .vm files of a directory, as a build wrote them, returning what the program printed
+    public static String runDirectory(Path directory) throws IOException {
+        return run(Program.load(directory.toFile()));
+    }
+
+    // Runs a linked program, returning what it printed
+    public static String run(Program program) {
+        Interpreter interpreter = new Interpreter(program);
+        interpreter.run(MAX_INSTRUCTIONS);
+
+        return interpreter.getOperatingSystem().getOutput();
+    }
+
+    // Writes each class to <name>.jack in the directory, creating it
+    public static Path writeClasses(Path directory, String... classes) throws IOException {
+        Files.createDirectories(directory);
+        for (String source : classes) {
+            Matcher name = CLASS_NAME.matcher(source);
+
+            if (!name.find()) {
+                throw new IllegalArgumentException("Not a class: " + source);
+            }
+            Files.write(directory.resolve(name.group(1) + ".jack"), source.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        return directory;
+    }
+}
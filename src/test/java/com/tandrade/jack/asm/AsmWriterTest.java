@@ -0,0 +1,155 @@
+package com.tandrade.jack.asm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.tandrade.jack.TestPrograms;
+import com.tandrade.jack.build.Build;
+import com.tandrade.jack.build.CompilerOptions;
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.Segment;
+
+public class AsmWriterTest {
+    private static final int MAX_INSTRUCTIONS = 1_000_000;
+    // Above the 243 static slots the cases take, which would run into a stack at the usual 256
+    private static final int STACK = 1024;
+
+    private static final int[] VALUES = { -32768, -20000, -2, -1, 0, 1, 2, 20000, 32767 };
+    private static final Opcode[] COMPARISONS = { Opcode.EQ, Opcode.GT, Opcode.LT };
+
+    @TempDir
+    Path directory;
+
+    // Every pair of extreme values, where subtracting them overflows whenever their signs differ
+    @ParameterizedTest(name = "compact {0}")
+    @ValueSource(booleans = { false, true })
+    public void comparesAcrossTheWholeRange(boolean compact) {
+        AsmWriter writer = new AsmWriter(compact);
+        List<String> cases = new ArrayList<>();
+
+        writer.writeFunction("Test", "run", 0);
+        for (int x : VALUES) {
+            for (int y : VALUES) {
+                for (Opcode comparison : COMPARISONS) {
+                    writeConstant(writer, x);
+                    writeConstant(writer, y);
+                    writer.writeArithmetic(comparison);
+                    writer.writePop(Segment.STATIC, cases.size());
+                    cases.add(x + " " + comparison.getValue() + " " + y);
+                }
+            }
+        }
+        AsmWriter routines = new AsmWriter(compact);
+        if (compact) {
+            routines.writeRoutines();
+        }
+
+        String n = System.lineSeparator();
+        HackEmulator emulator = new HackEmulator("@" + STACK + n + "D=A" + n + "@SP" + n + "M=D" + n + writer
+                + "(END)" + n + "@END" + n + "0;JMP" + n + routines);
+        emulator.runTo("END", MAX_INSTRUCTIONS);
+
+        int index = 0;
+        for (int x : VALUES) {
+            for (int y : VALUES) {
+                for (Opcode comparison : COMPARISONS) {
+                    int expected = compare(comparison, x, y) ? -1 : 0;
+
+                    assertEquals(expected, emulator.peek(emulator.getSymbol("Test." + index)), cases.get(index));
+                    index++;
+                }
+            }
+        }
+        assertEquals(STACK, emulator.peek(0));
+    }
+
+    // A whole program built from the command line, with calls of zero to three arguments and recursion, and no
+    // operating system to call into
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = { "--asm", "--asm-compact" })
+    public void runsAProgramOfSeveralFunctions(String option) throws Exception {
+        Path input = directory.resolve("Calls");
+        Files.createDirectories(input);
+        write(input.resolve("Sys.jack"),
+                "class Sys {\n"
+                + "  function void init() {\n"
+                + "    do Main.main();\n"
+                + "    return;\n"
+                + "  }\n"
+                + "}\n");
+        write(input.resolve("Main.jack"),
+                "class Main {\n"
+                + "  static int fib, sum, zero, max;\n"
+                + "  function void main() {\n"
+                + "    let fib = Main.fib(10);\n"
+                + "    let sum = Main.sum(1, 2, 3);\n"
+                + "    let zero = Main.zero();\n"
+                + "    let max = Main.max(-5, 7);\n"
+                + "    return;\n"
+                + "  }\n"
+                + "  function int fib(int n) {\n"
+                + "    if (n < 2) {\n"
+                + "      return n;\n"
+                + "    }\n"
+                + "    return Main.fib(n - 1) + Main.fib(n - 2);\n"
+                + "  }\n"
+                + "  function int sum(int a, int b, int c) {\n"
+                + "    return a + b + c;\n"
+                + "  }\n"
+                + "  function int zero() {\n"
+                + "    return 0;\n"
+                + "  }\n"
+                + "  function int max(int a, int b) {\n"
+                + "    if (a > b) {\n"
+                + "      return a;\n"
+                + "    }\n"
+                + "    return b;\n"
+                + "  }\n"
+                + "}\n");
+
+        assertEquals(List.of(), new Build(CompilerOptions.parse(new String[] { option, input.toString() })).run());
+
+        HackEmulator emulator = new HackEmulator(TestPrograms.read(input.resolve("Calls.asm")));
+        emulator.runTo("$$HALT", MAX_INSTRUCTIONS);
+
+        assertEquals(55, emulator.peek(emulator.getSymbol("Main.0")));
+        assertEquals(6, emulator.peek(emulator.getSymbol("Main.1")));
+        assertEquals(0, emulator.peek(emulator.getSymbol("Main.2")));
+        assertEquals(7, emulator.peek(emulator.getSymbol("Main.3")));
+        // Only what Sys.init returned is left on the stack
+        assertEquals(257, emulator.peek(0));
+    }
+
+    private static boolean compare(Opcode comparison, int x, int y) {
+        switch (comparison) {
+            case EQ:
+                return x == y;
+            case GT:
+                return x > y;
+            default:
+                return x < y;
+        }
+    }
+
+    private static void writeConstant(AsmWriter writer, int value) {
+        if (value >= 0) {
+            writer.writePush(Segment.CONSTANT, value);
+        } else {
+            writer.writePush(Segment.CONSTANT, ~value);
+            writer.writeArithmetic(Opcode.NOT);
+        }
+    }
+
+    private static void write(Path file, String source) throws Exception {
+        Files.write(file, source.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
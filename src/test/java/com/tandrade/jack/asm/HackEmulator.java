@@ -0,0 +1,204 @@
+package com.tandrade.jack.asm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Assembles Hack assembly and runs it on a 16-bit Hack CPU, to check what the generated assembly computes
+public class HackEmulator {
+    private static final int RAM_SIZE = 32768;
+    private static final int FIRST_VARIABLE = 16;
+
+    private Map<String, Integer> symbols;
+    private List<String> program;
+    private int[] ram;
+    private int a;
+    private int d;
+    private int pc;
+
+    public HackEmulator(String assembly) {
+        this.symbols = new HashMap<>();
+        this.program = new ArrayList<>();
+        this.ram = new int[RAM_SIZE];
+        this.a = 0;
+        this.d = 0;
+        this.pc = 0;
+
+        String[] predefined = { "SP", "LCL", "ARG", "THIS", "THAT" };
+        for (int i = 0; i < predefined.length; i++) {
+            symbols.put(predefined[i], i);
+        }
+        for (int i = 0; i < 16; i++) {
+            symbols.put("R" + i, i);
+        }
+        symbols.put("SCREEN", 16384);
+        symbols.put("KBD", 24576);
+
+        assemble(assembly);
+    }
+
+    private void assemble(String assembly) {
+        List<String> instructions = new ArrayList<>();
+
+        for (String line : assembly.split("\\R")) {
+            int comment = line.indexOf("//");
+            String instruction = (comment == -1 ? line : line.substring(0, comment)).trim();
+
+            if (instruction.isEmpty()) {
+                continue;
+            }
+            if (instruction.startsWith("(")) {
+                String label = instruction.substring(1, instruction.length() - 1);
+
+                if (symbols.put(label, instructions.size()) != null) {
+                    throw new IllegalArgumentException("Duplicate label: " + label);
+                }
+                continue;
+            }
+            instructions.add(instruction);
+        }
+
+        int variable = FIRST_VARIABLE;
+        for (String instruction : instructions) {
+            if (instruction.startsWith("@") && !Character.isDigit(instruction.charAt(1))
+                    && !symbols.containsKey(instruction.substring(1))) {
+                symbols.put(instruction.substring(1), variable++);
+            }
+        }
+
+        program.addAll(instructions);
+    }
+
+    public int getSymbol(String symbol) {
+        Integer value = symbols.get(symbol);
+
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown symbol: " + symbol);
+        }
+
+        return value;
+    }
+
+    public int peek(int address) {
+        return ram[address];
+    }
+
+    // Runs until the label is reached, failing after the given number of instructions
+    public void runTo(String label, int maxInstructions) {
+        int end = getSymbol(label);
+
+        for (int i = 0; i < maxInstructions; i++) {
+            if (pc == end) {
+                return;
+            }
+            step(program.get(pc));
+        }
+
+        throw new IllegalStateException("Did not reach " + label + " in " + maxInstructions + " instructions");
+    }
+
+    private void step(String instruction) {
+        if (instruction.startsWith("@")) {
+            String value = instruction.substring(1);
+
+            a = Character.isDigit(value.charAt(0)) ? Integer.parseInt(value) : symbols.get(value);
+            pc++;
+            return;
+        }
+
+        int equals = instruction.indexOf('=');
+        int semicolon = instruction.indexOf(';');
+        String dest = equals == -1 ? "" : instruction.substring(0, equals);
+        String comp = instruction.substring(equals + 1, semicolon == -1 ? instruction.length() : semicolon);
+        String jump = semicolon == -1 ? "" : instruction.substring(semicolon + 1);
+
+        int address = a;
+        int result = (short) compute(comp);
+
+        if (dest.contains("M")) {
+            ram[address] = result;
+        }
+        if (dest.contains("A")) {
+            a = result & 0x7FFF;
+        }
+        if (dest.contains("D")) {
+            d = result;
+        }
+
+        pc = jumps(jump, result) ? address : pc + 1;
+    }
+
+    private int compute(String comp) {
+        // A and M take the same place in a computation
+        int y = comp.contains("M") ? ram[a] : a;
+        String normalized = comp.replace('M', 'A');
+
+        switch (normalized) {
+            case "0":
+                return 0;
+            case "1":
+                return 1;
+            case "-1":
+                return -1;
+            case "D":
+                return d;
+            case "A":
+                return y;
+            case "!D":
+                return ~d;
+            case "!A":
+                return ~y;
+            case "-D":
+                return -d;
+            case "-A":
+                return -y;
+            case "D+1":
+                return d + 1;
+            case "A+1":
+                return y + 1;
+            case "D-1":
+                return d - 1;
+            case "A-1":
+                return y - 1;
+            case "D+A":
+            case "A+D":
+                return d + y;
+            case "D-A":
+                return d - y;
+            case "A-D":
+                return y - d;
+            case "D&A":
+            case "A&D":
+                return d & y;
+            case "D|A":
+            case "A|D":
+                return d | y;
+            default:
+                throw new IllegalArgumentException("Invalid computation: " + comp);
+        }
+    }
+
+    private static boolean jumps(String jump, int value) {
+        switch (jump) {
+            case "":
+                return false;
+            case "JGT":
+                return value > 0;
+            case "JEQ":
+                return value == 0;
+            case "JGE":
+                return value >= 0;
+            case "JLT":
+                return value < 0;
+            case "JNE":
+                return value != 0;
+            case "JLE":
+                return value <= 0;
+            case "JMP":
+                return true;
+            default:
+                throw new IllegalArgumentException("Invalid jump: " + jump);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.tandrade.jack.build;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.tandrade.jack.TestPrograms;
+
+public class BuildCacheTest {
+    private static final int BUILDS = 8;
+    private static final int SAVES = 50;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void keepsWhatWasSaved() throws Exception {
+        BuildCache cache = BuildCache.load(directory, "stamp");
+        byte[] hash = BuildCache.hash("class A {}".getBytes(StandardCharsets.ISO_8859_1));
+        Path output = Files.createFile(directory.resolve("A.vm"));
+
+        cache.update(directory.resolve("A.jack"), hash);
+        cache.save();
+
+        assertTrue(BuildCache.load(directory, "stamp").isUpToDate(directory.resolve("A.jack"), hash, output));
+        assertFalse(BuildCache.load(directory, "other").isUpToDate(directory.resolve("A.jack"), hash, output));
+    }
+
+    // Builds of the same directory running at once each save the whole index; the last one wins, intact
+    @Test
+    public void savesFromSeveralBuildsAtOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(BUILDS);
+        List<Future<Void>> saves = new ArrayList<>();
+
+        try {
+            for (int build = 0; build < BUILDS; build++) {
+                BuildCache cache = BuildCache.load(directory, "stamp");
+
+                for (int i = 0; i < BUILDS; i++) {
+                    cache.update(directory.resolve("C" + i + ".jack"), BuildCache.hash(new byte[] { (byte) i }));
+                }
+                saves.add(executor.submit((Callable<Void>) () -> {
+                    for (int i = 0; i < SAVES; i++) {
+                        cache.save();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> save : saves) {
+                save.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        BuildCache cache = BuildCache.load(directory, "stamp");
+        for (int i = 0; i < BUILDS; i++) {
+            Path output = Files.createFile(directory.resolve("C" + i + ".vm"));
+
+            assertTrue(cache.isUpToDate(directory.resolve("C" + i + ".jack"), BuildCache.hash(new byte[] { (byte) i }), output));
+        }
+        assertEquals(List.of(), TestPrograms.list(directory, ".tmp"));
+    }
+}
@@ -0,0 +1,159 @@
+package com.tandrade.jack.build;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.tandrade.jack.TestPrograms;
+import com.tandrade.jack.parser.syntax.CompilationEngine;
+
+public class BuildWatcherTest {
+    // How long a change may take to be seen, far above what it takes unless the machine is very busy
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @TempDir
+    Path directory;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        write("A", 1);
+        write("B", 2);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    // Saving touches a file several times, and changes coming together are one burst that names each file once
+    @Test
+    public void reportsABurstOfChangesOnce() throws Exception {
+        try (BuildWatcher watcher = watcher()) {
+            Future<List<File>> changed = executor.submit(watcher::take);
+
+            write("A", 3);
+            write("A", 4);
+            write("C", 5);
+            Files.delete(directory.resolve("B.jack"));
+
+            assertEquals(List.of(source("A"), source("B"), source("C")), changed.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    // Builds write .vm files, their cache and temporary files next to the sources, none of which is a change
+    @Test
+    public void ignoresWhatTheBuildWrites() throws Exception {
+        try (BuildWatcher watcher = watcher()) {
+            Files.write(directory.resolve("A.vm"), new byte[0]);
+            Files.write(directory.resolve(BuildCache.FILENAME), new byte[0]);
+            Files.write(directory.resolve("A.vm." + ProcessHandle.current().pid() + ".1.tmp"), new byte[0]);
+            Files.delete(directory.resolve("A.vm"));
+            write("B", 3);
+
+            assertEquals(List.of(source("B")), executor.submit(watcher::take).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    public void closingEndsAWaitingTake() throws Exception {
+        Future<List<File>> changed;
+
+        try (BuildWatcher watcher = watcher()) {
+            changed = executor.submit(watcher::take);
+            Thread.sleep(100);
+        }
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> changed.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertInstanceOf(ClosedWatchServiceException.class, e.getCause());
+    }
+
+    // --watch builds everything, then rebuilds an edited class and removes the output of a deleted one, until the
+    // thread running it is interrupted
+    @Test
+    public void watchRebuildsEditedClasses() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(output, true, StandardCharsets.ISO_8859_1);
+        Future<Integer> watch = executor.submit(() -> CompilationEngine.run(
+                new String[] { "--watch", directory.toString() }, null, null, out, out));
+
+        assertTrue(await(() -> output.toString(StandardCharsets.ISO_8859_1).contains("watching"), TIMEOUT_MILLIS),
+                output.toString(StandardCharsets.ISO_8859_1));
+        assertTrue(read("A").contains("push constant 1"));
+
+        write("A", 3);
+        assertTrue(await(() -> read("A").contains("push constant 3"), TIMEOUT_MILLIS), read("A"));
+
+        Files.delete(directory.resolve("B.jack"));
+        assertTrue(await(() -> !Files.exists(directory.resolve("B.vm")), TIMEOUT_MILLIS));
+
+        // Writing A.vm did not start another build
+        Thread.sleep(100);
+        String log = output.toString(StandardCharsets.ISO_8859_1);
+        assertEquals(1, log.split("rebuilt", -1).length - 1, log);
+
+        watch.cancel(true);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertFalse(Files.exists(directory.resolve("B.vm")));
+    }
+
+    private BuildWatcher watcher() throws Exception {
+        return new BuildWatcher(CompilerOptions.parse(new String[] { "--watch", directory.toString() }));
+    }
+
+    private File source(String className) {
+        return new File(directory.toFile(), className + ".jack");
+    }
+
+    private void write(String className, int value) throws Exception {
+        String source = "class " + className + " {\n  function int f() {\n    return " + value + ";\n  }\n}\n";
+
+        Files.write(directory.resolve(className + ".jack"), source.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private String read(String className) {
+        Path file = directory.resolve(className + ".vm");
+
+        return Files.exists(file) ? TestPrograms.read(file) : "";
+    }
+
+    // Polls until the condition holds, returning false when it still does not after the given time
+    private static boolean await(BooleanSupplier condition, long millis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+
+        return true;
+    }
+}
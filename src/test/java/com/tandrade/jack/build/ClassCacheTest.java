@@ -0,0 +1,74 @@
+package com.tandrade.jack.build;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import com.tandrade.jack.parser.ast.ClassNode;
+import com.tandrade.jack.parser.syntax.InMemoryCompiler;
+
+public class ClassCacheTest {
+    private static final byte[] HASH = { 1 };
+
+    @Test
+    public void reusesAClassOnlyForTheSameHash() {
+        ClassCache cache = new ClassCache();
+        ClassNode node = parse("A");
+
+        cache.put(source("A"), HASH, node);
+
+        assertSame(node, cache.get(source("A"), HASH));
+        assertNull(cache.get(source("A"), new byte[] { 2 }));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void dropsTheClassUsedLeastRecently() {
+        ClassCache cache = new ClassCache(2);
+        ClassNode a = parse("A");
+
+        cache.put(source("A"), HASH, a);
+        cache.put(source("B"), HASH, parse("B"));
+        cache.get(source("A"), HASH);
+        cache.put(source("C"), HASH, parse("C"));
+
+        assertEquals(2, cache.size());
+        assertSame(a, cache.get(source("A"), HASH));
+        assertNull(cache.get(source("B"), HASH));
+    }
+
+    // A source parsed again after an edit takes the place of its old class
+    @Test
+    public void keepsOneClassPerSource() {
+        ClassCache cache = new ClassCache(2);
+        ClassNode edited = parse("A");
+
+        cache.put(source("A"), HASH, parse("A"));
+        cache.put(source("B"), HASH, parse("B"));
+        cache.put(source("A"), new byte[] { 2 }, edited);
+
+        assertEquals(2, cache.size());
+        assertSame(edited, cache.get(source("A"), new byte[] { 2 }));
+        assertEquals("B", cache.get(source("B"), HASH).getName());
+    }
+
+    @Test
+    public void rejectsACapacityOfZero() {
+        assertThrows(IllegalArgumentException.class, () -> new ClassCache(0));
+    }
+
+    private static Path source(String className) {
+        return Paths.get(className + ".jack");
+    }
+
+    private static ClassNode parse(String className) {
+        return new InMemoryCompiler().parse("class " + className + " { }");
+    }
+}
@@ -0,0 +1,137 @@
+package com.tandrade.jack.build;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.tandrade.jack.TestPrograms;
+import com.tandrade.jack.parser.syntax.CompilationEngine;
+import com.tandrade.jack.parser.syntax.InMemoryCompiler;
+import com.tandrade.jack.parser.token.NamePool;
+import com.tandrade.jack.vm.StreamVMWriter;
+
+// Every way of building a sample program writes exactly the expected .vm files. The default output is the
+// original compiler's, except that integer constants are written without leading zeros; the -O output is what
+// the optimizer produced when last reviewed, so any change to it has to be looked at.
+public class GoldenOutputTest {
+
+    @TempDir
+    Path directory;
+
+    static Stream<Arguments> builds() {
+        List<Arguments> builds = new ArrayList<>();
+
+        for (String program : TestPrograms.COMPILED_PROGRAMS) {
+            builds.add(Arguments.of(program, "default", ""));
+            builds.add(Arguments.of(program, "default", "--mmap"));
+            builds.add(Arguments.of(program, "default", "-j 4"));
+            builds.add(Arguments.of(program, "default", "--stats"));
+            builds.add(Arguments.of(program, "default", "--pipeline"));
+            builds.add(Arguments.of(program, "optimized", "-O"));
+            builds.add(Arguments.of(program, "optimized", "-O --mmap -j 4"));
+        }
+
+        return builds.stream();
+    }
+
+    @ParameterizedTest(name = "{0} {2}")
+    @MethodSource("builds")
+    public void writesExpectedCode(String program, String expected, String arguments) throws Exception {
+        Path input = TestPrograms.copyProgram(program, directory);
+
+        assertEquals(List.of(), build(arguments, input));
+        assertMatchesGolden(expected, program, input);
+    }
+
+    @ParameterizedTest(name = "{0} {2}")
+    @MethodSource("builds")
+    public void incrementalRebuildKeepsExpectedCode(String program, String expected, String arguments) throws Exception {
+        Path input = TestPrograms.copyProgram(program, directory);
+        String incremental = (arguments + " --incremental").trim();
+
+        assertEquals(List.of(), build(incremental, input));
+        assertEquals(List.of(), build(incremental, input));
+        assertMatchesGolden(expected, program, input);
+    }
+
+    // The engine and the in-memory compiler that embedders and benchmarks use have to write what the command line does
+    static Stream<Arguments> classCompilers() {
+        List<Arguments> compilers = new ArrayList<>();
+
+        for (String program : TestPrograms.COMPILED_PROGRAMS) {
+            compilers.add(Arguments.of(program, "default", false));
+            compilers.add(Arguments.of(program, "optimized", true));
+        }
+
+        return compilers.stream();
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("classCompilers")
+    public void engineWritesWhatBuildDoes(String program, String expected, boolean optimize) throws IOException {
+        Path input = TestPrograms.copyProgram(program, directory);
+
+        for (Path source : TestPrograms.list(input, ".jack")) {
+            StreamVMWriter writer = new StreamVMWriter();
+
+            try (CompilationEngine engine = new CompilationEngine(source.toFile(), false, new NamePool(), writer)) {
+                engine.setOptimize(optimize);
+                engine.compileClass();
+            }
+            Files.write(Build.getOutputPath(source.toFile()), writer.toByteArray());
+        }
+
+        assertMatchesGolden(expected, program, input);
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("classCompilers")
+    public void inMemoryCompilerWritesWhatBuildDoes(String program, String expected, boolean optimize) throws IOException {
+        Path input = TestPrograms.copyProgram(program, directory);
+        InMemoryCompiler compiler = new InMemoryCompiler();
+
+        compiler.setOptimize(optimize);
+        for (Path source : TestPrograms.list(input, ".jack")) {
+            StreamVMWriter writer = new StreamVMWriter();
+
+            compiler.compile(TestPrograms.read(source), writer);
+            Files.write(Build.getOutputPath(source.toFile()), writer.toByteArray());
+        }
+
+        assertMatchesGolden(expected, program, input);
+    }
+
+    private static List<BuildError> build(String arguments, Path input) throws IOException, InterruptedException {
+        List<String> args = new ArrayList<>();
+
+        if (!arguments.isEmpty()) {
+            args.addAll(List.of(arguments.split(" ")));
+        }
+        args.add(input.toString());
+
+        return new Build(CompilerOptions.parse(args.toArray(new String[0]))).run();
+    }
+
+    private static void assertMatchesGolden(String expected, String program, Path output) throws IOException {
+        List<Path> golden = TestPrograms.list(TestPrograms.resource("golden/" + expected + "/" + program), ".vm");
+
+        assertEquals(golden.size(), TestPrograms.list(output, ".vm").size());
+        for (Path file : golden) {
+            Path actual = output.resolve(file.getFileName());
+
+            assertTrue(Files.exists(actual), actual + " was not written");
+            assertEquals(TestPrograms.read(file), TestPrograms.read(actual), file.getFileName().toString());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.tandrade.jack.build;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.tandrade.jack.TestPrograms;
+
+// --whole-program keeps what Sys.init and Main.main can reach, including through library .vm files without
+// Jack source, and leaves out every other subroutine
+public class WholeProgramTest {
+
+    private static final String SYS =
+            "class Sys {\n"
+            + "  function void init() {\n"
+            + "    do Sys.greet();\n"
+            + "    do Main.main();\n"
+            + "    return;\n"
+            + "  }\n"
+            + "  function void greet() {\n"
+            + "    do Output.printInt(1);\n"
+            + "    do Output.printChar(44);\n"
+            + "    return;\n"
+            + "  }\n"
+            + "  function void halt() {\n"
+            + "    return;\n"
+            + "  }\n"
+            + "}\n";
+
+    private static final String MAIN =
+            "class Main {\n"
+            + "  function void main() {\n"
+            + "    do Lib.run();\n"
+            + "    return;\n"
+            + "  }\n"
+            + "  function void unused() {\n"
+            + "    do Output.printInt(Util.twice(1));\n"
+            + "    return;\n"
+            + "  }\n"
+            + "}\n";
+
+    // Only Lib calls the constructor, get and helper
+    private static final String UTIL =
+            "class Util {\n"
+            + "  field int value;\n"
+            + "  constructor Util new(int v) {\n"
+            + "    let value = v;\n"
+            + "    return this;\n"
+            + "  }\n"
+            + "  method int get() {\n"
+            + "    return value;\n"
+            + "  }\n"
+            + "  function int helper(int a) {\n"
+            + "    return a + 1;\n"
+            + "  }\n"
+            + "  function int twice(int a) {\n"
+            + "    return a + a;\n"
+            + "  }\n"
+            + "}\n";
+
+    private static final String LIB =
+            "function Lib.run 1\n"
+            + "push constant 5\n"
+            + "call Util.new 1\n"
+            + "pop local 0\n"
+            + "push local 0\n"
+            + "call Util.get 1\n"
+            + "call Util.helper 1\n"
+            + "call Output.printInt 1\n"
+            + "pop temp 0\n"
+            + "push constant 0\n"
+            + "return\n";
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = { "--whole-program", "-O --whole-program" })
+    public void keepsOnlyReachableSubroutines(String arguments) throws Exception {
+        Path input = TestPrograms.writeClasses(directory.resolve("Program"), SYS, MAIN, UTIL);
+        Build build = build(arguments, input);
+
+        assertEquals(List.of("Main.unused", "Sys.halt", "Util.twice"), build.getRemovedFunctions());
+        assertEquals(List.of("Lib.run", "Main.main", "Sys.init", "Sys.greet", "Util.new", "Util.get", "Util.helper"),
+                functions(input));
+        assertEquals("1,6", TestPrograms.runDirectory(input));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = { "--whole-program", "-O --whole-program" })
+    public void startsFromMainWithoutSys(String arguments) throws Exception {
+        Path input = TestPrograms.writeClasses(directory.resolve("Program"), MAIN, UTIL);
+        Build build = build(arguments, input);
+
+        assertEquals(List.of("Main.unused", "Util.twice"), build.getRemovedFunctions());
+        assertEquals(List.of("Lib.run", "Main.main", "Util.new", "Util.get", "Util.helper"), functions(input));
+        assertEquals("6", TestPrograms.runDirectory(input));
+    }
+
+    // Builds the classes in the directory together with Lib.vm
+    private static Build build(String arguments, Path input) throws Exception {
+        Files.write(input.resolve("Lib.vm"), LIB.getBytes(StandardCharsets.ISO_8859_1));
+
+        List<String> args = new ArrayList<>(List.of(arguments.split(" ")));
+        args.add(input.toString());
+        Build build = new Build(CompilerOptions.parse(args.toArray(new String[0])));
+
+        assertEquals(List.of(), build.run());
+
+        return build;
+    }
+
+    // The functions in the directory's .vm files, by file and then in the order they are written
+    private static List<String> functions(Path directory) throws Exception {
+        List<String> functions = new ArrayList<>();
+
+        for (Path file : TestPrograms.list(directory, ".vm")) {
+            for (String line : TestPrograms.read(file).split("\n")) {
+                if (line.startsWith("function ")) {
+                    functions.add(line.split(" ")[1]);
+                }
+            }
+        }
+
+        return functions;
+    }
+}
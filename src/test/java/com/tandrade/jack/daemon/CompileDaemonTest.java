@@ -0,0 +1,99 @@
+package com.tandrade.jack.daemon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.tandrade.jack.TestPrograms;
+
+public class CompileDaemonTest {
+
+    @TempDir
+    Path directory;
+
+    private Path tokens;
+    private CompileDaemon daemon;
+    private Thread serving;
+
+    @BeforeEach
+    public void start() throws IOException {
+        tokens = directory.resolve("tokens");
+        daemon = new CompileDaemon(0, tokens);
+        serving = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        serving.start();
+    }
+
+    @AfterEach
+    public void stop() throws IOException, InterruptedException {
+        daemon.close();
+        serving.join();
+    }
+
+    @Test
+    public void buildsForAClientWithTheToken() throws IOException {
+        Path program = TestPrograms.copyProgram("Square", directory);
+        String token = CompileDaemon.readToken(tokens, daemon.getPort());
+
+        assertEquals(0, compile(token, program.toString()));
+        assertTrue(Files.exists(program.resolve("Main.vm")));
+    }
+
+    @Test
+    public void rejectsAClientWithoutTheToken() throws IOException {
+        Path program = TestPrograms.copyProgram("Square", directory);
+        Path stats = directory.resolve("stats.json");
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        int status = CompileClient.compile(daemon.getPort(), "guessed", directory, new String[] { "--stats-json", stats.toString(),
+                program.toString() }, new PrintStream(new ByteArrayOutputStream()), new PrintStream(err));
+
+        assertEquals(2, status);
+        assertTrue(err.toString().startsWith("Invalid daemon token"));
+        assertFalse(Files.exists(stats));
+        assertFalse(Files.exists(program.resolve("Main.vm")));
+    }
+
+    @Test
+    public void onlyItsUserCanReadTheToken() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(daemon.getTokenPath())));
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokens)));
+    }
+
+    @Test
+    public void removesTheTokenWhenShutDown() throws IOException, InterruptedException {
+        String token = CompileDaemon.readToken(tokens, daemon.getPort());
+
+        assertEquals(0, compile(token, CompileDaemon.SHUTDOWN));
+        serving.join();
+
+        assertFalse(Files.exists(daemon.getTokenPath()));
+    }
+
+    private int compile(String token, String... args) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        return CompileClient.compile(daemon.getPort(), token, directory, args, new PrintStream(output), new PrintStream(output));
+    }
+}
@@ -0,0 +1,229 @@
+package com.tandrade.jack.parser.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.tandrade.jack.TestPrograms;
+import com.tandrade.jack.parser.ast.ClassNode;
+import com.tandrade.jack.parser.token.SyntaxException;
+import com.tandrade.jack.vm.InstructionBuffer;
+import com.tandrade.jack.vm.VMInstruction;
+import com.tandrade.jack.vm.VMWriter;
+import com.tandrade.jack.vm.interpreter.Program;
+
+public class CodeGeneratorTest {
+
+    private static final String UNKNOWN_VARIABLES =
+            "class A {\n"
+            + "  field int x;\n"
+            + "  method int f(int a) {\n"
+            + "    var Array b;\n"
+            + "    let y = a + 1;\n"
+            + "    let b[z] = x;\n"
+            + "    do g(1 + (w * 2), b[v]);\n"
+            + "    return x + u;\n"
+            + "  }\n"
+            + "  method void g(int a, int c) {\n"
+            + "    if (~(a = 0)) { let x = 2 * q; }\n"
+            + "    return;\n"
+            + "  }\n"
+            + "}\n";
+
+    // Main.main calls Main.f(a, b, 1, 2) with a[1] = 5, a[2] = 7 and b[1] = 9, and prints what it returns
+    private static final String ARRAYS =
+            "class Main {\n"
+            + "  function void main() {\n"
+            + "    var Array a, b;\n"
+            + "    let a = Array.new(4);\n"
+            + "    let b = Array.new(4);\n"
+            + "    let a[1] = 5;\n"
+            + "    let a[2] = 7;\n"
+            + "    let b[1] = 9;\n"
+            + "    do Output.printInt(Main.f(a, b, 1, 2));\n"
+            + "    return;\n"
+            + "  }\n"
+            + "  function int bump(Array a, int i) {\n"
+            + "    let a[i] = a[i] + 1;\n"
+            + "    let a[i + 1] = 0;\n"
+            + "    return 0;\n"
+            + "  }\n"
+            + "  function int f(Array a, Array b, int i, int j) {\n"
+            + "    var int x;\n"
+            + "    var Point p;\n"
+            + "%s"
+            + "  }\n"
+            + "}\n";
+
+    // Folding rewrites the expressions around the errors, which still have to be reported where they are
+    @ParameterizedTest(name = "optimize {0}")
+    @ValueSource(booleans = { false, true })
+    public void reportsEveryUnknownVariableWhereItIs(boolean optimize) {
+        InMemoryCompiler compiler = new InMemoryCompiler();
+        compiler.setOptimize(optimize);
+
+        SyntaxException e = assertThrows(SyntaxException.class,
+                () -> compiler.compile(UNKNOWN_VARIABLES, new InstructionBuffer()));
+
+        assertEquals(List.of(
+                "5:5: Unknown variable: y",
+                "6:11: Unknown variable: z",
+                "7:15: Unknown variable: w",
+                "7:25: Unknown variable: v",
+                "8:16: Unknown variable: u",
+                "11:33: Unknown variable: q"),
+                e.getDiagnostics().stream().map(Object::toString).collect(Collectors.toList()));
+    }
+
+    @ParameterizedTest(name = "optimize {0}")
+    @ValueSource(booleans = { false, true })
+    public void compilesTheNextClassAfterAnError(boolean optimize) {
+        InMemoryCompiler compiler = new InMemoryCompiler();
+        InstructionBuffer code = new InstructionBuffer();
+        compiler.setOptimize(optimize);
+
+        assertThrows(SyntaxException.class, () -> compiler.compile(UNKNOWN_VARIABLES, new InstructionBuffer()));
+        compiler.compile("class B { function int f(int a) { return a; } }", code);
+
+        assertEquals(List.of("function B.f 0", "push argument 0", "return"),
+                code.getInstructions().stream().map(Object::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void reusesAnArrayAddressWithinABlock() {
+        String program = arrays("let a[i] = a[i] + a[i];", "return a[i];");
+
+        assertEquals(1, countAddresses(program));
+        assertEquals("10", run(program));
+    }
+
+    // The true branch leaves pointer 1 at a[j], while the else branch is generated last and leaves it at a[i]
+    @Test
+    public void recomputesAnArrayAddressAfterALabel() {
+        String program = arrays("if (i < j) {", "  let a[j] = a[j];", "} else {", "  let a[i] = a[i];", "}",
+                "return a[i];");
+
+        assertEquals(3, countAddresses(program));
+        assertEquals("5", run(program));
+    }
+
+    @Test
+    public void recomputesAnArrayAddressAfterItsIndexChanges() {
+        String program = arrays("let a[i] = a[i] + 1;", "let i = j;", "return a[i];");
+
+        assertEquals(2, countAddresses(program));
+        assertEquals("7", run(program));
+    }
+
+    @Test
+    public void recomputesAnArrayAddressAfterItsBaseChanges() {
+        String program = arrays("let a[i] = a[i] + 1;", "let a = b;", "return a[i];");
+
+        assertEquals(2, countAddresses(program));
+        assertEquals("9", run(program));
+    }
+
+    // A call cannot assign the caller's locals and arguments, and returning restores pointer 1, so the address
+    // is kept across bump, which writes the element and leaves its own pointer 1 at the next one
+    @Test
+    public void keepsAnArrayAddressAcrossACall() {
+        String program = arrays("return a[i] + Main.bump(a, i) + a[i];");
+
+        assertEquals(1, countAddresses(program));
+        assertEquals("11", run(program));
+    }
+
+    // The inlined getter reads the point's field through pointer 1
+    @Test
+    public void recomputesAnArrayAddressAfterAnInlinedFieldAccess() {
+        String point =
+                "class Point {\n"
+                + "  field int x;\n"
+                + "  constructor Point new(int ax) {\n"
+                + "    let x = ax;\n"
+                + "    return this;\n"
+                + "  }\n"
+                + "  method int getX() {\n"
+                + "    return x;\n"
+                + "  }\n"
+                + "}\n";
+        String program = arrays("let p = Point.new(3);", "return a[i] + p.getX() + a[i];");
+
+        assertEquals(3, countAddresses(program, point));
+        assertEquals("13", run(program, point));
+    }
+
+    // The program with the statements as the body of Main.f
+    private static String arrays(String... statements) {
+        StringBuilder body = new StringBuilder();
+
+        for (String statement : statements) {
+            body.append("    ").append(statement).append('\n');
+        }
+
+        return String.format(ARRAYS, body);
+    }
+
+    // The times Main.f sets pointer 1 when compiled under -O
+    private static int countAddresses(String... classes) {
+        InstructionBuffer code = new InstructionBuffer();
+        boolean inF = false;
+        int count = 0;
+
+        compile(true, code, classes);
+        for (VMInstruction instruction : code.getInstructions()) {
+            String line = instruction.toString();
+
+            if (line.startsWith("function ")) {
+                inF = line.startsWith("function Main.f ");
+            } else if (inF && line.equals("pop pointer 1")) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    // Runs the program plain and under -O, which have to print the same
+    private static String run(String... classes) {
+        String plain = run(false, classes);
+
+        assertEquals(plain, run(true, classes));
+
+        return plain;
+    }
+
+    private static String run(boolean optimize, String... classes) {
+        Program program = new Program();
+
+        compile(optimize, program, classes);
+        program.link();
+
+        return TestPrograms.run(program);
+    }
+
+    // Under -O calls are expanded across the classes as --whole-program does
+    private static void compile(boolean optimize, VMWriter sink, String... classes) {
+        InMemoryCompiler compiler = new InMemoryCompiler();
+        List<ClassNode> nodes = new ArrayList<>();
+
+        for (String source : classes) {
+            nodes.add(compiler.parse(source));
+        }
+
+        ClassGenerator generator = new ClassGenerator(optimize);
+        if (optimize) {
+            generator.setInliner(Inliner.of(nodes));
+        }
+        for (ClassNode node : nodes) {
+            generator.generateClass(node, sink);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.tandrade.jack.parser.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.tandrade.jack.TestPrograms;
+import com.tandrade.jack.parser.ast.BinaryExpression;
+import com.tandrade.jack.parser.ast.Expression;
+import com.tandrade.jack.parser.ast.IntegerConstant;
+import com.tandrade.jack.parser.ast.VariableReference;
+import com.tandrade.jack.parser.token.NamePool;
+import com.tandrade.jack.parser.token.Symbol;
+import com.tandrade.jack.parser.token.Tokenizer;
+import com.tandrade.jack.vm.InstructionBuffer;
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.VMInstruction;
+
+public class ConstantFoldingTest {
+
+    @Test
+    public void foldsEveryOperator() {
+        assertEquals(7, ConstantFolding.fold(Symbol.PLUS, 3, 4));
+        assertEquals(-1, ConstantFolding.fold(Symbol.MINUS, 3, 4));
+        assertEquals(12, ConstantFolding.fold(Symbol.ASTERISK, 3, 4));
+        assertEquals(-3, ConstantFolding.fold(Symbol.SLASH, -7, 2));
+        assertEquals(4, ConstantFolding.fold(Symbol.AMPERSAND, 12, 6));
+        assertEquals(14, ConstantFolding.fold(Symbol.PIPE, 12, 6));
+        assertEquals(-1, ConstantFolding.fold(Symbol.LESS_THAN, -2, 1));
+        assertEquals(0, ConstantFolding.fold(Symbol.LESS_THAN, 1, 1));
+        assertEquals(-1, ConstantFolding.fold(Symbol.GREATER_THAN, 2, 1));
+        assertEquals(0, ConstantFolding.fold(Symbol.GREATER_THAN, 1, 2));
+        assertEquals(-1, ConstantFolding.fold(Symbol.EQUALS, 5, 5));
+        assertEquals(0, ConstantFolding.fold(Symbol.EQUALS, 5, 6));
+        assertNull(ConstantFolding.fold(Symbol.DOT, 1, 2));
+    }
+
+    @Test
+    public void wrapsLikeTheHackAlu() {
+        assertEquals(-32768, ConstantFolding.fold(Symbol.PLUS, 32767, 1));
+        assertEquals(32767, ConstantFolding.fold(Symbol.MINUS, -32768, 1));
+        assertEquals(24464, ConstantFolding.fold(Symbol.ASTERISK, 300, 300));
+        assertEquals(-25536, ConstantFolding.fold(Symbol.ASTERISK, 200, 200));
+        assertEquals(-32768, ConstantFolding.fold(Opcode.NEG, -32768));
+        assertEquals(-1, ConstantFolding.fold(Opcode.NOT, 0));
+        assertEquals(32767, ConstantFolding.fold(Opcode.NOT, -32768));
+    }
+
+    @Test
+    public void leavesDivisionCornersToRuntime() {
+        assertNull(ConstantFolding.fold(Symbol.SLASH, 1, 0));
+        assertNull(ConstantFolding.fold(Symbol.SLASH, -32768, -1));
+        assertNull(ConstantFolding.fold(Symbol.SLASH, 5, -32768));
+    }
+
+    @Test
+    public void writesConstantsInTheFewestInstructions() {
+        assertEquals(List.of("push constant 5"), constant(5));
+        assertEquals(List.of("push constant 0", "not"), constant(-1));
+        assertEquals(List.of("push constant 32767", "not"), constant(-32768));
+        assertEquals(List.of("push constant 7", "neg"), constant(-7));
+    }
+
+    @Test
+    public void identities() {
+        assertTrue(ConstantFolding.isIdentity(Symbol.PLUS, 0));
+        assertTrue(ConstantFolding.isIdentity(Symbol.MINUS, 0));
+        assertTrue(ConstantFolding.isIdentity(Symbol.PIPE, 0));
+        assertTrue(ConstantFolding.isIdentity(Symbol.ASTERISK, 1));
+        assertTrue(ConstantFolding.isIdentity(Symbol.SLASH, 1));
+        assertTrue(ConstantFolding.isIdentity(Symbol.AMPERSAND, -1));
+        assertFalse(ConstantFolding.isIdentity(Symbol.AMPERSAND, 0));
+        assertFalse(ConstantFolding.isIdentity(Symbol.EQUALS, 0));
+    }
+
+    @Test
+    public void multipliesOnlyWithinBudget() {
+        assertTrue(ConstantFolding.writeMultiply(new InstructionBuffer(), 1024));
+        assertTrue(ConstantFolding.writeMultiply(new InstructionBuffer(), -10));
+        assertFalse(ConstantFolding.writeMultiply(new InstructionBuffer(), 1));
+        assertFalse(ConstantFolding.writeMultiply(new InstructionBuffer(), 0));
+        assertFalse(ConstantFolding.writeMultiply(new InstructionBuffer(), 32767));
+        assertFalse(ConstantFolding.writeMultiply(new InstructionBuffer(), -32768));
+    }
+
+    @Test
+    public void foldsConstantSubtrees() {
+        assertEquals(7, constantValue("1 + (2 * 3)"));
+        assertEquals(-1, constantValue("true"));
+        assertEquals(0, constantValue("null | false"));
+        assertEquals(32767, constantValue("(-32767) - 2"));
+        assertEquals(-1, constantValue("~(3 = 4)"));
+        assertEquals(-1, constantValue("(2 < 3) & (5 > 4)"));
+    }
+
+    @Test
+    public void keepsTheConstantOnTheRight() {
+        BinaryExpression mirrored = (BinaryExpression) fold("3 < x");
+
+        assertEquals(Symbol.GREATER_THAN, mirrored.getOp());
+        assertTrue(mirrored.getLeft() instanceof VariableReference);
+        assertEquals(3, ((IntegerConstant) mirrored.getRight()).getValue());
+
+        BinaryExpression swapped = (BinaryExpression) fold("(1 + 1) * x");
+
+        assertEquals(Symbol.ASTERISK, swapped.getOp());
+        assertEquals(2, ((IntegerConstant) swapped.getRight()).getValue());
+
+        // Subtraction and division are not commutative, so they keep their order
+        assertTrue(((BinaryExpression) fold("3 - x")).getLeft() instanceof IntegerConstant);
+    }
+
+    @Test
+    public void leavesNonConstantTreesAlone() {
+        Expression expression = parse("x + (y * z)");
+
+        assertSame(expression, expression.accept(new ConstantFolder()));
+        assertTrue(fold("1 / 0") instanceof BinaryExpression);
+    }
+
+    // Folding and strength reduction have to compute what the plain code does, including where it overflows
+    @Test
+    public void optimizedCodeComputesTheSameValues() {
+        int[] factors = {-300, -10, -7, -1, 0, 1, 2, 3, 5, 10, 64, 100, 255, 1000, 32767};
+        StringBuilder main = new StringBuilder("class Main {\n  function void main() {\n    var int x, y;\n");
+        StringBuilder expected = new StringBuilder();
+
+        for (int x : new int[] {7, -9, 181}) {
+            main.append("    let x = ").append(x < 0 ? "-" + -x : x).append(";\n");
+            for (int factor : factors) {
+                String constant = factor < 0 ? "(-" + -factor + ")" : String.valueOf(factor);
+
+                main.append("    do Main.print(x * ").append(constant).append(");\n");
+                main.append("    do Main.print(").append(constant).append(" * x);\n");
+                expected.append((short) (x * factor)).append(',').append((short) (x * factor)).append(',');
+            }
+        }
+
+        main.append("    let y = 5;\n");
+        main.append("    do Main.print((32767 + 1) + y);\n");
+        main.append("    do Main.print(3 < y);\n");
+        main.append("    do Main.print(~(y = 5));\n");
+        main.append("    do Main.print((7 / 2) + (y & 12) + (0 | y) - (y - 0));\n");
+        main.append("    do Main.print(-(-y));\n");
+        main.append("    return;\n  }\n");
+        main.append("  function void print(int value) {\n");
+        main.append("    do Output.printInt(value);\n    do Output.printChar(44);\n    return;\n  }\n}\n");
+        expected.append("-32763,-1,0,7,5,");
+
+        String source = main.toString();
+
+        assertEquals(expected.toString(), TestPrograms.run(false, source));
+        assertEquals(expected.toString(), TestPrograms.run(true, source));
+    }
+
+    private static List<String> constant(int value) {
+        InstructionBuffer buffer = new InstructionBuffer();
+
+        ConstantFolding.writeConstant(buffer, value);
+
+        return buffer.getInstructions().stream().map(VMInstruction::toString).collect(Collectors.toList());
+    }
+
+    private static int constantValue(String expression) {
+        return ((IntegerConstant) fold(expression)).getValue();
+    }
+
+    private static Expression fold(String expression) {
+        return parse(expression).accept(new ConstantFolder());
+    }
+
+    private static Expression parse(String expression) {
+        return new Parser(new Tokenizer(expression, new NamePool())).parseExpression();
+    }
+}
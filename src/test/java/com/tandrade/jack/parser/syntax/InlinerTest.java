@@ -0,0 +1,201 @@
+package com.tandrade.jack.parser.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.tandrade.jack.TestPrograms;
+import com.tandrade.jack.build.Build;
+import com.tandrade.jack.build.BuildError;
+import com.tandrade.jack.build.CompilerOptions;
+
+// Calls are only inlined by a -O --whole-program build, whose output has to do what the plain build's does
+public class InlinerTest {
+
+    private static final String POINT =
+            "class Point {\n"
+            + "  field int x, y;\n"
+            + "  constructor Point new(int ax, int ay) {\n"
+            + "    let x = ax;\n"
+            + "    let y = ay;\n"
+            + "    return this;\n"
+            + "  }\n"
+            + "  method int getX() {\n"
+            + "    return x;\n"
+            + "  }\n"
+            + "  method int getY() {\n"
+            + "    return y;\n"
+            + "  }\n"
+            + "  method void setX(int value) {\n"
+            + "    let x = value;\n"
+            + "    return;\n"
+            + "  }\n"
+            + "  method int sum(int a) {\n"
+            + "    return a + a + x;\n"
+            + "  }\n"
+            + "}\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void inlinesGettersAndSetters() throws Exception {
+        String main =
+                "class Main {\n"
+                + "  function void main() {\n"
+                + "    var Point p, q;\n"
+                + "    var int sum;\n"
+                + "    let p = Point.new(3, 4);\n"
+                + "    let q = Point.new(10, 20);\n"
+                + "    let sum = p.getX() + q.getY();\n"
+                + "    do p.setX(sum);\n"
+                + "    do Output.printInt(p.getX());\n"
+                + "    do Output.printChar(44);\n"
+                + "    do Output.printInt(p.getY() - q.getX());\n"
+                + "    return;\n"
+                + "  }\n"
+                + "}\n";
+
+        assertEquals("23,-6", run("", main, POINT));
+        assertEquals("23,-6", run("-O --whole-program", main, POINT));
+        assertEquals(List.of("Point.new", "Point.new"), calls("-O --whole-program", "Main"));
+    }
+
+    // Jack only calls methods on a variable, so what could run twice is an argument with side effects; such a
+    // call is left as it is
+    @Test
+    public void evaluatesAnArgumentWithSideEffectsOnce() throws Exception {
+        String main =
+                "class Main {\n"
+                + "  static int count;\n"
+                + "  function void main() {\n"
+                + "    var Point p;\n"
+                + "    let p = Point.new(1, 2);\n"
+                + "    let count = 0;\n"
+                + "    do p.setX(Main.next());\n"
+                + "    do Output.printInt(p.sum(Main.next()));\n"
+                + "    do Output.printChar(44);\n"
+                + "    do Output.printInt(p.getX());\n"
+                + "    do Output.printChar(44);\n"
+                + "    do Output.printInt(count);\n"
+                + "    return;\n"
+                + "  }\n"
+                + "  function int next() {\n"
+                + "    let count = count + 1;\n"
+                + "    return count;\n"
+                + "  }\n"
+                + "}\n";
+
+        assertEquals("5,1,2", run("", main, POINT));
+        assertEquals("5,1,2", run("-O --whole-program", main, POINT));
+        assertEquals(List.of("Point.new", "Main.next", "Point.setX", "Main.next", "Point.sum"),
+                calls("-O --whole-program", "Main"));
+    }
+
+    @Test
+    public void discardsTheValueOfAnInlinedCall() throws Exception {
+        String main =
+                "class Main {\n"
+                + "  function void main() {\n"
+                + "    var Point p;\n"
+                + "    var int i;\n"
+                + "    let p = Point.new(5, 6);\n"
+                + "    while (i < 3) {\n"
+                + "      do p.getX();\n"
+                + "      do p.getY();\n"
+                + "      let i = i + 1;\n"
+                + "    }\n"
+                + "    do Output.printInt(i + p.getX());\n"
+                + "    return;\n"
+                + "  }\n"
+                + "}\n";
+
+        assertEquals("8", run("", main, POINT));
+        assertEquals("8", run("-O --whole-program", main, POINT));
+        assertEquals(List.of("Point.new"), calls("-O --whole-program", "Main"));
+        assertTrue(TestPrograms.read(output("-O --whole-program", "Main")).contains("pop temp 0"));
+    }
+
+    // A recursive function calls itself, and a body of three statements or over the budget is not a single
+    // return or store; each is still called
+    @Test
+    public void leavesCallsItCannotInline() throws Exception {
+        String main =
+                "class Main {\n"
+                + "  static int last;\n"
+                + "  function void main() {\n"
+                + "    do Output.printInt(Main.sumTo(4));\n"
+                + "    do Output.printChar(44);\n"
+                + "    do Main.store(7);\n"
+                + "    do Output.printInt(last);\n"
+                + "    do Output.printChar(44);\n"
+                + "    do Output.printInt(Main.large(1));\n"
+                + "    return;\n"
+                + "  }\n"
+                + "  function int sumTo(int n) {\n"
+                + "    if (n = 0) {\n"
+                + "      return 0;\n"
+                + "    }\n"
+                + "    return n + Main.sumTo(n - 1);\n"
+                + "  }\n"
+                + "  function void store(int value) {\n"
+                + "    let last = value;\n"
+                + "    let last = last + 1;\n"
+                + "    return;\n"
+                + "  }\n"
+                + "  function int large(int a) {\n"
+                + "    return a + a + a + a + a + a;\n"
+                + "  }\n"
+                + "}\n";
+
+        assertEquals("10,8,6", run("", main));
+        assertEquals("10,8,6", run("-O --whole-program", main));
+        assertEquals(List.of("Main.sumTo", "Main.store", "Main.large", "Main.sumTo"), calls("-O --whole-program", "Main"));
+    }
+
+    // Builds the classes into a directory of their own for the arguments and runs the program
+    private String run(String arguments, String... classes) throws Exception {
+        Path input = TestPrograms.writeClasses(output(arguments, null), classes);
+        List<String> args = new ArrayList<>();
+
+        if (!arguments.isEmpty()) {
+            args.addAll(List.of(arguments.split(" ")));
+        }
+        args.add(input.toString());
+
+        List<BuildError> errors = new Build(CompilerOptions.parse(args.toArray(new String[0]))).run();
+        assertEquals(List.of(), errors);
+        assertFalse(TestPrograms.list(input, ".vm").isEmpty());
+
+        return TestPrograms.runDirectory(input);
+    }
+
+    // The functions a built class calls, leaving out the operating system's
+    private List<String> calls(String arguments, String className) {
+        List<String> calls = new ArrayList<>();
+
+        for (String line : TestPrograms.read(output(arguments, className)).split("\n")) {
+            String[] words = line.trim().split(" ");
+
+            if (words[0].equals("call") && !words[1].startsWith("Output.") && !words[1].startsWith("Memory.")) {
+                calls.add(words[1]);
+            }
+        }
+
+        return calls;
+    }
+
+    // The directory a build with the arguments goes to, or the class's .vm file in it
+    private Path output(String arguments, String className) {
+        Path input = directory.resolve(arguments.isEmpty() ? "plain" : arguments.replace(" ", ""));
+
+        return className == null ? input : input.resolve(className + ".vm");
+    }
+}
@@ -0,0 +1,78 @@
+package com.tandrade.jack.parser.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.tandrade.jack.parser.ast.ClassNode;
+import com.tandrade.jack.parser.token.NamePool;
+import com.tandrade.jack.parser.token.SyntaxException;
+import com.tandrade.jack.parser.token.Tokenizer;
+
+public class ParserTest {
+
+    @Test
+    public void parsesAClass() {
+        ClassNode node = parse(
+                "class Point {\n"
+                + "  field int x, y;\n"
+                + "  constructor Point new(int ax, int ay) { let x = ax; let y = ay; return this; }\n"
+                + "  method int getX() { return x; }\n"
+                + "}\n");
+
+        assertEquals("Point", node.getName());
+        assertEquals(1, node.getClassVariables().size());
+        assertEquals(2, node.getSubroutines().size());
+    }
+
+    @Test
+    public void reportsEveryErrorInSourceOrder() {
+        SyntaxException e = assertThrows(SyntaxException.class, () -> parse(
+                "class A {\n"
+                + "  function void f() {\n"
+                + "    let x = ;\n"
+                + "    let y = 1;\n"
+                + "    do g(;\n"
+                + "    return;\n"
+                + "  }\n"
+                + "  function void g() {\n"
+                + "    while (true { }\n"
+                + "    return;\n"
+                + "  }\n"
+                + "}\n"));
+
+        assertEquals(List.of("3:13", "5:10", "9:17"), positions(e));
+    }
+
+    @Test
+    public void reportsTheEndOfAnUnfinishedClass() {
+        SyntaxException e = assertThrows(SyntaxException.class, () -> parse("class A {\n  function void f() {\n"));
+
+        assertEquals(List.of("3:1"), positions(e));
+    }
+
+    @Test
+    public void reportsAnUnknownCharAfterEarlierErrors() {
+        SyntaxException e = assertThrows(SyntaxException.class, () -> parse(
+                "class A {\n"
+                + "  function void f() {\n"
+                + "    let = 1;\n"
+                + "    let x = 1 # 2;\n"
+                + "  }\n"
+                + "}\n"));
+
+        assertEquals(List.of("3:9", "4:15"), positions(e));
+    }
+
+    private static ClassNode parse(String source) {
+        return new Parser(new Tokenizer(source, new NamePool())).parseClass();
+    }
+
+    private static List<String> positions(SyntaxException e) {
+        return e.getDiagnostics().stream().map(d -> d.getLine() + ":" + d.getColumn()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,78 @@
+package com.tandrade.jack.parser.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.tandrade.jack.TestPrograms;
+import com.tandrade.jack.parser.ast.StringConstant;
+import com.tandrade.jack.vm.InstructionBuffer;
+
+public class StringEscapesTest {
+
+    private static final String DISPOSING =
+            "class Main {\n"
+            + "  function void main() {\n"
+            + "    var String str;\n"
+            + "    var int i;\n"
+            + "    while (i < 3) {\n"
+            + "      let str = \"disposed\";\n"
+            + "      do Output.printString(str);\n"
+            + "      do str.dispose();\n"
+            + "      do Output.printString(\"kept\");\n"
+            + "      let i = i + 1;\n"
+            + "    }\n"
+            + "    return;\n"
+            + "  }\n"
+            + "}\n";
+
+    @Test
+    public void followsLiteralsToWhereTheyAreDisposedOrChanged() {
+        InMemoryCompiler compiler = new InMemoryCompiler();
+        List<StringConstant> escaping = StringEscapes.of(compiler.parse(
+                "class A {\n"
+                + "  field String name;\n"
+                + "  static Array names;\n"
+                + "  constructor A new(String n) { let name = n; return this; }\n"
+                + "  method void dispose() { do name.dispose(); do Memory.deAlloc(this); return; }\n"
+                + "  method String label() { return \"returned\"; }\n"
+                + "  method void f(String s) {\n"
+                + "    var String t, u;\n"
+                + "    var A a;\n"
+                + "    let a = A.new(\"field\");\n"
+                + "    let t = label();\n"
+                + "    do t.setCharAt(0, 65);\n"
+                + "    let u = \"printed\";\n"
+                + "    do Output.printString(u);\n"
+                + "    let names[0] = \"element\";\n"
+                + "    do String.eraseLastChar(names[1]);\n"
+                + "    do g(\"argument\", \"other argument\");\n"
+                + "    do B.take(\"handed over\");\n"
+                + "    return;\n"
+                + "  }\n"
+                + "  function void g(String x, String y) { do x.appendChar(33); do Output.printString(y); return; }\n"
+                + "}\n"));
+
+        assertEquals(List.of("returned", "field", "element", "argument"),
+                escaping.stream().map(StringConstant::getValue).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void disposedLiteralsAreNotPooled() {
+        InMemoryCompiler compiler = new InMemoryCompiler();
+        compiler.setPoolStrings(true);
+
+        compiler.compile(DISPOSING, new InstructionBuffer());
+
+        assertEquals(List.of("6:17: String literal may be disposed or changed, so it is not pooled: \"disposed\""),
+                compiler.getWarnings().stream().map(Object::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void pooledProgramRunsAsItDoesWithoutPooling() {
+        assertEquals(TestPrograms.run(false, DISPOSING), TestPrograms.run(true, true, DISPOSING));
+    }
+}
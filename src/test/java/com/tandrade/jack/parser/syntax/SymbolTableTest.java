@@ -0,0 +1,149 @@
+package com.tandrade.jack.parser.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SymbolTableTest {
+    // Far more than the table starts with, so it has to grow several times
+    private static final int MANY = 500;
+
+    private SymbolTable table;
+
+    @BeforeEach
+    public void setUp() {
+        table = new SymbolTable();
+        table.startClass();
+    }
+
+    @Test
+    public void localShadowsAField() {
+        table.define("x", "int", VarScope.FIELD);
+        table.define("y", "int", VarScope.FIELD);
+        table.startSubroutine();
+        table.define("x", "boolean", VarScope.LOCAL);
+
+        assertSymbol("boolean", VarScope.LOCAL, 0, "x");
+        assertSymbol("int", VarScope.FIELD, 1, "y");
+
+        table.endScope();
+
+        assertSymbol("int", VarScope.FIELD, 0, "x");
+    }
+
+    @Test
+    public void endScopeForgetsTheSubroutine() {
+        table.define("s", "int", VarScope.STATIC);
+        table.startSubroutine();
+        table.define("a", "int", VarScope.ARGUMENT);
+        table.define("l", "int", VarScope.LOCAL);
+        table.endScope();
+
+        assertNull(table.lookup("a"));
+        assertNull(table.lookup("l"));
+        assertSymbol("int", VarScope.STATIC, 0, "s");
+
+        // The next subroutine numbers its arguments and locals from 0, the class's variables carry on
+        table.startSubroutine();
+        table.define("b", "int", VarScope.ARGUMENT);
+        table.define("t", "int", VarScope.STATIC);
+
+        assertSymbol("int", VarScope.ARGUMENT, 0, "b");
+        assertSymbol("int", VarScope.STATIC, 1, "t");
+    }
+
+    // "Aa" and "BB" have the same hash, so the local is probed past the field and its slot has to be emptied
+    // without losing the field
+    @Test
+    public void endScopeKeepsNamesOfTheSameHash() {
+        table.define("Aa", "int", VarScope.FIELD);
+        table.startSubroutine();
+        table.define("BB", "int", VarScope.LOCAL);
+
+        assertSymbol("int", VarScope.LOCAL, 0, "BB");
+
+        table.endScope();
+
+        assertNull(table.lookup("BB"));
+        assertSymbol("int", VarScope.FIELD, 0, "Aa");
+    }
+
+    // Names are usually pooled, but one that is not is still found
+    @Test
+    public void findsANameThatIsNotTheSameString() {
+        table.define("count", "int", VarScope.FIELD);
+
+        assertSymbol("int", VarScope.FIELD, 0, new String("count"));
+    }
+
+    @Test
+    public void growsPastItsLoadFactor() {
+        for (int i = 0; i < MANY; i++) {
+            table.define("f" + i, "int", VarScope.FIELD);
+        }
+        table.startSubroutine();
+        for (int i = 0; i < MANY; i++) {
+            table.define("l" + i, "int", VarScope.LOCAL);
+        }
+
+        for (int i = 0; i < MANY; i++) {
+            assertSymbol("int", VarScope.FIELD, i, "f" + i);
+            assertSymbol("int", VarScope.LOCAL, i, "l" + i);
+        }
+
+        table.endScope();
+
+        for (int i = 0; i < MANY; i++) {
+            assertSymbol("int", VarScope.FIELD, i, "f" + i);
+            assertNull(table.lookup("l" + i));
+        }
+    }
+
+    // Growing replays every definition, which must keep each scope's indexes and what shadows what
+    @Test
+    public void keepsIndexesAndShadowingWhenItGrows() {
+        table.define("x", "int", VarScope.FIELD);
+        table.define("y", "int", VarScope.STATIC);
+        table.define("z", "int", VarScope.FIELD);
+        table.startSubroutine();
+        table.define("x", "char", VarScope.ARGUMENT);
+        table.define("y", "char", VarScope.LOCAL);
+        for (int i = 0; i < MANY; i++) {
+            table.define("a" + i, "int", VarScope.ARGUMENT);
+            table.define("l" + i, "int", VarScope.LOCAL);
+        }
+
+        assertSymbol("char", VarScope.ARGUMENT, 0, "x");
+        assertSymbol("char", VarScope.LOCAL, 0, "y");
+        assertSymbol("int", VarScope.FIELD, 1, "z");
+        for (int i = 0; i < MANY; i++) {
+            assertSymbol("int", VarScope.ARGUMENT, i + 1, "a" + i);
+            assertSymbol("int", VarScope.LOCAL, i + 1, "l" + i);
+        }
+        assertEquals(MANY + 1, table.getCount(VarScope.ARGUMENT));
+        assertEquals(MANY + 1, table.getCount(VarScope.LOCAL));
+
+        table.endScope();
+
+        assertSymbol("int", VarScope.FIELD, 0, "x");
+        assertSymbol("int", VarScope.STATIC, 0, "y");
+        assertSymbol("int", VarScope.FIELD, 1, "z");
+        assertNull(table.lookup("a0"));
+    }
+
+    @Test
+    public void refusesToEndAScopeThatWasNotStarted() {
+        assertThrows(IllegalStateException.class, () -> table.endScope());
+    }
+
+    private void assertSymbol(String type, VarScope scope, int index, String name) {
+        VarInfo info = table.lookup(name);
+
+        assertEquals(type, info.getType(), name);
+        assertEquals(scope, info.getScope(), name);
+        assertEquals(index, info.getIndex(), name);
+    }
+}
@@ -0,0 +1,196 @@
+package com.tandrade.jack.parser.token;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.tandrade.jack.TestPrograms;
+
+public class TokenizerTest {
+
+    private static final List<String> MODES = List.of("reader", "mmap", "bytes", "text", "pipelined");
+
+    // The token files were written by the original regex tokenizer, which every input mode has to match
+    static Stream<Arguments> sources() throws IOException {
+        List<Arguments> sources = new ArrayList<>();
+
+        for (String program : TestPrograms.PROGRAMS) {
+            for (Path source : TestPrograms.list(TestPrograms.resource("programs/" + program), ".jack")) {
+                for (String mode : MODES) {
+                    sources.add(Arguments.of(program, source, mode));
+                }
+            }
+        }
+
+        return sources.stream();
+    }
+
+    @ParameterizedTest(name = "{0}/{1} {2}")
+    @MethodSource("sources")
+    public void matchesReferenceScanner(String program, Path source, String mode) throws IOException {
+        String name = source.getFileName().toString().replace(".jack", "Tokens.xml");
+        List<String> expected = Files.readAllLines(TestPrograms.resource("golden/tokens/" + program + "/" + name));
+
+        assertEquals(expected, scan(source, mode));
+    }
+
+    private static List<String> scan(Path source, String mode) throws IOException {
+        List<String> tags = new ArrayList<>();
+        NamePool names = new NamePool();
+
+        tags.add("<tokens>");
+        try (Tokenizer tokenizer = open(source, mode, names)) {
+            TokenStream tokens = mode.equals("pipelined") ? new PipelinedTokenStream(tokenizer) : tokenizer;
+
+            while (tokens.hasMoreTokens()) {
+                tags.add(tokens.advance().toString());
+            }
+        }
+        tags.add("</tokens>");
+
+        return tags;
+    }
+
+    private static Tokenizer open(Path source, String mode, NamePool names) throws IOException {
+        switch (mode) {
+            case "mmap":
+                return new Tokenizer(source.toFile(), true, names);
+            case "bytes":
+                return new Tokenizer(ByteBuffer.wrap(Files.readAllBytes(source)), names);
+            case "text":
+                return new Tokenizer(TestPrograms.read(source), names);
+            default:
+                return new Tokenizer(source.toFile(), false, names);
+        }
+    }
+
+    // Bytes outside ASCII used to come out of the reader path in the platform charset and of the mmap path as Latin-1
+    @ParameterizedTest
+    @MethodSource("modes")
+    public void decodesBytesOutsideAsciiTheSameOnEveryPath(String mode, @TempDir Path directory) throws IOException {
+        Path source = directory.resolve("Main.jack");
+        byte[] text = "// caf\u00e9\nlet s = \"d\u00e9j\u00e0 \u00ff\";".getBytes(StandardCharsets.ISO_8859_1);
+
+        Files.write(source, text);
+
+        List<String> tokens = scan(source, mode);
+
+        assertEquals("<stringConstant> d\u00e9j\u00e0 \u00ff </stringConstant>", tokens.get(4));
+        assertEquals(7, tokens.size());
+    }
+
+    static List<String> modes() {
+        return MODES;
+    }
+
+    @Test
+    public void reportsWhereEachTokenStarts() {
+        Tokenizer tokenizer = new Tokenizer("class A {\n  /* two\n lines */ field int x;\n\t// end\n}", new NamePool());
+        List<String> positions = new ArrayList<>();
+
+        while (tokenizer.hasMoreTokens()) {
+            positions.add(tokenizer.getLine() + ":" + tokenizer.getColumn() + " " + tokenizer.advance().getValue());
+        }
+        positions.add(tokenizer.getLine() + ":" + tokenizer.getColumn() + " end");
+
+        assertEquals(List.of("1:1 class", "1:7 A", "1:9 {", "3:11 field", "3:17 int", "3:21 x", "3:22 ;", "5:1 }", "5:2 end"),
+                positions);
+    }
+
+    @Test
+    public void pipelinedStreamKeepsPositions() {
+        String source = "class A {\n  function void f() {\n    return;\n  }\n}\n";
+        TokenList serial = TokenList.scan(new Tokenizer(source, new NamePool()));
+
+        try (PipelinedTokenStream pipelined = new PipelinedTokenStream(new Tokenizer(source, new NamePool()))) {
+            for (int i = 0; i < serial.size(); i++) {
+                assertEquals(serial.getLine(), pipelined.getLine());
+                assertEquals(serial.getColumn(), pipelined.getColumn());
+                assertEquals(serial.advance().toString(), pipelined.advance().toString());
+            }
+            assertFalse(pipelined.hasMoreTokens());
+            assertEquals(serial.getLine(), pipelined.getLine());
+            assertEquals(serial.getColumn(), pipelined.getColumn());
+        }
+    }
+
+    @Test
+    public void slashIsASymbolUnlessItStartsAComment() {
+        Tokenizer tokenizer = new Tokenizer("a/b//c\n/*d*/e", new NamePool());
+        List<String> values = new ArrayList<>();
+
+        while (tokenizer.hasMoreTokens()) {
+            values.add(tokenizer.advance().getValue());
+        }
+
+        assertEquals(List.of("a", "/", "b", "e"), values);
+    }
+
+    @Test
+    public void unknownCharIsReportedWithItsPosition() {
+        Tokenizer tokenizer = new Tokenizer("let x = 1;\n  let y = #2;", new NamePool());
+
+        SyntaxException e = assertThrows(SyntaxException.class, () -> {
+            while (tokenizer.hasMoreTokens()) {
+                tokenizer.advance();
+            }
+        });
+
+        assertEquals("2:11: Unknown char: #2;", e.getDiagnostics().get(0).toString());
+    }
+
+    @Test
+    public void pipelinedStreamFailsWhereTokenizerDoes() {
+        try (PipelinedTokenStream tokens = new PipelinedTokenStream(new Tokenizer("let x = #;", new NamePool()))) {
+            SyntaxException e = assertThrows(SyntaxException.class, () -> {
+                while (tokens.hasMoreTokens()) {
+                    tokens.advance();
+                }
+            });
+
+            assertEquals("1:9: Unknown char: #;", e.getDiagnostics().get(0).toString());
+        }
+    }
+
+    @Test
+    public void readerInputMatchesText() {
+        String source = "class A { field String s; method void f() { let s = \"a b\"; return; } }";
+        Tokenizer text = new Tokenizer(source, new NamePool());
+        Tokenizer reader = new Tokenizer(new StringReader(source), new NamePool());
+
+        while (text.hasMoreTokens()) {
+            assertEquals(text.advance().toString(), reader.advance().toString());
+        }
+        assertFalse(reader.hasMoreTokens());
+    }
+
+    @Test
+    public void resetStartsOverOnNewInput() {
+        NamePool names = new NamePool();
+        Tokenizer tokenizer = new Tokenizer("class A", names);
+
+        tokenizer.advance();
+        tokenizer.reset(new StringReader("\n  return"));
+
+        assertEquals(2, tokenizer.getLine());
+        assertEquals(3, tokenizer.getColumn());
+        assertEquals("return", tokenizer.advance().getValue());
+        assertFalse(tokenizer.hasMoreTokens());
+    }
+}
@@ -0,0 +1,304 @@
+package com.tandrade.jack.vm.peephole;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.tandrade.jack.vm.InstructionBuffer;
+import com.tandrade.jack.vm.Opcode;
+import com.tandrade.jack.vm.Segment;
+import com.tandrade.jack.vm.VMInstruction;
+
+public class PeepholeOptimizerTest {
+
+    @Test
+    public void doubleNot() {
+        assertRewrites(new DoubleNotRule(), "push local 0", "not", "not", "return")
+                .to("push local 0", "return");
+        assertKeeps(new DoubleNotRule(), "not", "neg", "not");
+    }
+
+    @Test
+    public void constantBranch() {
+        assertRewrites(new ConstantBranchRule(), "push constant 0", "if-goto L", "return")
+                .to("return");
+        assertRewrites(new ConstantBranchRule(), "push constant 0", "not", "if-goto L", "label L")
+                .to("goto L", "label L");
+        assertKeeps(new ConstantBranchRule(), "push constant 1", "if-goto L");
+        assertKeeps(new ConstantBranchRule(), "push local 0", "if-goto L");
+        assertKeeps(new ConstantBranchRule(), "push constant 0", "neg", "if-goto L");
+    }
+
+    @Test
+    public void invertedBranch() {
+        assertRewrites(new InvertedBranchRule(), "lt", "if-goto A", "goto B", "label A")
+                .to("lt", "not", "if-goto B", "label A");
+        assertRewrites(new InvertedBranchRule(), "eq", "not", "if-goto A", "goto B", "label A")
+                .to("eq", "not", "not", "if-goto B", "label A");
+        // not is bitwise, so it only inverts conditions that are 0 or -1
+        assertKeeps(new InvertedBranchRule(), "and", "if-goto A", "goto B", "label A");
+        assertKeeps(new InvertedBranchRule(), "if-goto A", "goto B", "label A");
+        assertKeeps(new InvertedBranchRule(), "gt", "if-goto A", "goto B", "label C");
+    }
+
+    @Test
+    public void pushPop() {
+        assertRewrites(new PushPopRule(), "push local 1", "pop local 1", "return")
+                .to("return");
+        assertKeeps(new PushPopRule(), "push local 1", "pop local 2");
+        assertKeeps(new PushPopRule(), "push local 1", "pop argument 1");
+    }
+
+    @Test
+    public void jumpToNext() {
+        assertRewrites(new JumpToNextRule(), "goto L", "label L")
+                .to("label L");
+        assertKeeps(new JumpToNextRule(), "goto L", "label M");
+        assertKeeps(new JumpToNextRule(), "if-goto L", "label L");
+    }
+
+    @Test
+    public void unreachableCode() {
+        assertRewrites(new UnreachableCodeRule(), "goto L", "push local 0", "pop local 1", "label L")
+                .to("goto L", "label L");
+        assertRewrites(new UnreachableCodeRule(), "return", "push constant 0", "return")
+                .to("return");
+        assertKeeps(new UnreachableCodeRule(), "goto L", "label L");
+        assertKeeps(new UnreachableCodeRule(), "if-goto L", "push local 0", "label L");
+    }
+
+    @Test
+    public void unusedLabel() {
+        assertRewrites(new UnusedLabelRule(), "label L", "return")
+                .to("return");
+        assertKeeps(new UnusedLabelRule(), "label L", "goto L");
+        assertKeeps(new UnusedLabelRule(), "if-goto L", "label L");
+    }
+
+    @Test
+    public void rulesRunUntilNothingChanges() {
+        List<String> optimized = optimize(
+                "function A.f 0",
+                "push argument 0",
+                "push argument 1",
+                "lt",
+                "if-goto TRUE",
+                "goto FALSE",
+                "label TRUE",
+                "push constant 0",
+                "return",
+                "label FALSE",
+                "push constant 0",
+                "not",
+                "if-goto END",
+                "push local 0",
+                "pop local 0",
+                "label END",
+                "push constant 1",
+                "return");
+
+        assertEquals(List.of(
+                "function A.f 0",
+                "push argument 0",
+                "push argument 1",
+                "lt",
+                "not",
+                "if-goto FALSE",
+                "push constant 0",
+                "return",
+                "label FALSE",
+                "push constant 1",
+                "return"), optimized);
+    }
+
+    @Test
+    public void functionsAreOptimizedOnTheirOwn() {
+        // The jump in g does not keep f's label alive
+        List<String> optimized = optimize(
+                "function A.f 0",
+                "label L",
+                "push constant 0",
+                "return",
+                "function A.g 0",
+                "goto L",
+                "label L",
+                "push constant 0",
+                "return");
+
+        assertEquals(List.of(
+                "function A.f 0",
+                "push constant 0",
+                "return",
+                "function A.g 0",
+                "push constant 0",
+                "return"), optimized);
+    }
+
+    @Test
+    public void creditsAnOrphanedLabelToTheRuleThatOrphanedIt() {
+        // Inverting the branch leaves label A with no jump, so dropping it is what the inversion saved
+        Map<String, Integer> counts = count(
+                "function A.f 0",
+                "push argument 0",
+                "push argument 1",
+                "lt",
+                "if-goto A",
+                "goto B",
+                "label A",
+                "push constant 0",
+                "return",
+                "label B",
+                "push constant 1",
+                "return");
+
+        assertEquals(1, counts.get("inverted-branch"));
+        assertEquals(0, counts.get("unused-label"));
+    }
+
+    @Test
+    public void countsEveryRemovedInstructionOnce() {
+        String[] lines = {
+            "function A.f 0",
+            "push constant 0",
+            "if-goto SKIP",
+            "push local 0",
+            "pop local 0",
+            "label SKIP",
+            "label NEVER",
+            "push argument 0",
+            "not",
+            "not",
+            "return",
+            "push constant 1",
+            "return"
+        };
+        Map<String, Integer> counts = count(lines);
+
+        assertEquals(3, counts.get("constant-branch"));
+        assertEquals(2, counts.get("push-pop"));
+        assertEquals(2, counts.get("double-not"));
+        assertEquals(2, counts.get("unreachable-code"));
+        assertEquals(1, counts.get("unused-label"));
+        assertEquals(lines.length - optimize(lines).size(), counts.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    private static List<String> optimize(String... lines) {
+        InstructionBuffer target = new InstructionBuffer();
+        PeepholeOptimizer optimizer = new PeepholeOptimizer(target);
+
+        for (VMInstruction instruction : code(lines)) {
+            instruction.writeTo(optimizer);
+        }
+        optimizer.flush();
+
+        return text(target.getInstructions());
+    }
+
+    private static Map<String, Integer> count(String... lines) {
+        PeepholeOptimizer optimizer = new PeepholeOptimizer(new InstructionBuffer());
+
+        for (VMInstruction instruction : code(lines)) {
+            instruction.writeTo(optimizer);
+        }
+        optimizer.flush();
+
+        return optimizer.getRemovedCounts();
+    }
+
+    private static Rewrite assertRewrites(PeepholeRule rule, String... lines) {
+        List<VMInstruction> code = code(lines);
+
+        assertTrue(applyAll(rule, code), rule.getName() + " did not apply");
+
+        return expected -> assertEquals(List.of(expected), text(code));
+    }
+
+    private static void assertKeeps(PeepholeRule rule, String... lines) {
+        List<VMInstruction> code = code(lines);
+
+        assertFalse(applyAll(rule, code), rule.getName() + " applied");
+        assertEquals(List.of(lines), text(code));
+    }
+
+    private static boolean applyAll(PeepholeRule rule, List<VMInstruction> code) {
+        boolean changed = false;
+
+        for (int i = 0; i < code.size(); i++) {
+            changed |= rule.apply(code, i);
+        }
+
+        return changed;
+    }
+
+    private interface Rewrite {
+        void to(String... expected);
+    }
+
+    private static List<String> text(List<VMInstruction> code) {
+        return code.stream().map(VMInstruction::toString).collect(Collectors.toList());
+    }
+
+    private static List<VMInstruction> code(String... lines) {
+        List<VMInstruction> code = new ArrayList<>();
+
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+
+            switch (parts[0]) {
+                case "push":
+                    code.add(VMInstruction.push(segment(parts[1]), Integer.parseInt(parts[2])));
+                    break;
+                case "pop":
+                    code.add(VMInstruction.pop(segment(parts[1]), Integer.parseInt(parts[2])));
+                    break;
+                case "label":
+                    code.add(VMInstruction.label(Opcode.LABEL, parts[1], -1));
+                    break;
+                case "goto":
+                    code.add(VMInstruction.label(Opcode.GOTO, parts[1], -1));
+                    break;
+                case "if-goto":
+                    code.add(VMInstruction.label(Opcode.IF_GOTO, parts[1], -1));
+                    break;
+                case "function":
+                    String[] name = parts[1].split("\\.");
+                    code.add(VMInstruction.function(Opcode.FUNCTION, name[0], name[1], Integer.parseInt(parts[2])));
+                    break;
+                case "return":
+                    code.add(VMInstruction.ret());
+                    break;
+                default:
+                    code.add(VMInstruction.arithmetic(opcode(parts[0])));
+            }
+        }
+
+        return code;
+    }
+
+    private static Segment segment(String value) {
+        for (Segment segment : Segment.values()) {
+            if (segment.getValue().equals(value)) {
+                return segment;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown segment: " + value);
+    }
+
+    private static Opcode opcode(String value) {
+        for (Opcode opcode : Opcode.values()) {
+            if (opcode.getValue().equals(value)) {
+                return opcode;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown command: " + value);
+    }
+}